@@ -1,30 +1,60 @@
 package com.reactnatjhip.developer.aop.logging;
 
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import tech.jhipster.config.JHipsterConstants;
 
 /**
  * Aspect for logging execution of service and repository Spring components.
  *
- * By default, it only runs with the "dev" profile.
+ * By default, it only runs with the "dev" profile. With {@code application.method-logging.timing}, it also runs in the
+ * other profiles and records the duration of each method in the {@code method.timed} timer, tagged with its class and
+ * method; the duration of a {@link Mono} or a {@link Flux} runs from its subscription to its terminal signal. Only the
+ * {@code application.method-logging.sample-rate} share of the calls is logged.
  */
 @Aspect
 public class LoggingAspect {
 
+    private static final String TIMER_NAME = "method.timed";
+
     private final Environment env;
 
-    public LoggingAspect(Environment env) {
+    private final MeterRegistry meterRegistry;
+
+    private final boolean timing;
+
+    private final double sampleRate;
+
+    private final Map<Class<?>, Map<Method, Timer>> timers = new ConcurrentHashMap<>();
+
+    public LoggingAspect(Environment env, MeterRegistry meterRegistry, ApplicationProperties.MethodLogging properties) {
         this.env = env;
+        this.meterRegistry = meterRegistry;
+        this.timing = properties.isTiming();
+        this.sampleRate = properties.getSampleRate();
     }
 
     /**
@@ -89,7 +119,7 @@ public class LoggingAspect {
     }
 
     /**
-     * Advice that logs when a method is entered and exited.
+     * Advice that logs when a method is entered and exited, and times it.
      *
      * @param joinPoint join point for advice.
      * @return result.
@@ -98,18 +128,96 @@ public class LoggingAspect {
     @Around("applicationPackagePointcut() && springBeanPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
         Logger log = logger(joinPoint);
-        if (log.isDebugEnabled()) {
+        boolean logged = log.isDebugEnabled() && isSampled();
+        if (logged) {
             log.debug("Enter: {}() with argument[s] = {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
         }
+        Timer timer = timing ? timer(joinPoint) : null;
+        long start = timer != null ? System.nanoTime() : 0L;
+        Object result;
         try {
-            Object result = joinPoint.proceed();
-            if (log.isDebugEnabled()) {
-                log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), result);
-            }
-            return result;
+            result = joinPoint.proceed();
         } catch (IllegalArgumentException e) {
             log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), joinPoint.getSignature().getName());
             throw e;
         }
+        if (result instanceof Mono) {
+            return timeAndLog((Mono<?>) result, timer, logged ? log : null, joinPoint.getSignature().getName());
+        }
+        if (result instanceof Flux) {
+            return timeAndLog((Flux<?>) result, timer, logged ? log : null, joinPoint.getSignature().getName());
+        }
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (logged) {
+            log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), result);
+        }
+        return result;
+    }
+
+    private Mono<?> timeAndLog(Mono<?> mono, Timer timer, Logger log, String name) {
+        Mono<?> result = mono;
+        if (log != null) {
+            result = result.doOnSuccess(value -> log.debug("Exit: {}() with result = {}", name, value));
+        }
+        if (timer != null) {
+            Mono<?> timed = result;
+            result = Mono.defer(() -> timed(timed, timer));
+        }
+        return result;
+    }
+
+    private Flux<?> timeAndLog(Flux<?> flux, Timer timer, Logger log, String name) {
+        Flux<?> result = flux;
+        if (log != null) {
+            result = result.doFinally(signal -> log.debug("Exit: {}() with signal = {}", name, signal));
+        }
+        if (timer != null) {
+            Flux<?> timed = result;
+            result = Flux.defer(() -> timed(timed, timer));
+        }
+        return result;
+    }
+
+    private static Mono<?> timed(Mono<?> mono, Timer timer) {
+        long start = System.nanoTime();
+        Runnable stop = () -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return mono.doOnTerminate(stop).doOnCancel(stop);
+    }
+
+    private static Flux<?> timed(Flux<?> flux, Timer timer) {
+        long start = System.nanoTime();
+        Runnable stop = () -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return flux.doOnTerminate(stop).doOnCancel(stop);
+    }
+
+    private boolean isSampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private Timer timer(ProceedingJoinPoint joinPoint) {
+        Object target = joinPoint.getTarget();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return timers
+            .computeIfAbsent(target != null ? target.getClass() : method.getDeclaringClass(), type -> new ConcurrentHashMap<>())
+            .computeIfAbsent(
+                method,
+                key -> Timer.builder(TIMER_NAME).tag("class", typeName(target, key)).tag("method", key.getName()).register(meterRegistry)
+            );
+    }
+
+    /**
+     * Returns the name of the type of a bean, which is the interface of a repository rather than the class of its proxy.
+     */
+    private static String typeName(Object target, Method method) {
+        if (target == null) {
+            return method.getDeclaringClass().getSimpleName();
+        }
+        if (Proxy.isProxyClass(target.getClass())) {
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(target);
+            return interfaces.length > 0 ? interfaces[0].getSimpleName() : method.getDeclaringClass().getSimpleName();
+        }
+        return ClassUtils.getUserClass(target).getSimpleName();
     }
 }
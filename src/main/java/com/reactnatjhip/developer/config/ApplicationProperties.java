@@ -1,5 +1,9 @@
 package com.reactnatjhip.developer.config;
 
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +13,509 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Count count = new Count();
+
+    private final Booking booking = new Booking();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final LoginThrottling loginThrottling = new LoginThrottling();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
+    private final MethodLogging methodLogging = new MethodLogging();
+
+    private final QueryLog queryLog = new QueryLog();
+
+    private final ReadReplicas readReplicas = new ReadReplicas();
+
+    private final Agenda agenda = new Agenda();
+
+    private final UserCache userCache = new UserCache();
+
+    public Count getCount() {
+        return count;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public LoginThrottling getLoginThrottling() {
+        return loginThrottling;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public MethodLogging getMethodLogging() {
+        return methodLogging;
+    }
+
+    public QueryLog getQueryLog() {
+        return queryLog;
+    }
+
+    public ReadReplicas getReadReplicas() {
+        return readReplicas;
+    }
+
+    public Agenda getAgenda() {
+        return agenda;
+    }
+
+    public UserCache getUserCache() {
+        return userCache;
+    }
+
+    /**
+     * Row counts of the paged listings, see {@link com.reactnatjhip.developer.service.EntityCountService}.
+     */
+    public static class Count {
+
+        private long estimateThreshold = 100_000;
+
+        private Duration maxStaleness = Duration.ofSeconds(30);
+
+        public long getEstimateThreshold() {
+            return estimateThreshold;
+        }
+
+        public void setEstimateThreshold(long estimateThreshold) {
+            this.estimateThreshold = estimateThreshold;
+        }
+
+        public Duration getMaxStaleness() {
+            return maxStaleness;
+        }
+
+        public void setMaxStaleness(Duration maxStaleness) {
+            this.maxStaleness = maxStaleness;
+        }
+    }
+
+    /**
+     * Appointment slots, see {@link com.reactnatjhip.developer.service.AppointmentBookingService}.
+     */
+    public static class Booking {
+
+        private Duration slotDuration = Duration.ofMinutes(30);
+
+        private long maxIndexes = 10_000;
+
+        private Duration timeToLive = Duration.ofMinutes(30);
+
+        public Duration getSlotDuration() {
+            return slotDuration;
+        }
+
+        public void setSlotDuration(Duration slotDuration) {
+            this.slotDuration = slotDuration;
+        }
+
+        public long getMaxIndexes() {
+            return maxIndexes;
+        }
+
+        public void setMaxIndexes(long maxIndexes) {
+            this.maxIndexes = maxIndexes;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    /**
+     * Password hashing, see {@link com.reactnatjhip.developer.security.PasswordHashingScheduler}.
+     */
+    public static class PasswordHashing {
+
+        private int strength = 10;
+
+        private int threads = 0;
+
+        private int queueCapacity = 100;
+
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    /**
+     * Authentication attempts, see {@link com.reactnatjhip.developer.security.LoginRateLimiter}.
+     */
+    public static class LoginThrottling {
+
+        private boolean enabled = true;
+
+        private long maxBuckets = 100_000;
+
+        private final Limit perLogin = new Limit(10, Duration.ofMinutes(1));
+
+        private final Limit perClient = new Limit(50, Duration.ofMinutes(1));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxBuckets() {
+            return maxBuckets;
+        }
+
+        public void setMaxBuckets(long maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+
+        public Limit getPerLogin() {
+            return perLogin;
+        }
+
+        public Limit getPerClient() {
+            return perClient;
+        }
+
+        /**
+         * A number of attempts allowed in a burst, which are given back at a steady rate over the period.
+         */
+        public static class Limit {
+
+            private int capacity;
+
+            private Duration period;
+
+            public Limit(int capacity, Duration period) {
+                this.capacity = capacity;
+                this.period = period;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+
+            public Duration getPeriod() {
+                return period;
+            }
+
+            public void setPeriod(Duration period) {
+                this.period = period;
+            }
+        }
+    }
+
+    /**
+     * Outgoing emails, see {@link com.reactnatjhip.developer.service.MailOutboxDispatcher}.
+     */
+    public static class MailOutbox {
+
+        private boolean enabled = true;
+
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        private int batchSize = 50;
+
+        private int maxAttempts = 5;
+
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        private Duration leaseDuration = Duration.ofMinutes(5);
+
+        private Duration retention = Duration.ofDays(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getLeaseDuration() {
+            return leaseDuration;
+        }
+
+        public void setLeaseDuration(Duration leaseDuration) {
+            this.leaseDuration = leaseDuration;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    /**
+     * Logging and timing of the repository, service and REST methods, see
+     * {@link com.reactnatjhip.developer.aop.logging.LoggingAspect}.
+     */
+    public static class MethodLogging {
+
+        private boolean timing = false;
+
+        private double sampleRate = 1.0;
+
+        public boolean isTiming() {
+            return timing;
+        }
+
+        public void setTiming(boolean timing) {
+            this.timing = timing;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+    }
+
+    /**
+     * SQL statements, see {@link com.reactnatjhip.developer.repository.metrics.QueryMetrics}.
+     */
+    public static class QueryLog {
+
+        private Duration slowThreshold = Duration.ofMillis(500);
+
+        private boolean percentileHistogram = false;
+
+        public Duration getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Duration slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+
+        public boolean isPercentileHistogram() {
+            return percentileHistogram;
+        }
+
+        public void setPercentileHistogram(boolean percentileHistogram) {
+            this.percentileHistogram = percentileHistogram;
+        }
+    }
+
+    /**
+     * Read replicas, see {@link com.reactnatjhip.developer.repository.routing.ReadReplicaRoutingConnectionFactory}.
+     */
+    public static class ReadReplicas {
+
+        private List<String> urls = new ArrayList<>();
+
+        private String username;
+
+        private String password;
+
+        private Duration maxLag = Duration.ofSeconds(10);
+
+        private Duration checkInterval = Duration.ofSeconds(5);
+
+        private String lagQuery;
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public Duration getCheckInterval() {
+            return checkInterval;
+        }
+
+        public void setCheckInterval(Duration checkInterval) {
+            this.checkInterval = checkInterval;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+    }
+
+    /**
+     * Agendas of the advisers, see {@link com.reactnatjhip.developer.service.AdviserAgendaService}.
+     */
+    public static class Agenda {
+
+        private ZoneId zone = ZoneId.of("UTC");
+
+        private long maxDays = 10_000;
+
+        private Duration timeToLive = Duration.ofMinutes(30);
+
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        public void setZone(ZoneId zone) {
+            this.zone = zone;
+        }
+
+        public long getMaxDays() {
+            return maxDays;
+        }
+
+        public void setMaxDays(long maxDays) {
+            this.maxDays = maxDays;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    /**
+     * Users and authorities kept in memory, see {@link com.reactnatjhip.developer.service.UserCacheService}.
+     */
+    public static class UserCache {
+
+        private long maxEntries = 10_000;
+
+        private Duration timeToLive = Duration.ofMinutes(2);
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.reactnatjhip.developer.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+/**
+ * Health of the R2DBC connection pool, with its usage as details: down once the pool is disposed.
+ * <p>
+ * It is part of the {@code readiness} group, next to the {@code r2dbc} indicator which checks the database itself.
+ */
+public class ConnectionPoolHealthIndicator extends AbstractHealthIndicator {
+
+    private final ConnectionPool connectionPool;
+
+    private final Timer acquireTimer;
+
+    public ConnectionPoolHealthIndicator(ConnectionPool connectionPool, Timer acquireTimer) {
+        super("Connection pool health check failed");
+        this.connectionPool = connectionPool;
+        this.acquireTimer = acquireTimer;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if (connectionPool.isDisposed()) {
+            builder.down();
+            return;
+        }
+        builder.up();
+        connectionPool
+            .getMetrics()
+            .ifPresent(
+                metrics ->
+                    builder
+                        .withDetail("acquired", metrics.acquiredSize())
+                        .withDetail("allocated", metrics.allocatedSize())
+                        .withDetail("idle", metrics.idleSize())
+                        .withDetail("pending", metrics.pendingAcquireSize())
+                        .withDetail("maxAllocated", metrics.getMaxAllocatedSize())
+                        .withDetail("maxPending", metrics.getMaxPendingAcquireSize())
+            );
+        builder.withDetail("acquireTimeMaxMs", acquireTimer.max(TimeUnit.MILLISECONDS));
+    }
+}
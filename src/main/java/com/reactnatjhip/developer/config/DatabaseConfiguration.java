@@ -1,6 +1,15 @@
 package com.reactnatjhip.developer.config;
 
+import com.reactnatjhip.developer.repository.metrics.QueryMetrics;
+import com.reactnatjhip.developer.repository.routing.ReadReplicaRoutingConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
@@ -11,12 +20,20 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.PropertyMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.env.Environment;
 import org.springframework.data.convert.CustomConversions;
@@ -32,6 +49,7 @@ import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 import org.springframework.data.relational.core.dialect.RenderContextFactory;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
 
@@ -95,6 +113,110 @@ public class DatabaseConfiguration {
         );
     }
 
+    /**
+     * The connection pool of the primary database, configured by the {@code spring.r2dbc.pool} properties. Its
+     * {@code r2dbc.pool.*} gauges are published by Spring Boot, the time to acquire a connection by the
+     * {@link QueryMetrics}.
+     *
+     * @param r2dbcProperties the R2DBC properties.
+     * @return the connection pool.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(R2dbcProperties r2dbcProperties) {
+        return createConnectionPool(
+            "connectionFactory",
+            r2dbcProperties.getUrl(),
+            r2dbcProperties.getUsername(),
+            r2dbcProperties.getPassword(),
+            r2dbcProperties
+        );
+    }
+
+    /**
+     * The connection factory of the application, which sends the read-only transactions to the read replicas of
+     * {@code application.read-replicas}, if any. Each replica has its own pool, configured like the primary one.
+     *
+     * @param connectionFactory the connection pool of the primary database.
+     * @param r2dbcProperties the R2DBC properties.
+     * @param applicationProperties the application properties.
+     * @param meterRegistry the meter registry.
+     * @return the routing connection factory.
+     */
+    @Bean
+    @Primary
+    public ReadReplicaRoutingConnectionFactory routingConnectionFactory(
+        ConnectionPool connectionFactory,
+        R2dbcProperties r2dbcProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.ReadReplicas properties = applicationProperties.getReadReplicas();
+        String username = StringUtils.hasText(properties.getUsername()) ? properties.getUsername() : r2dbcProperties.getUsername();
+        String password = StringUtils.hasText(properties.getPassword()) ? properties.getPassword() : r2dbcProperties.getPassword();
+        Map<String, ConnectionFactory> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.getUrls().size(); i++) {
+            String name = "replica-" + i;
+            ConnectionPool replica = createConnectionPool(name, properties.getUrls().get(i), username, password, r2dbcProperties);
+            new ConnectionPoolMetrics(replica, name, Tags.empty()).bindTo(meterRegistry);
+            replicas.put(name, replica);
+        }
+        log.debug("Routing the read-only transactions to {} read replicas", replicas.size());
+        return new ReadReplicaRoutingConnectionFactory(connectionFactory, replicas, properties, meterRegistry);
+    }
+
+    private static ConnectionPool createConnectionPool(
+        String name,
+        String url,
+        String username,
+        String password,
+        R2dbcProperties r2dbcProperties
+    ) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (StringUtils.hasText(username)) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (StringUtils.hasText(password)) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        r2dbcProperties.getProperties().forEach((key, value) -> options.option(Option.valueOf(key), value));
+
+        R2dbcProperties.Pool pool = r2dbcProperties.getPool();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration
+            .builder(ConnectionFactories.get(options.build()))
+            .name(name)
+            .initialSize(pool.getInitialSize())
+            .maxSize(pool.getMaxSize())
+            .maxIdleTime(pool.getMaxIdleTime())
+            .validationDepth(pool.getValidationDepth());
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(pool.getMaxLifeTime()).to(configuration::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(configuration::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(configuration::maxCreateConnectionTime);
+        map.from(pool.getValidationQuery()).whenHasText().to(configuration::validationQuery);
+        return new ConnectionPool(configuration.build());
+    }
+
+    /**
+     * Opens the initial connections of the pool once the application is started, before it is ready to accept traffic.
+     *
+     * @param event the event of the started application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpConnectionPool(ApplicationReadyEvent event) {
+        ConnectionPool connectionPool = event.getApplicationContext().getBean(ConnectionPool.class);
+        try {
+            Integer connections = connectionPool.warmup().block();
+            log.debug("Connection pool warmed up with {} connections", connections);
+        } catch (RuntimeException e) {
+            log.warn("Could not warm up the connection pool: {}", e.getMessage());
+        }
+    }
+
+    @Bean
+    public ConnectionPoolHealthIndicator connectionPoolHealthIndicator(ConnectionPool connectionPool, QueryMetrics queryMetrics) {
+        return new ConnectionPoolHealthIndicator(connectionPool, queryMetrics.getAcquireTimer());
+    }
+
     @Bean
     public R2dbcDialect dialect(ConnectionFactory connectionFactory) {
         return DialectResolver.getDialect(connectionFactory);
@@ -1,5 +1,7 @@
 package com.reactnatjhip.developer.config;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import javax.sql.DataSource;
@@ -34,7 +36,8 @@ public class LiquibaseConfiguration {
     public SpringLiquibase liquibase(
         @Qualifier("taskExecutor") Executor executor,
         LiquibaseProperties liquibaseProperties,
-        R2dbcProperties dataSourceProperties
+        R2dbcProperties dataSourceProperties,
+        ApplicationProperties applicationProperties
     ) {
         SpringLiquibase liquibase = createAsyncSpringLiquibase(this.env, executor, liquibaseProperties, dataSourceProperties);
         liquibase.setChangeLog("classpath:config/liquibase/master.xml");
@@ -46,7 +49,7 @@ public class LiquibaseConfiguration {
         liquibase.setDatabaseChangeLogTable(liquibaseProperties.getDatabaseChangeLogTable());
         liquibase.setDropFirst(liquibaseProperties.isDropFirst());
         liquibase.setLabels(liquibaseProperties.getLabels());
-        liquibase.setChangeLogParameters(liquibaseProperties.getParameters());
+        liquibase.setChangeLogParameters(changeLogParameters(liquibaseProperties, applicationProperties));
         liquibase.setRollbackFile(liquibaseProperties.getRollbackFile());
         liquibase.setTestRollbackOnUpdate(liquibaseProperties.isTestRollbackOnUpdate());
         if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_NO_LIQUIBASE))) {
@@ -58,6 +61,23 @@ public class LiquibaseConfiguration {
         return liquibase;
     }
 
+    /**
+     * The parameters of the changelogs, with those taken from the application properties, so the database and the
+     * application share a single setting.
+     */
+    private static Map<String, String> changeLogParameters(
+        LiquibaseProperties liquibaseProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        Map<String, String> parameters = new HashMap<>();
+        if (liquibaseProperties.getParameters() != null) {
+            parameters.putAll(liquibaseProperties.getParameters());
+        }
+        // as a PostgreSQL interval, see the slot constraints of the appointments
+        parameters.put("slotDuration", applicationProperties.getBooking().getSlotDuration().toMillis() + " milliseconds");
+        return parameters;
+    }
+
     public static SpringLiquibase createAsyncSpringLiquibase(
         Environment env,
         Executor executor,
@@ -1,8 +1,11 @@
 package com.reactnatjhip.developer.config;
 
 import com.reactnatjhip.developer.aop.logging.LoggingAspect;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.type.AnnotatedTypeMetadata;
 import tech.jhipster.config.JHipsterConstants;
 
 @Configuration
@@ -10,8 +13,23 @@ import tech.jhipster.config.JHipsterConstants;
 public class LoggingAspectConfiguration {
 
     @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect(Environment env) {
-        return new LoggingAspect(env);
+    @Conditional(LoggingAspectCondition.class)
+    public LoggingAspect loggingAspect(Environment env, MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        return new LoggingAspect(env, meterRegistry, applicationProperties.getMethodLogging());
+    }
+
+    /**
+     * Registers the aspect with the "dev" profile, or when the methods are timed; otherwise the beans are not proxied.
+     */
+    static class LoggingAspectCondition implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            Environment env = context.getEnvironment();
+            return (
+                env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)) ||
+                env.getProperty("application.method-logging.timing", Boolean.class, false)
+            );
+        }
     }
 }
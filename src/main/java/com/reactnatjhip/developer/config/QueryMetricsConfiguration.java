@@ -0,0 +1,45 @@
+package com.reactnatjhip.developer.config;
+
+import com.reactnatjhip.developer.repository.metrics.MeteredConnectionFactory;
+import com.reactnatjhip.developer.repository.metrics.QueryMetrics;
+import com.reactnatjhip.developer.repository.metrics.QueryOriginAspect;
+import com.reactnatjhip.developer.repository.routing.ReadReplicaTransactionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Runs the statements of the repositories and of the transactions through a {@link MeteredConnectionFactory}.
+ * <p>
+ * The {@link ConnectionFactory} beans themselves are left as is, so the connection pool is still seen by its metrics and
+ * health indicator.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+public class QueryMetricsConfiguration {
+
+    @Bean
+    public QueryMetrics queryMetrics(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        ApplicationProperties.QueryLog properties = applicationProperties.getQueryLog();
+        return new QueryMetrics(meterRegistry, properties.getSlowThreshold(), properties.isPercentileHistogram());
+    }
+
+    @Bean
+    public QueryOriginAspect queryOriginAspect() {
+        return new QueryOriginAspect();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory, QueryMetrics queryMetrics) {
+        return DatabaseClient.builder().connectionFactory(new MeteredConnectionFactory(connectionFactory, queryMetrics)).build();
+    }
+
+    @Bean
+    public R2dbcTransactionManager connectionFactoryTransactionManager(ConnectionFactory connectionFactory, QueryMetrics queryMetrics) {
+        return new ReadReplicaTransactionManager(new MeteredConnectionFactory(connectionFactory, queryMetrics));
+    }
+}
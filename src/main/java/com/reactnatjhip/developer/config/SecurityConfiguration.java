@@ -3,9 +3,11 @@ package com.reactnatjhip.developer.config;
 import static org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers.pathMatchers;
 
 import com.reactnatjhip.developer.security.AuthoritiesConstants;
+import com.reactnatjhip.developer.security.PasswordHashingScheduler;
 import com.reactnatjhip.developer.security.jwt.JWTFilter;
 import com.reactnatjhip.developer.security.jwt.TokenProvider;
 import com.reactnatjhip.developer.web.filter.SpaWebFilter;
+import java.util.concurrent.RejectedExecutionException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
@@ -15,6 +17,7 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -38,21 +41,29 @@ public class SecurityConfiguration {
 
     private final SecurityProblemSupport problemSupport;
 
+    private final ApplicationProperties applicationProperties;
+
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
     public SecurityConfiguration(
         ReactiveUserDetailsService userDetailsService,
         TokenProvider tokenProvider,
         JHipsterProperties jHipsterProperties,
-        SecurityProblemSupport problemSupport
+        SecurityProblemSupport problemSupport,
+        ApplicationProperties applicationProperties,
+        PasswordHashingScheduler passwordHashingScheduler
     ) {
         this.userDetailsService = userDetailsService;
         this.tokenProvider = tokenProvider;
         this.jHipsterProperties = jHipsterProperties;
         this.problemSupport = problemSupport;
+        this.applicationProperties = applicationProperties;
+        this.passwordHashingScheduler = passwordHashingScheduler;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(applicationProperties.getPasswordHashing().getStrength());
     }
 
     @Bean
@@ -61,7 +72,15 @@ public class SecurityConfiguration {
             userDetailsService
         );
         authenticationManager.setPasswordEncoder(passwordEncoder());
-        return authenticationManager;
+        // the password is verified on the hashing pool, and rehashed when its strength is lower than the configured one
+        authenticationManager.setScheduler(passwordHashingScheduler.getScheduler());
+        if (userDetailsService instanceof ReactiveUserDetailsPasswordService) {
+            authenticationManager.setUserDetailsPasswordService((ReactiveUserDetailsPasswordService) userDetailsService);
+        }
+        return authentication ->
+            authenticationManager
+                .authenticate(authentication)
+                .onErrorMap(RejectedExecutionException.class, passwordHashingScheduler::translateRejection);
     }
 
     @Bean
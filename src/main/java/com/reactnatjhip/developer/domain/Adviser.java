@@ -1,5 +1,6 @@
 package com.reactnatjhip.developer.domain;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
@@ -28,9 +29,11 @@ public class Adviser implements Serializable {
 
     private Long userId;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     @Transient
     private User user;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     @Transient
     private Bank bank;
 
@@ -1,6 +1,5 @@
 package com.reactnatjhip.developer.domain;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
 import java.time.Instant;
 import org.springframework.data.annotation.Id;
@@ -31,14 +30,12 @@ public class Appointment implements Serializable {
     @Column("reportreason")
     private String reportreason;
 
-    @JsonIgnoreProperties(value = { "user", "bank" }, allowSetters = true)
     @Transient
     private Adviser adviser;
 
     @Column("adviser_id")
     private Long adviserId;
 
-    @JsonIgnoreProperties(value = { "user", "company" }, allowSetters = true)
     @Transient
     private Manager manager;
 
@@ -159,6 +156,27 @@ public class Appointment implements Serializable {
 
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
+    /**
+     * Apply a partial update: the fields set in the patch replace the ones of this appointment, the others are kept.
+     * @param patch the appointment holding the updated fields.
+     * @return this appointment.
+     */
+    public Appointment merge(Appointment patch) {
+        if (patch.getReason() != null) {
+            setReason(patch.getReason());
+        }
+        if (patch.getDate() != null) {
+            setDate(patch.getDate());
+        }
+        if (patch.getState() != null) {
+            setState(patch.getState());
+        }
+        if (patch.getReportreason() != null) {
+            setReportreason(patch.getReportreason());
+        }
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
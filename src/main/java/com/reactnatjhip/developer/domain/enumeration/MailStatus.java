@@ -0,0 +1,11 @@
+package com.reactnatjhip.developer.domain.enumeration;
+
+/**
+ * The MailStatus enumeration.
+ */
+public enum MailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD,
+}
@@ -1,6 +1,7 @@
 package com.reactnatjhip.developer.repository;
 
 import com.reactnatjhip.developer.domain.Adviser;
+import com.reactnatjhip.developer.service.KeysetCursor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -38,6 +39,9 @@ public interface AdviserRepository extends R2dbcRepository<Adviser, Long>, Advis
 
     @Override
     <S extends Adviser> Mono<S> save(S entity);
+
+    @Override
+    Mono<Void> deleteById(Long id);
 }
 
 interface AdviserRepositoryInternal {
@@ -47,6 +51,8 @@ interface AdviserRepositoryInternal {
 
     Flux<Adviser> findAll();
     Mono<Adviser> findById(Long id);
+    Mono<Void> deleteById(Long id);
     Flux<Adviser> findAllBy(Pageable pageable);
     Flux<Adviser> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Adviser> findAllBy(KeysetCursor cursor, int pageSize);
 }
@@ -8,13 +8,13 @@ import com.reactnatjhip.developer.repository.rowmapper.AdviserRowMapper;
 import com.reactnatjhip.developer.repository.rowmapper.BankRowMapper;
 import com.reactnatjhip.developer.repository.rowmapper.UserRowMapper;
 import com.reactnatjhip.developer.service.EntityManager;
+import com.reactnatjhip.developer.service.KeysetCursor;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
@@ -72,11 +72,16 @@ class AdviserRepositoryInternalImpl implements AdviserRepositoryInternal {
         return createQuery(pageable, criteria).all();
     }
 
-    RowsFetchSpec<Adviser> createQuery(Pageable pageable, Criteria criteria) {
+    @Override
+    public Flux<Adviser> findAllBy(KeysetCursor cursor, int pageSize) {
+        return entityManager.findByKeyset(this::createSelectFrom, Adviser.class, cursor, pageSize, this::process);
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom() {
         List<Expression> columns = AdviserSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(UserSqlHelper.getColumns(userTable, "user"));
         columns.addAll(BankSqlHelper.getColumns(bankTable, "bank"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
@@ -86,24 +91,10 @@ class AdviserRepositoryInternalImpl implements AdviserRepositoryInternal {
             .leftOuterJoin(bankTable)
             .on(Column.create("bank_id", entityTable))
             .equals(Column.create("id", bankTable));
+    }
 
-        String select = entityManager.createSelect(selectFrom, Adviser.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+    RowsFetchSpec<Adviser> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(this::createSelectFrom, Adviser.class, pageable, criteria).map(this::process);
     }
 
     @Override
@@ -116,6 +107,11 @@ class AdviserRepositoryInternalImpl implements AdviserRepositoryInternal {
         return createQuery(null, where("id").is(id)).one();
     }
 
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return entityManager.deleteById(Adviser.class, id).then();
+    }
+
     private Adviser process(Row row, RowMetadata metadata) {
         Adviser entity = adviserMapper.apply(row, "e");
         entity.setUser(userMapper.apply(row, "user"));
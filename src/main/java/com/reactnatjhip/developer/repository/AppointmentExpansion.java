@@ -0,0 +1,55 @@
+package com.reactnatjhip.developer.repository;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The relations of the adviser and the manager of an appointment which can be read with the appointment, by joining
+ * their tables in the query of the appointments.
+ */
+public enum AppointmentExpansion {
+    ADVISER_USER("adviser.user"),
+    ADVISER_BANK("adviser.bank"),
+    MANAGER_USER("manager.user"),
+    MANAGER_COMPANY("manager.company");
+
+    private final String path;
+
+    AppointmentExpansion(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Parses a comma separated list of relation paths, such as {@code adviser.user,manager.company}.
+     *
+     * @param expand the paths, or {@code null}.
+     * @return the expansions, empty if {@code expand} is {@code null} or blank.
+     * @throws IllegalArgumentException if a path is not one of the expansions.
+     */
+    public static Set<AppointmentExpansion> parse(String expand) {
+        Set<AppointmentExpansion> expansions = EnumSet.noneOf(AppointmentExpansion.class);
+        if (expand == null) {
+            return expansions;
+        }
+        for (String path : expand.split(",")) {
+            String trimmed = path.trim();
+            if (!trimmed.isEmpty()) {
+                expansions.add(fromPath(trimmed));
+            }
+        }
+        return expansions;
+    }
+
+    private static AppointmentExpansion fromPath(String path) {
+        for (AppointmentExpansion expansion : values()) {
+            if (expansion.path.equals(path)) {
+                return expansion;
+            }
+        }
+        throw new IllegalArgumentException("Unknown expansion: " + path);
+    }
+}
@@ -1,6 +1,10 @@
 package com.reactnatjhip.developer.repository;
 
 import com.reactnatjhip.developer.domain.Appointment;
+import com.reactnatjhip.developer.service.KeysetCursor;
+import com.reactnatjhip.developer.service.criteria.AppointmentCriteria;
+import java.time.Instant;
+import java.util.Set;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -20,12 +24,24 @@ public interface AppointmentRepository extends R2dbcRepository<Appointment, Long
     @Query("SELECT * FROM appointment entity WHERE entity.adviser_id = :id")
     Flux<Appointment> findByAdviser(Long id);
 
+    @Query("SELECT * FROM appointment entity WHERE entity.adviser_id = :id AND entity.date > :after")
+    Flux<Appointment> findByAdviserAfter(Long id, Instant after);
+
+    @Query("SELECT * FROM appointment entity WHERE entity.adviser_id = :id AND entity.date > :after AND entity.date < :before")
+    Flux<Appointment> findByAdviserBetween(Long id, Instant after, Instant before);
+
     @Query("SELECT * FROM appointment entity WHERE entity.adviser_id IS NULL")
     Flux<Appointment> findAllWhereAdviserIsNull();
 
     @Query("SELECT * FROM appointment entity WHERE entity.manager_id = :id")
     Flux<Appointment> findByManager(Long id);
 
+    @Query("SELECT * FROM appointment entity WHERE entity.manager_id = :id AND entity.date > :after")
+    Flux<Appointment> findByManagerAfter(Long id, Instant after);
+
+    @Query("SELECT * FROM appointment entity WHERE entity.manager_id = :id AND entity.date > :after AND entity.date < :before")
+    Flux<Appointment> findByManagerBetween(Long id, Instant after, Instant before);
+
     @Query("SELECT * FROM appointment entity WHERE entity.manager_id IS NULL")
     Flux<Appointment> findAllWhereManagerIsNull();
 
@@ -38,6 +54,9 @@ public interface AppointmentRepository extends R2dbcRepository<Appointment, Long
 
     @Override
     <S extends Appointment> Mono<S> save(S entity);
+
+    @Override
+    Mono<Void> deleteById(Long id);
 }
 
 interface AppointmentRepositoryInternal {
@@ -47,6 +66,18 @@ interface AppointmentRepositoryInternal {
 
     Flux<Appointment> findAll();
     Mono<Appointment> findById(Long id);
+    Mono<Void> deleteById(Long id);
     Flux<Appointment> findAllBy(Pageable pageable);
     Flux<Appointment> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Appointment> findAllBy(KeysetCursor cursor, int pageSize);
+    Flux<Appointment> findAllExpandedBy(Pageable pageable, AppointmentCriteria criteria, Set<AppointmentExpansion> expansions);
+    Flux<Appointment> findAllExpandedBy(
+        KeysetCursor cursor,
+        int pageSize,
+        AppointmentCriteria criteria,
+        Set<AppointmentExpansion> expansions
+    );
+    Mono<Long> countBy(AppointmentCriteria criteria);
+    Mono<Appointment> findExpandedById(Long id, Set<AppointmentExpansion> expansions);
+    Flux<Appointment> streamAllBy(Instant fromDate, Instant toDate, Long adviserId);
 }
@@ -3,19 +3,28 @@ package com.reactnatjhip.developer.repository;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
+import com.reactnatjhip.developer.domain.Adviser;
 import com.reactnatjhip.developer.domain.Appointment;
+import com.reactnatjhip.developer.domain.Manager;
 import com.reactnatjhip.developer.repository.rowmapper.AdviserRowMapper;
 import com.reactnatjhip.developer.repository.rowmapper.AppointmentRowMapper;
+import com.reactnatjhip.developer.repository.rowmapper.BankRowMapper;
+import com.reactnatjhip.developer.repository.rowmapper.CompanyRowMapper;
 import com.reactnatjhip.developer.repository.rowmapper.ManagerRowMapper;
+import com.reactnatjhip.developer.repository.rowmapper.UserRowMapper;
 import com.reactnatjhip.developer.service.EntityManager;
+import com.reactnatjhip.developer.service.EntityManager.JoinCriteria;
+import com.reactnatjhip.developer.service.KeysetCursor;
+import com.reactnatjhip.developer.service.criteria.AppointmentCriteria;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiFunction;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
@@ -43,17 +52,31 @@ class AppointmentRepositoryInternalImpl implements AppointmentRepositoryInternal
     private final AdviserRowMapper adviserMapper;
     private final ManagerRowMapper managerMapper;
     private final AppointmentRowMapper appointmentMapper;
+    private final UserRowMapper userMapper;
+    private final BankRowMapper bankMapper;
+    private final CompanyRowMapper companyMapper;
+
+    private static final int STREAM_FETCH_SIZE = 500;
 
     private static final Table entityTable = Table.aliased("appointment", EntityManager.ENTITY_ALIAS);
     private static final Table adviserTable = Table.aliased("adviser", "adviser");
     private static final Table managerTable = Table.aliased("manager", "manager");
 
+    // the expanded relations are not aliased after their path, as their columns would clash with the "adviser_user_id" like ones
+    private static final Table adviserUserTable = Table.aliased("jhi_user", "adv_user");
+    private static final Table adviserBankTable = Table.aliased("bank", "adv_bank");
+    private static final Table managerUserTable = Table.aliased("jhi_user", "mgr_user");
+    private static final Table managerCompanyTable = Table.aliased("company", "mgr_company");
+
     public AppointmentRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         AdviserRowMapper adviserMapper,
         ManagerRowMapper managerMapper,
-        AppointmentRowMapper appointmentMapper
+        AppointmentRowMapper appointmentMapper,
+        UserRowMapper userMapper,
+        BankRowMapper bankMapper,
+        CompanyRowMapper companyMapper
     ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
@@ -61,6 +84,9 @@ class AppointmentRepositoryInternalImpl implements AppointmentRepositoryInternal
         this.adviserMapper = adviserMapper;
         this.managerMapper = managerMapper;
         this.appointmentMapper = appointmentMapper;
+        this.userMapper = userMapper;
+        this.bankMapper = bankMapper;
+        this.companyMapper = companyMapper;
     }
 
     @Override
@@ -73,11 +99,103 @@ class AppointmentRepositoryInternalImpl implements AppointmentRepositoryInternal
         return createQuery(pageable, criteria).all();
     }
 
-    RowsFetchSpec<Appointment> createQuery(Pageable pageable, Criteria criteria) {
+    @Override
+    public Flux<Appointment> findAllBy(KeysetCursor cursor, int pageSize) {
+        return entityManager.findByKeyset(this::createSelectFrom, Appointment.class, cursor, pageSize, this::process);
+    }
+
+    @Override
+    public Flux<Appointment> findAllExpandedBy(Pageable pageable, AppointmentCriteria criteria, Set<AppointmentExpansion> expansions) {
+        return entityManager
+            .createQuery(
+                () -> createSelectFrom(expansions),
+                variant(expansions),
+                Appointment.class,
+                pageable,
+                toCriteria(criteria),
+                toJoinCriteria(criteria)
+            )
+            .map((row, metadata) -> processExpanded(row, expansions))
+            .all();
+    }
+
+    @Override
+    public Flux<Appointment> findAllExpandedBy(
+        KeysetCursor cursor,
+        int pageSize,
+        AppointmentCriteria criteria,
+        Set<AppointmentExpansion> expansions
+    ) {
+        return entityManager.findByKeyset(
+            () -> createSelectFrom(expansions),
+            variant(expansions),
+            Appointment.class,
+            cursor,
+            pageSize,
+            toCriteria(criteria),
+            toJoinCriteria(criteria),
+            (row, metadata) -> processExpanded(row, expansions)
+        );
+    }
+
+    @Override
+    public Mono<Long> countBy(AppointmentCriteria criteria) {
+        return entityManager.count(this::createSelectFrom, "", Appointment.class, toCriteria(criteria), toJoinCriteria(criteria));
+    }
+
+    @Override
+    public Mono<Appointment> findExpandedById(Long id, Set<AppointmentExpansion> expansions) {
+        return entityManager
+            .createQuery(() -> createSelectFrom(expansions), variant(expansions), Appointment.class, null, where("id").is(id))
+            .map((row, metadata) -> processExpanded(row, expansions))
+            .one();
+    }
+
+    @Override
+    public Flux<Appointment> streamAllBy(Instant fromDate, Instant toDate, Long adviserId) {
+        Criteria criteria = Criteria.empty();
+        if (fromDate != null) {
+            criteria = criteria.and("date").greaterThanOrEquals(fromDate);
+        }
+        if (toDate != null) {
+            criteria = criteria.and("date").lessThan(toDate);
+        }
+        if (adviserId != null) {
+            criteria = criteria.and("adviserId").is(adviserId);
+        }
+        // the rows are fetched by batches as the subscriber requests them, instead of buffering the whole result
+        return entityManager
+            .createQuery(this::createSelectFrom, Appointment.class, null, criteria)
+            .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+            .map(this::process)
+            .all();
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom() {
+        return createSelectFrom(EnumSet.noneOf(AppointmentExpansion.class));
+    }
+
+    /**
+     * Creates the select of the appointments with their adviser and manager, and the relations of those which are
+     * expanded, so the whole graph is read in a single query.
+     */
+    private SelectFromAndJoinCondition createSelectFrom(Set<AppointmentExpansion> expansions) {
         List<Expression> columns = AppointmentSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(AdviserSqlHelper.getColumns(adviserTable, "adviser"));
         columns.addAll(ManagerSqlHelper.getColumns(managerTable, "manager"));
-        SelectFromAndJoinCondition selectFrom = Select
+        if (expansions.contains(AppointmentExpansion.ADVISER_USER)) {
+            columns.addAll(UserSqlHelper.getColumns(adviserUserTable, "adv_user"));
+        }
+        if (expansions.contains(AppointmentExpansion.ADVISER_BANK)) {
+            columns.addAll(BankSqlHelper.getColumns(adviserBankTable, "adv_bank"));
+        }
+        if (expansions.contains(AppointmentExpansion.MANAGER_USER)) {
+            columns.addAll(UserSqlHelper.getColumns(managerUserTable, "mgr_user"));
+        }
+        if (expansions.contains(AppointmentExpansion.MANAGER_COMPANY)) {
+            columns.addAll(CompanySqlHelper.getColumns(managerCompanyTable, "mgr_company"));
+        }
+        SelectFromAndJoinCondition select = Select
             .builder()
             .select(columns)
             .from(entityTable)
@@ -87,24 +205,72 @@ class AppointmentRepositoryInternalImpl implements AppointmentRepositoryInternal
             .leftOuterJoin(managerTable)
             .on(Column.create("manager_id", entityTable))
             .equals(Column.create("id", managerTable));
+        if (expansions.contains(AppointmentExpansion.ADVISER_USER)) {
+            select =
+                select
+                    .leftOuterJoin(adviserUserTable)
+                    .on(Column.create("user_id", adviserTable))
+                    .equals(Column.create("id", adviserUserTable));
+        }
+        if (expansions.contains(AppointmentExpansion.ADVISER_BANK)) {
+            select =
+                select
+                    .leftOuterJoin(adviserBankTable)
+                    .on(Column.create("bank_id", adviserTable))
+                    .equals(Column.create("id", adviserBankTable));
+        }
+        if (expansions.contains(AppointmentExpansion.MANAGER_USER)) {
+            select =
+                select
+                    .leftOuterJoin(managerUserTable)
+                    .on(Column.create("user_id", managerTable))
+                    .equals(Column.create("id", managerUserTable));
+        }
+        if (expansions.contains(AppointmentExpansion.MANAGER_COMPANY)) {
+            select =
+                select
+                    .leftOuterJoin(managerCompanyTable)
+                    .on(Column.create("company_id", managerTable))
+                    .equals(Column.create("id", managerCompanyTable));
+        }
+        return select;
+    }
 
-        String select = entityManager.createSelect(selectFrom, Appointment.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+    /**
+     * Maps the criteria on the columns of the appointment, which are all bound as parameters.
+     */
+    private static Criteria toCriteria(AppointmentCriteria appointmentCriteria) {
+        Criteria criteria = Criteria.empty();
+        if (appointmentCriteria.getFromDate() != null) {
+            criteria = criteria.and("date").greaterThanOrEquals(appointmentCriteria.getFromDate());
+        }
+        if (appointmentCriteria.getToDate() != null) {
+            criteria = criteria.and("date").lessThan(appointmentCriteria.getToDate());
+        }
+        if (appointmentCriteria.getState() != null) {
+            criteria = criteria.and("state").is(appointmentCriteria.getState());
+        }
+        if (appointmentCriteria.getAdviserId() != null) {
+            criteria = criteria.and("adviserId").is(appointmentCriteria.getAdviserId());
+        }
+        if (appointmentCriteria.getManagerId() != null) {
+            criteria = criteria.and("managerId").is(appointmentCriteria.getManagerId());
+        }
+        return criteria;
+    }
+
+    /**
+     * Maps the criteria on the relations of the appointment, to the tables joined by {@link #createSelectFrom()}.
+     */
+    private static List<JoinCriteria> toJoinCriteria(AppointmentCriteria appointmentCriteria) {
+        if (appointmentCriteria.getBankId() == null) {
+            return List.of();
+        }
+        return List.of(new JoinCriteria(adviserTable, Adviser.class, where("bankId").is(appointmentCriteria.getBankId())));
+    }
+
+    RowsFetchSpec<Appointment> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(this::createSelectFrom, Appointment.class, pageable, criteria).map(this::process);
     }
 
     @Override
@@ -117,6 +283,11 @@ class AppointmentRepositoryInternalImpl implements AppointmentRepositoryInternal
         return createQuery(null, where("id").is(id)).one();
     }
 
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return entityManager.deleteById(Appointment.class, id).then();
+    }
+
     private Appointment process(Row row, RowMetadata metadata) {
         Appointment entity = appointmentMapper.apply(row, "e");
         entity.setAdviser(adviserMapper.apply(row, "adviser"));
@@ -124,6 +295,34 @@ class AppointmentRepositoryInternalImpl implements AppointmentRepositoryInternal
         return entity;
     }
 
+    /**
+     * Names the statements of the expansions in the cache of the {@link EntityManager}, sharing the plain statements when
+     * nothing is expanded.
+     */
+    private static String variant(Set<AppointmentExpansion> expansions) {
+        return expansions.isEmpty() ? "" : EnumSet.copyOf(expansions).toString();
+    }
+
+    private Appointment processExpanded(Row row, Set<AppointmentExpansion> expansions) {
+        Appointment entity = process(row, null);
+        Adviser adviser = entity.getAdviser();
+        Manager manager = entity.getManager();
+        // the relations which are not set are left null rather than read as empty entities from the outer joins
+        if (expansions.contains(AppointmentExpansion.ADVISER_USER) && adviser.getUserId() != null) {
+            adviser.setUser(userMapper.apply(row, "adv_user"));
+        }
+        if (expansions.contains(AppointmentExpansion.ADVISER_BANK) && adviser.getBankId() != null) {
+            adviser.setBank(bankMapper.apply(row, "adv_bank"));
+        }
+        if (expansions.contains(AppointmentExpansion.MANAGER_USER) && manager.getUserId() != null) {
+            manager.setUser(userMapper.apply(row, "mgr_user"));
+        }
+        if (expansions.contains(AppointmentExpansion.MANAGER_COMPANY) && manager.getCompanyId() != null) {
+            manager.setCompany(companyMapper.apply(row, "mgr_company"));
+        }
+        return entity;
+    }
+
     @Override
     public <S extends Appointment> Mono<S> insert(S entity) {
         return entityManager.insert(entity);
@@ -12,7 +12,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
@@ -58,27 +57,13 @@ class CompanyRepositoryInternalImpl implements CompanyRepositoryInternal {
         return createQuery(pageable, criteria).all();
     }
 
-    RowsFetchSpec<Company> createQuery(Pageable pageable, Criteria criteria) {
+    private SelectFromAndJoin createSelectFrom() {
         List<Expression> columns = CompanySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-
-        String select = entityManager.createSelect(selectFrom, Company.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+        return Select.builder().select(columns).from(entityTable);
+    }
+
+    RowsFetchSpec<Company> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(this::createSelectFrom, Company.class, pageable, criteria).map(this::process);
     }
 
     @Override
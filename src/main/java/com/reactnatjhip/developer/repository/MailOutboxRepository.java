@@ -0,0 +1,76 @@
+package com.reactnatjhip.developer.repository;
+
+import com.reactnatjhip.developer.domain.MailOutbox;
+import com.reactnatjhip.developer.domain.enumeration.MailStatus;
+import java.time.Instant;
+import java.util.Collection;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the {@link MailOutbox} entity.
+ */
+@Repository
+public interface MailOutboxRepository extends R2dbcRepository<MailOutbox, Long>, MailOutboxRepositoryInternal {
+    Flux<MailOutbox> findAllByClaimToken(String claimToken);
+
+    Mono<MailOutbox> findFirstByStatusOrderByCreatedDateAsc(MailStatus status);
+
+    Mono<Long> countByStatus(MailStatus status);
+
+    @Modifying
+    @Query(
+        "UPDATE mail_outbox SET status = 'SENT', attempts = attempts + 1, sent_date = :sentDate, last_error = NULL, claim_token = NULL " +
+        "WHERE id IN (:ids)"
+    )
+    Mono<Integer> markSent(Instant sentDate, Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM mail_outbox WHERE status IN ('SENT', 'DEAD') AND created_date < :createdBefore")
+    Mono<Integer> deleteFinishedBefore(Instant createdBefore);
+}
+
+interface MailOutboxRepositoryInternal {
+    /**
+     * Claims up to {@code limit} of the emails which are due: the pending ones, and the ones whose claim by another
+     * dispatcher expired. They are given the {@code token}, and are not due again before {@code leaseUntil}.
+     * <p>
+     * The conditions are repeated on the updated rows, so of two dispatchers claiming the same email concurrently, the
+     * second one finds it already claimed once the first one commits, and skips it.
+     *
+     * @return the number of emails claimed.
+     */
+    Mono<Integer> claimDue(String token, Instant now, Instant leaseUntil, int limit);
+}
+
+class MailOutboxRepositoryInternalImpl implements MailOutboxRepositoryInternal {
+
+    private final DatabaseClient db;
+
+    public MailOutboxRepositoryInternalImpl(DatabaseClient db) {
+        this.db = db;
+    }
+
+    @Override
+    public Mono<Integer> claimDue(String token, Instant now, Instant leaseUntil, int limit) {
+        // the named parameters are repeated, which the @Query methods don't support
+        return db
+            .sql(
+                "UPDATE mail_outbox SET status = 'SENDING', claim_token = :token, next_attempt_at = :leaseUntil " +
+                "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now AND id IN (" +
+                "SELECT id FROM mail_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+                "ORDER BY next_attempt_at, id LIMIT :limit)"
+            )
+            .bind("token", token)
+            .bind("leaseUntil", leaseUntil)
+            .bind("now", now)
+            .bind("limit", limit)
+            .fetch()
+            .rowsUpdated();
+    }
+}
@@ -1,6 +1,7 @@
 package com.reactnatjhip.developer.repository;
 
 import com.reactnatjhip.developer.domain.Manager;
+import com.reactnatjhip.developer.service.KeysetCursor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -38,6 +39,9 @@ public interface ManagerRepository extends R2dbcRepository<Manager, Long>, Manag
 
     @Override
     <S extends Manager> Mono<S> save(S entity);
+
+    @Override
+    Mono<Void> deleteById(Long id);
 }
 
 interface ManagerRepositoryInternal {
@@ -47,6 +51,8 @@ interface ManagerRepositoryInternal {
 
     Flux<Manager> findAll();
     Mono<Manager> findById(Long id);
+    Mono<Void> deleteById(Long id);
     Flux<Manager> findAllBy(Pageable pageable);
     Flux<Manager> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Manager> findAllBy(KeysetCursor cursor, int pageSize);
 }
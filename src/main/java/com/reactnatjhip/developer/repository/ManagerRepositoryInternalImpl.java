@@ -8,13 +8,13 @@ import com.reactnatjhip.developer.repository.rowmapper.CompanyRowMapper;
 import com.reactnatjhip.developer.repository.rowmapper.ManagerRowMapper;
 import com.reactnatjhip.developer.repository.rowmapper.UserRowMapper;
 import com.reactnatjhip.developer.service.EntityManager;
+import com.reactnatjhip.developer.service.KeysetCursor;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
@@ -72,11 +72,16 @@ class ManagerRepositoryInternalImpl implements ManagerRepositoryInternal {
         return createQuery(pageable, criteria).all();
     }
 
-    RowsFetchSpec<Manager> createQuery(Pageable pageable, Criteria criteria) {
+    @Override
+    public Flux<Manager> findAllBy(KeysetCursor cursor, int pageSize) {
+        return entityManager.findByKeyset(this::createSelectFrom, Manager.class, cursor, pageSize, this::process);
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom() {
         List<Expression> columns = ManagerSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(UserSqlHelper.getColumns(userTable, "user"));
         columns.addAll(CompanySqlHelper.getColumns(companyTable, "company"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
@@ -86,24 +91,10 @@ class ManagerRepositoryInternalImpl implements ManagerRepositoryInternal {
             .leftOuterJoin(companyTable)
             .on(Column.create("company_id", entityTable))
             .equals(Column.create("id", companyTable));
+    }
 
-        String select = entityManager.createSelect(selectFrom, Manager.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+    RowsFetchSpec<Manager> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createQuery(this::createSelectFrom, Manager.class, pageable, criteria).map(this::process);
     }
 
     @Override
@@ -116,6 +107,11 @@ class ManagerRepositoryInternalImpl implements ManagerRepositoryInternal {
         return createQuery(null, where("id").is(id)).one();
     }
 
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return entityManager.deleteById(Manager.class, id).then();
+    }
+
     private Manager process(Row row, RowMetadata metadata) {
         Manager entity = managerMapper.apply(row, "e");
         entity.setUser(userMapper.apply(row, "user"));
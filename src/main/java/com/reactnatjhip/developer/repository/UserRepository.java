@@ -7,16 +7,20 @@ import com.reactnatjhip.developer.domain.Authority;
 import com.reactnatjhip.developer.domain.User;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import org.apache.commons.beanutils.BeanComparator;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Table;
@@ -42,6 +46,10 @@ public interface UserRepository extends R2dbcRepository<User, Long>, UserReposit
 
     Mono<User> findOneByLogin(String login);
 
+    Flux<User> findAllByLoginIn(Collection<String> logins);
+
+    Flux<User> findAllByEmailIn(Collection<String> emails);
+
     Flux<User> findAllByIdNotNull(Pageable pageable);
 
     Flux<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
@@ -68,10 +76,21 @@ interface UserRepositoryInternal extends DeleteExtended<User> {
     Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Flux<User> findAllWithAuthorities(Pageable pageable);
+
+    Flux<String> findAuthorityNamesByUserId(Long userId);
+
+    Mono<Void> saveUserAuthorities(Map<Long, ? extends Collection<String>> authoritiesByUserId);
+
+    Mono<Void> deleteUserAuthorities(Long userId, Collection<String> authorities);
+
+    Mono<Integer> deleteNotActivatedUsers(LocalDateTime createdBefore, int limit);
 }
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
+    // 2 parameters per row, well below the limits of the databases on the number of parameters of a statement
+    private static final int MAX_AUTHORITY_ROWS_PER_INSERT = 1000;
+
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final R2dbcConverter r2dbcConverter;
@@ -94,27 +113,117 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
     @Override
     public Flux<User> findAllWithAuthorities(Pageable pageable) {
-        String property = pageable.getSort().stream().map(Sort.Order::getProperty).findFirst().get();
-        String direction = String.valueOf(pageable.getSort().stream().map(Sort.Order::getDirection).findFirst().get());
-        long page = pageable.getPageNumber();
-        long size = pageable.getPageSize();
+        // Page over jhi_user in SQL first, then fetch the authorities of that page only
+        return r2dbcEntityTemplate
+            .select(User.class)
+            .matching(query(Criteria.empty()).with(withStableOrder(pageable)))
+            .all()
+            .collectList()
+            .flatMapMany(
+                users -> {
+                    if (users.isEmpty()) {
+                        return Flux.empty();
+                    }
+                    List<Long> userIds = users.stream().map(User::getId).collect(Collectors.toList());
+                    return db
+                        .sql("SELECT ua.user_id, ua.authority_name FROM jhi_user_authority ua WHERE ua.user_id IN (:userIds)")
+                        .bind("userIds", userIds)
+                        .map((row, metadata) -> Tuples.of(row.get("user_id", Long.class), row.get("authority_name", String.class)))
+                        .all()
+                        .collectMultimap(Tuple2::getT1, Tuple2::getT2)
+                        .flatMapIterable(authoritiesByUserId -> updateUsersWithAuthorities(users, authoritiesByUserId));
+                }
+            );
+    }
 
+    @Override
+    public Flux<String> findAuthorityNamesByUserId(Long userId) {
         return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id")
-            .map(
-                (row, metadata) ->
-                    Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
+            .sql("SELECT authority_name FROM jhi_user_authority WHERE user_id = :userId")
+            .bind("userId", userId)
+            .map((row, metadata) -> row.get("authority_name", String.class))
+            .all();
+    }
+
+    /**
+     * Inserts the given authorities of the users with multi-row inserts, of up to {@value #MAX_AUTHORITY_ROWS_PER_INSERT}
+     * rows each.
+     */
+    @Override
+    public Mono<Void> saveUserAuthorities(Map<Long, ? extends Collection<String>> authoritiesByUserId) {
+        List<Tuple2<Long, String>> rows = new ArrayList<>();
+        authoritiesByUserId.forEach((userId, authorities) -> authorities.forEach(authority -> rows.add(Tuples.of(userId, authority))));
+        return Flux.fromIterable(rows).buffer(MAX_AUTHORITY_ROWS_PER_INSERT).concatMap(this::insertUserAuthorities).then();
+    }
+
+    private Mono<Void> insertUserAuthorities(List<Tuple2<Long, String>> rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO jhi_user_authority (user_id, authority_name) VALUES ");
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append("(:userId").append(i).append(", :authority").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec insert = db.sql(sql.toString());
+        for (int i = 0; i < rows.size(); i++) {
+            insert = insert.bind("userId" + i, rows.get(i).getT1()).bind("authority" + i, rows.get(i).getT2());
+        }
+        return insert.then();
+    }
+
+    @Override
+    public Mono<Void> deleteUserAuthorities(Long userId, Collection<String> authorities) {
+        if (authorities.isEmpty()) {
+            return Mono.empty();
+        }
+        return db
+            .sql("DELETE FROM jhi_user_authority WHERE user_id = :userId AND authority_name IN (:authorities)")
+            .bind("userId", userId)
+            .bind("authorities", authorities)
+            .then();
+    }
+
+    /**
+     * Deletes up to {@code limit} of the users which were not activated before the given date, with their authorities,
+     * using set-based statements instead of loading the users.
+     * <p>
+     * The ids are selected and locked once, then both deletes use that same list, so a user activated meanwhile keeps
+     * its authorities and a user newly matching the filter isn't deleted without them. Must run in a transaction.
+     *
+     * @return the number of users deleted, lower than {@code limit} when no user is left to delete.
+     */
+    @Override
+    public Mono<Integer> deleteNotActivatedUsers(LocalDateTime createdBefore, int limit) {
+        return db
+            .sql(
+                "SELECT id FROM jhi_user WHERE activated = FALSE AND activation_key IS NOT NULL AND created_date < :createdBefore " +
+                "ORDER BY id LIMIT :limit FOR UPDATE"
             )
+            .bind("createdBefore", createdBefore)
+            .bind("limit", limit)
+            .map((row, metadata) -> row.get("id", Long.class))
             .all()
-            .groupBy(t -> t.getT1().getLogin())
-            .flatMap(l -> l.collectList().map(t -> updateUserWithAuthorities(t.get(0).getT1(), t)))
-            .sort(
-                Sort.Direction.fromString(direction) == Sort.DEFAULT_DIRECTION
-                    ? new BeanComparator<>(property)
-                    : new BeanComparator<>(property).reversed()
-            )
-            .skip(page * size)
-            .take(size);
+            .collectList()
+            .flatMap(
+                ids -> {
+                    if (ids.isEmpty()) {
+                        return Mono.just(0);
+                    }
+                    return db
+                        .sql("DELETE FROM jhi_user_authority WHERE user_id IN (:ids)")
+                        .bind("ids", ids)
+                        .then()
+                        .then(db.sql("DELETE FROM jhi_user WHERE id IN (:ids)").bind("ids", ids).fetch().rowsUpdated());
+                }
+            );
+    }
+
+    /**
+     * Appends the primary key to the requested sort, so rows with equal sort values are returned in a
+     * deterministic order and no row is skipped or repeated between two pages.
+     */
+    private static Pageable withStableOrder(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().getOrderFor("id") != null) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().and(Sort.by("id")));
     }
 
     @Override
@@ -140,6 +249,25 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
             .map(l -> updateUserWithAuthorities(l.get(0).getT1(), l));
     }
 
+    private List<User> updateUsersWithAuthorities(List<User> users, Map<Long, Collection<String>> authoritiesByUserId) {
+        for (User user : users) {
+            user.setAuthorities(
+                authoritiesByUserId
+                    .getOrDefault(user.getId(), Collections.emptyList())
+                    .stream()
+                    .map(
+                        name -> {
+                            Authority authority = new Authority();
+                            authority.setName(name);
+                            return authority;
+                        }
+                    )
+                    .collect(Collectors.toSet())
+            );
+        }
+        return users;
+    }
+
     private User updateUserWithAuthorities(User user, List<Tuple2<User, Optional<String>>> tuples) {
         user.setAuthorities(
             tuples
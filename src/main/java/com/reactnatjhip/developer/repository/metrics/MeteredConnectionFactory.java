@@ -0,0 +1,55 @@
+package com.reactnatjhip.developer.repository.metrics;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import org.springframework.core.InfrastructureProxy;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ConnectionFactory} recording the statements of its connections in the {@link QueryMetrics}.
+ * <p>
+ * It is an {@link InfrastructureProxy}, so the transactions bind their connection to the wrapped factory, and the
+ * {@code DatabaseClient} and the transaction manager built on different instances of it share them.
+ */
+public class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, InfrastructureProxy {
+
+    private final ConnectionFactory delegate;
+
+    private final QueryMetrics metrics;
+
+    public MeteredConnectionFactory(ConnectionFactory delegate, QueryMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(
+            () -> {
+                long start = System.nanoTime();
+                return Mono
+                    .from(delegate.create())
+                    .doOnNext(connection -> metrics.recordAcquire(System.nanoTime() - start))
+                    .map(connection -> new MeteredConnection(connection, metrics));
+            }
+        );
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public Object getWrappedObject() {
+        return delegate;
+    }
+}
@@ -0,0 +1,54 @@
+package com.reactnatjhip.developer.repository.metrics;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link Result} counting its rows in its {@link QueryExecution}, and closing it once it is consumed.
+ */
+class MeteredResult implements Result {
+
+    private final Result delegate;
+
+    private final QueryExecution execution;
+
+    private final AtomicBoolean consumed = new AtomicBoolean();
+
+    MeteredResult(Result delegate, QueryExecution execution) {
+        this.delegate = delegate;
+        this.execution = execution;
+        execution.open();
+    }
+
+    @Override
+    public Publisher<Integer> getRowsUpdated() {
+        return Mono
+            .from(delegate.getRowsUpdated())
+            .doOnNext(execution::addRows)
+            .doOnSuccess(rows -> close())
+            .doOnError(execution::stop)
+            .doOnCancel(this::close);
+    }
+
+    @Override
+    public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+        return Flux
+            .<T>from(delegate.map(mappingFunction))
+            .doOnNext(row -> execution.addRows(1))
+            .doOnComplete(this::close)
+            .doOnError(execution::stop)
+            .doOnCancel(this::close);
+    }
+
+    private void close() {
+        if (consumed.compareAndSet(false, true)) {
+            execution.close();
+        }
+    }
+}
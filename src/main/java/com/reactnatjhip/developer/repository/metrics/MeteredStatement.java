@@ -0,0 +1,88 @@
+package com.reactnatjhip.developer.repository.metrics;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+/**
+ * A {@link Statement} recording its executions in the {@link QueryMetrics}, with the {@link QueryOrigin} of the Reactor
+ * context it is executed in. Only the number of bound values is kept.
+ */
+class MeteredStatement implements Statement {
+
+    private final Statement delegate;
+
+    private final QueryMetrics metrics;
+
+    private final String sql;
+
+    private int bindings;
+
+    MeteredStatement(Statement delegate, QueryMetrics metrics, String sql) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.sql = sql;
+    }
+
+    @Override
+    public Statement add() {
+        delegate.add();
+        return this;
+    }
+
+    @Override
+    public Statement bind(int index, Object value) {
+        delegate.bind(index, value);
+        bindings++;
+        return this;
+    }
+
+    @Override
+    public Statement bind(String name, Object value) {
+        delegate.bind(name, value);
+        bindings++;
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(int index, Class<?> type) {
+        delegate.bindNull(index, type);
+        bindings++;
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(String name, Class<?> type) {
+        delegate.bindNull(name, type);
+        bindings++;
+        return this;
+    }
+
+    @Override
+    public Statement returnGeneratedValues(String... columns) {
+        delegate.returnGeneratedValues(columns);
+        return this;
+    }
+
+    @Override
+    public Statement fetchSize(int rows) {
+        delegate.fetchSize(rows);
+        return this;
+    }
+
+    @Override
+    public Publisher<? extends Result> execute() {
+        return Flux.deferContextual(
+            context -> {
+                QueryExecution execution = new QueryExecution(metrics, QueryOrigin.from(context), sql, bindings);
+                return Flux
+                    .from(delegate.execute())
+                    .<Result>map(result -> new MeteredResult(result, execution))
+                    .doOnComplete(execution::close)
+                    .doOnError(execution::stop)
+                    .doOnCancel(execution::close);
+            }
+        );
+    }
+}
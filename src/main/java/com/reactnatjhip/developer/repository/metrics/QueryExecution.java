@@ -0,0 +1,64 @@
+package com.reactnatjhip.developer.repository.metrics;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An execution of a statement, recorded in the {@link QueryMetrics} once its results are consumed.
+ * <p>
+ * A statement bound several times has one result per binding: the execution is only recorded once the results are
+ * all emitted and consumed, with the sum of their rows.
+ */
+class QueryExecution {
+
+    private final QueryMetrics metrics;
+
+    private final QueryOrigin origin;
+
+    private final String sql;
+
+    private final int bindings;
+
+    private final long start = System.nanoTime();
+
+    private final AtomicLong rows = new AtomicLong();
+
+    // the results emitted and not consumed yet, plus one until the last result is emitted
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    QueryExecution(QueryMetrics metrics, QueryOrigin origin, String sql, int bindings) {
+        this.metrics = metrics;
+        this.origin = origin;
+        this.sql = sql;
+        this.bindings = bindings;
+    }
+
+    void addRows(long count) {
+        rows.addAndGet(count);
+    }
+
+    /**
+     * Counts a result emitted by the statement.
+     */
+    void open() {
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Counts a result consumed, or the end of the results of the statement, and records the execution after the last.
+     */
+    void close() {
+        if (pending.decrementAndGet() == 0) {
+            stop(null);
+        }
+    }
+
+    void stop(Throwable error) {
+        if (stopped.compareAndSet(false, true)) {
+            metrics.record(origin, sql, bindings, System.nanoTime() - start, rows.get(), error);
+        }
+    }
+}
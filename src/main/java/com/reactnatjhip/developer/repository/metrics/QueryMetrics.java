@@ -0,0 +1,143 @@
+package com.reactnatjhip.developer.repository.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the SQL statements run through a {@link MeteredConnectionFactory}, tagged with their {@link QueryOrigin}.
+ * <p>
+ * The {@code db.query} timer records the duration of the statements, from their execution to their last row, with a
+ * percentile histogram when enabled, as it makes dozens of series per repository method; the {@code db.query.rows}
+ * summary the rows they returned or updated, and the
+ * {@code db.query.rows.rate} summary the rows they returned per second. The {@code db.connection.acquire} timer records
+ * the time taken to get a connection from the pool. The statements slower than the threshold are
+ * logged at the WARN level by the {@code com.reactnatjhip.developer.repository.metrics.QueryMetrics} logger, without
+ * their bind values nor their literals.
+ */
+public class QueryMetrics {
+
+    private static final Pattern SQL_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private final Logger log = LoggerFactory.getLogger(QueryMetrics.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowThresholdNanos;
+
+    private final boolean percentileHistogram;
+
+    private final Map<QueryOrigin, Meters> meters = new ConcurrentHashMap<>();
+
+    private final Timer acquireTimer;
+
+    public QueryMetrics(MeterRegistry meterRegistry, Duration slowThreshold, boolean percentileHistogram) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.percentileHistogram = percentileHistogram;
+        this.acquireTimer =
+            Timer
+                .builder("db.connection.acquire")
+                .description("Time to acquire a connection from the pool")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the timer of the connections acquired from the pool.
+     *
+     * @return the timer.
+     */
+    public Timer getAcquireTimer() {
+        return acquireTimer;
+    }
+
+    void recordAcquire(long nanos) {
+        acquireTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a statement.
+     *
+     * @param origin the repository method which ran the statement.
+     * @param sql the statement.
+     * @param bindings the number of values bound to the statement.
+     * @param nanos the duration of the statement.
+     * @param rows the rows returned or updated by the statement.
+     * @param error the error of the statement, or {@code null}.
+     */
+    void record(QueryOrigin origin, String sql, int bindings, long nanos, long rows, Throwable error) {
+        Meters originMeters = meters.computeIfAbsent(origin, this::createMeters);
+        originMeters.timer.record(nanos, TimeUnit.NANOSECONDS);
+        originMeters.rows.record(rows);
+        if (rows > 0 && nanos > 0) {
+            originMeters.rowRate.record(rows * 1e9 / nanos);
+        }
+        if (nanos >= slowThresholdNanos) {
+            log.warn(
+                "Slow query: repository={} method={} duration={}ms rows={} bindings={} error={} sql=\"{}\"",
+                origin.getRepository(),
+                origin.getMethod(),
+                TimeUnit.NANOSECONDS.toMillis(nanos),
+                rows,
+                bindings,
+                error != null ? error.getClass().getSimpleName() : "none",
+                redact(sql)
+            );
+        }
+    }
+
+    /**
+     * Replaces the literals of a statement, which may hold values written in its text rather than bound.
+     */
+    static String redact(String sql) {
+        return SQL_LITERAL.matcher(sql).replaceAll("'?'");
+    }
+
+    private Meters createMeters(QueryOrigin origin) {
+        return new Meters(
+            Timer
+                .builder("db.query")
+                .description("Duration of the SQL statements")
+                .tag("repository", origin.getRepository())
+                .tag("method", origin.getMethod())
+                .publishPercentileHistogram(percentileHistogram)
+                .register(meterRegistry),
+            DistributionSummary
+                .builder("db.query.rows")
+                .description("Rows returned or updated by the SQL statements")
+                .baseUnit("rows")
+                .tag("repository", origin.getRepository())
+                .tag("method", origin.getMethod())
+                .register(meterRegistry),
+            DistributionSummary
+                .builder("db.query.rows.rate")
+                .description("Rows returned per second by the SQL statements")
+                .tag("repository", origin.getRepository())
+                .tag("method", origin.getMethod())
+                .register(meterRegistry)
+        );
+    }
+
+    private static class Meters {
+
+        private final Timer timer;
+
+        private final DistributionSummary rows;
+
+        private final DistributionSummary rowRate;
+
+        Meters(Timer timer, DistributionSummary rows, DistributionSummary rowRate) {
+            this.timer = timer;
+            this.rows = rows;
+            this.rowRate = rowRate;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.reactnatjhip.developer.repository.metrics;
+
+import java.util.Objects;
+import reactor.util.context.ContextView;
+
+/**
+ * The repository method running a statement, carried by the Reactor context of the statement.
+ */
+public final class QueryOrigin {
+
+    /**
+     * The origin of the statements run outside of a repository method.
+     */
+    public static final QueryOrigin NONE = new QueryOrigin("none", "none");
+
+    private final String repository;
+
+    private final String method;
+
+    public QueryOrigin(String repository, String method) {
+        this.repository = repository;
+        this.method = method;
+    }
+
+    /**
+     * Returns the origin written in a Reactor context.
+     *
+     * @param context the context of the statement.
+     * @return the origin, or {@link #NONE}.
+     */
+    public static QueryOrigin from(ContextView context) {
+        return context.getOrDefault(QueryOrigin.class, NONE);
+    }
+
+    public String getRepository() {
+        return repository;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryOrigin)) {
+            return false;
+        }
+        QueryOrigin that = (QueryOrigin) o;
+        return repository.equals(that.repository) && method.equals(that.method);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(repository, method);
+    }
+
+    @Override
+    public String toString() {
+        return repository + "." + method;
+    }
+}
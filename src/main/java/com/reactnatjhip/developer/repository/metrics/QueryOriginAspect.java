@@ -0,0 +1,60 @@
+package com.reactnatjhip.developer.repository.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Aspect writing the {@link QueryOrigin} of the repository methods in the Reactor context of their results, where the
+ * {@link MeteredConnectionFactory} reads it.
+ * <p>
+ * The innermost repository method wins when a repository method calls another one.
+ */
+@Aspect
+public class QueryOriginAspect {
+
+    private final Map<Class<?>, Map<Method, Context>> contexts = new ConcurrentHashMap<>();
+
+    /**
+     * Advice that tags the statements of a repository method.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the exception of the repository method.
+     */
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object tagQueries(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        if (result instanceof Mono) {
+            return ((Mono<?>) result).contextWrite(context(joinPoint));
+        }
+        if (result instanceof Flux) {
+            return ((Flux<?>) result).contextWrite(context(joinPoint));
+        }
+        return result;
+    }
+
+    private Context context(ProceedingJoinPoint joinPoint) {
+        Object repository = joinPoint.getThis();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return contexts
+            .computeIfAbsent(repository.getClass(), type -> new ConcurrentHashMap<>())
+            .computeIfAbsent(method, key -> Context.of(QueryOrigin.class, new QueryOrigin(repositoryName(repository), key.getName())));
+    }
+
+    /**
+     * Returns the name of the interface of a repository, rather than the one of its proxy.
+     */
+    private static String repositoryName(Object repository) {
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(repository);
+        return interfaces.length > 0 ? interfaces[0].getSimpleName() : repository.getClass().getSimpleName();
+    }
+}
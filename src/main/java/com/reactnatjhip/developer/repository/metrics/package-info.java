@@ -0,0 +1,4 @@
+/**
+ * Metrics of the SQL statements run by the repositories.
+ */
+package com.reactnatjhip.developer.repository.metrics;
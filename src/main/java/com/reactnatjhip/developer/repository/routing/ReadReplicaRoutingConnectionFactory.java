@@ -0,0 +1,212 @@
+package com.reactnatjhip.developer.repository.routing;
+
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ValidationDepth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ConnectionFactory} sending the read-only transactions to the read replicas, and everything else to the
+ * primary.
+ * <p>
+ * The read-only transactions are spread over the available replicas in turn. The replicas are checked every
+ * {@code application.read-replicas.check-interval}: a replica which can't be reached, or whose lag reported by the
+ * {@code lag-query} is above {@code max-lag}, is left out until a later check finds it back; the primary serves the
+ * read-only transactions when no replica is available, as well as before the first check. The {@code db.replica.lag}
+ * and {@code db.replica.available} gauges record the outcome of the checks.
+ * <p>
+ * The transactions must be begun by a {@link ReadReplicaTransactionManager}, which tells whether they are read-only.
+ * The replicas are disposed with this factory, the primary is not.
+ */
+public class ReadReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    /**
+     * Key of the Reactor context telling whether a transaction is read-only.
+     */
+    static final String READ_ONLY = ReadReplicaRoutingConnectionFactory.class.getName() + ".READ_ONLY";
+
+    private final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingConnectionFactory.class);
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final ApplicationProperties.ReadReplicas properties;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile List<String> available = Collections.emptyList();
+
+    private Disposable monitoring;
+
+    public ReadReplicaRoutingConnectionFactory(
+        ConnectionFactory primary,
+        Map<String, ConnectionFactory> replicas,
+        ApplicationProperties.ReadReplicas properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        replicas.forEach(
+            (name, connectionFactory) -> {
+                Replica replica = new Replica(name, connectionFactory);
+                this.replicas.add(replica);
+                Gauge
+                    .builder("db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag of the read replica, as of its last check")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+                Gauge
+                    .builder("db.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("Whether the read replica serves the read-only transactions")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            }
+        );
+        setTargetConnectionFactories(replicas);
+        setDefaultTargetConnectionFactory(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(
+            context -> {
+                List<String> candidates = available;
+                if (candidates.isEmpty() || !context.getOrDefault(READ_ONLY, false)) {
+                    return Mono.empty();
+                }
+                return Mono.just(candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())));
+            }
+        );
+    }
+
+    /**
+     * Checks the replicas once the application is started, before it is ready to accept traffic, then on every
+     * {@code check-interval}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        checkReplicas().block();
+        monitoring =
+            Flux.interval(properties.getCheckInterval()).onBackpressureDrop().concatMap(tick -> checkReplicas()).subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (monitoring != null) {
+            monitoring.dispose();
+        }
+        for (Replica replica : replicas) {
+            if (replica.connectionFactory instanceof Disposable) {
+                ((Disposable) replica.connectionFactory).dispose();
+            }
+        }
+    }
+
+    /**
+     * Checks the lag of the replicas, and updates the replicas serving the read-only transactions.
+     *
+     * @return the end of the checks.
+     */
+    public Mono<Void> checkReplicas() {
+        return Flux
+            .fromIterable(replicas)
+            .flatMap(this::check)
+            .then(
+                Mono.fromRunnable(
+                    () -> {
+                        List<String> names = new ArrayList<>();
+                        for (Replica replica : replicas) {
+                            if (replica.available) {
+                                names.add(replica.name);
+                            }
+                        }
+                        available = Collections.unmodifiableList(names);
+                    }
+                )
+            );
+    }
+
+    private Mono<Void> check(Replica replica) {
+        return Mono
+            .usingWhen(replica.connectionFactory.create(), this::lagSeconds, Connection::close)
+            .timeout(properties.getCheckInterval())
+            .doOnNext(
+                lag -> {
+                    boolean available = lag <= properties.getMaxLag().toMillis() / 1000.0;
+                    if (available != replica.available) {
+                        log.info("Read replica {} is {} with a lag of {}s", replica.name, available ? "back" : "left out", lag);
+                    }
+                    replica.lagSeconds = lag;
+                    replica.available = available;
+                }
+            )
+            .onErrorResume(
+                e -> {
+                    if (replica.available) {
+                        log.warn("Read replica {} is left out, as it could not be checked: {}", replica.name, e.getMessage());
+                    }
+                    replica.lagSeconds = Double.NaN;
+                    replica.available = false;
+                    return Mono.empty();
+                }
+            )
+            .then();
+    }
+
+    private Mono<Double> lagSeconds(Connection connection) {
+        if (StringUtils.isBlank(properties.getLagQuery())) {
+            return Mono
+                .from(connection.validate(ValidationDepth.REMOTE))
+                .flatMap(valid -> valid ? Mono.just(0.0) : Mono.error(new IllegalStateException("The connection is not valid")));
+        }
+        return Flux
+            .from(connection.createStatement(properties.getLagQuery()).execute())
+            .flatMap(
+                result ->
+                    result.map(
+                        (row, metadata) -> {
+                            Object lag = row.get(0);
+                            return lag instanceof Number ? ((Number) lag).doubleValue() : 0.0;
+                        }
+                    )
+            )
+            .next()
+            .defaultIfEmpty(0.0);
+    }
+
+    private static class Replica {
+
+        private final String name;
+
+        private final ConnectionFactory connectionFactory;
+
+        private volatile double lagSeconds = Double.NaN;
+
+        private volatile boolean available;
+
+        Replica(String name, ConnectionFactory connectionFactory) {
+            this.name = name;
+            this.connectionFactory = connectionFactory;
+        }
+    }
+}
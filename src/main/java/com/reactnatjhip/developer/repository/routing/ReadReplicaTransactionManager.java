@@ -0,0 +1,32 @@
+package com.reactnatjhip.developer.repository.routing;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * {@link R2dbcTransactionManager} telling the {@link ReadReplicaRoutingConnectionFactory} whether the transaction it
+ * begins is read-only, so its connection can be taken from a read replica.
+ */
+public class ReadReplicaTransactionManager extends R2dbcTransactionManager {
+
+    private static final long serialVersionUID = 1L;
+
+    public ReadReplicaTransactionManager(ConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    @Override
+    protected Mono<Void> doBegin(
+        TransactionSynchronizationManager synchronizationManager,
+        Object transaction,
+        TransactionDefinition definition
+    ) {
+        return super
+            .doBegin(synchronizationManager, transaction, definition)
+            .contextWrite(Context.of(ReadReplicaRoutingConnectionFactory.READ_ONLY, definition.isReadOnly()));
+    }
+}
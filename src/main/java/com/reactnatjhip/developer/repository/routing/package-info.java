@@ -0,0 +1,4 @@
+/**
+ * Routing of the read-only transactions to the read replicas.
+ */
+package com.reactnatjhip.developer.repository.routing;
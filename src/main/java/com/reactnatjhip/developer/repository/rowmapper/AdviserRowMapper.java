@@ -12,6 +12,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class AdviserRowMapper implements BiFunction<Row, String, Adviser> {
 
+    private static final PrefixedColumns<Columns> COLUMNS = new PrefixedColumns<>(Columns::new);
+
     private final ColumnConverter converter;
 
     public AdviserRowMapper(ColumnConverter converter) {
@@ -24,13 +26,36 @@ public class AdviserRowMapper implements BiFunction<Row, String, Adviser> {
      */
     @Override
     public Adviser apply(Row row, String prefix) {
+        Columns columns = COLUMNS.forPrefix(prefix);
         Adviser entity = new Adviser();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setRegistrationNumber(converter.fromRow(row, prefix + "_registration_number", String.class));
-        entity.setCompany(converter.fromRow(row, prefix + "_company", String.class));
-        entity.setDepartment(converter.fromRow(row, prefix + "_department", String.class));
-        entity.setUserId(converter.fromRow(row, prefix + "_user_id", Long.class));
-        entity.setBankId(converter.fromRow(row, prefix + "_bank_id", Long.class));
+        entity.setId(converter.fromRow(row, columns.id, Long.class));
+        entity.setRegistrationNumber(converter.fromRow(row, columns.registrationNumber, String.class));
+        entity.setCompany(converter.fromRow(row, columns.company, String.class));
+        entity.setDepartment(converter.fromRow(row, columns.department, String.class));
+        entity.setUserId(converter.fromRow(row, columns.userId, Long.class));
+        entity.setBankId(converter.fromRow(row, columns.bankId, Long.class));
         return entity;
     }
+
+    /**
+     * The columns of the advisers, prefixed with the alias of their table.
+     */
+    private static final class Columns {
+
+        private final String id;
+        private final String registrationNumber;
+        private final String company;
+        private final String department;
+        private final String userId;
+        private final String bankId;
+
+        private Columns(String prefix) {
+            id = prefix + "_id";
+            registrationNumber = prefix + "_registration_number";
+            company = prefix + "_company";
+            department = prefix + "_department";
+            userId = prefix + "_user_id";
+            bankId = prefix + "_bank_id";
+        }
+    }
 }
@@ -13,6 +13,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class AppointmentRowMapper implements BiFunction<Row, String, Appointment> {
 
+    private static final PrefixedColumns<Columns> COLUMNS = new PrefixedColumns<>(Columns::new);
+
     private final ColumnConverter converter;
 
     public AppointmentRowMapper(ColumnConverter converter) {
@@ -25,14 +27,39 @@ public class AppointmentRowMapper implements BiFunction<Row, String, Appointment
      */
     @Override
     public Appointment apply(Row row, String prefix) {
+        Columns columns = COLUMNS.forPrefix(prefix);
         Appointment entity = new Appointment();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setReason(converter.fromRow(row, prefix + "_reason", String.class));
-        entity.setDate(converter.fromRow(row, prefix + "_date", Instant.class));
-        entity.setState(converter.fromRow(row, prefix + "_state", Boolean.class));
-        entity.setReportreason(converter.fromRow(row, prefix + "_reportreason", String.class));
-        entity.setAdviserId(converter.fromRow(row, prefix + "_adviser_id", Long.class));
-        entity.setManagerId(converter.fromRow(row, prefix + "_manager_id", Long.class));
+        entity.setId(converter.fromRow(row, columns.id, Long.class));
+        entity.setReason(converter.fromRow(row, columns.reason, String.class));
+        entity.setDate(converter.fromRow(row, columns.date, Instant.class));
+        entity.setState(converter.fromRow(row, columns.state, Boolean.class));
+        entity.setReportreason(converter.fromRow(row, columns.reportreason, String.class));
+        entity.setAdviserId(converter.fromRow(row, columns.adviserId, Long.class));
+        entity.setManagerId(converter.fromRow(row, columns.managerId, Long.class));
         return entity;
     }
+
+    /**
+     * The columns of the appointments, prefixed with the alias of their table.
+     */
+    private static final class Columns {
+
+        private final String id;
+        private final String reason;
+        private final String date;
+        private final String state;
+        private final String reportreason;
+        private final String adviserId;
+        private final String managerId;
+
+        private Columns(String prefix) {
+            id = prefix + "_id";
+            reason = prefix + "_reason";
+            date = prefix + "_date";
+            state = prefix + "_state";
+            reportreason = prefix + "_reportreason";
+            adviserId = prefix + "_adviser_id";
+            managerId = prefix + "_manager_id";
+        }
+    }
 }
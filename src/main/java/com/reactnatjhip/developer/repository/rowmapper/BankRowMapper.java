@@ -12,6 +12,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class BankRowMapper implements BiFunction<Row, String, Bank> {
 
+    private static final PrefixedColumns<Columns> COLUMNS = new PrefixedColumns<>(Columns::new);
+
     private final ColumnConverter converter;
 
     public BankRowMapper(ColumnConverter converter) {
@@ -24,10 +26,27 @@ public class BankRowMapper implements BiFunction<Row, String, Bank> {
      */
     @Override
     public Bank apply(Row row, String prefix) {
+        Columns columns = COLUMNS.forPrefix(prefix);
         Bank entity = new Bank();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setName(converter.fromRow(row, prefix + "_name", String.class));
-        entity.setAddress(converter.fromRow(row, prefix + "_address", String.class));
+        entity.setId(converter.fromRow(row, columns.id, Long.class));
+        entity.setName(converter.fromRow(row, columns.name, String.class));
+        entity.setAddress(converter.fromRow(row, columns.address, String.class));
         return entity;
     }
+
+    /**
+     * The columns of the banks, prefixed with the alias of their table.
+     */
+    private static final class Columns {
+
+        private final String id;
+        private final String name;
+        private final String address;
+
+        private Columns(String prefix) {
+            id = prefix + "_id";
+            name = prefix + "_name";
+            address = prefix + "_address";
+        }
+    }
 }
@@ -12,6 +12,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class CompanyRowMapper implements BiFunction<Row, String, Company> {
 
+    private static final PrefixedColumns<Columns> COLUMNS = new PrefixedColumns<>(Columns::new);
+
     private final ColumnConverter converter;
 
     public CompanyRowMapper(ColumnConverter converter) {
@@ -24,12 +26,33 @@ public class CompanyRowMapper implements BiFunction<Row, String, Company> {
      */
     @Override
     public Company apply(Row row, String prefix) {
+        Columns columns = COLUMNS.forPrefix(prefix);
         Company entity = new Company();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setName(converter.fromRow(row, prefix + "_name", String.class));
-        entity.setNinea(converter.fromRow(row, prefix + "_ninea", String.class));
-        entity.setRc(converter.fromRow(row, prefix + "_rc", String.class));
-        entity.setAddress(converter.fromRow(row, prefix + "_address", String.class));
+        entity.setId(converter.fromRow(row, columns.id, Long.class));
+        entity.setName(converter.fromRow(row, columns.name, String.class));
+        entity.setNinea(converter.fromRow(row, columns.ninea, String.class));
+        entity.setRc(converter.fromRow(row, columns.rc, String.class));
+        entity.setAddress(converter.fromRow(row, columns.address, String.class));
         return entity;
     }
+
+    /**
+     * The columns of the companies, prefixed with the alias of their table.
+     */
+    private static final class Columns {
+
+        private final String id;
+        private final String name;
+        private final String ninea;
+        private final String rc;
+        private final String address;
+
+        private Columns(String prefix) {
+            id = prefix + "_id";
+            name = prefix + "_name";
+            ninea = prefix + "_ninea";
+            rc = prefix + "_rc";
+            address = prefix + "_address";
+        }
+    }
 }
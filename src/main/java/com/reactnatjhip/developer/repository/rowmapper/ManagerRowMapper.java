@@ -12,6 +12,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class ManagerRowMapper implements BiFunction<Row, String, Manager> {
 
+    private static final PrefixedColumns<Columns> COLUMNS = new PrefixedColumns<>(Columns::new);
+
     private final ColumnConverter converter;
 
     public ManagerRowMapper(ColumnConverter converter) {
@@ -24,12 +26,33 @@ public class ManagerRowMapper implements BiFunction<Row, String, Manager> {
      */
     @Override
     public Manager apply(Row row, String prefix) {
+        Columns columns = COLUMNS.forPrefix(prefix);
         Manager entity = new Manager();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setRegistrationNumber(converter.fromRow(row, prefix + "_registration_number", String.class));
-        entity.setDepartment(converter.fromRow(row, prefix + "_department", String.class));
-        entity.setUserId(converter.fromRow(row, prefix + "_user_id", Long.class));
-        entity.setCompanyId(converter.fromRow(row, prefix + "_company_id", Long.class));
+        entity.setId(converter.fromRow(row, columns.id, Long.class));
+        entity.setRegistrationNumber(converter.fromRow(row, columns.registrationNumber, String.class));
+        entity.setDepartment(converter.fromRow(row, columns.department, String.class));
+        entity.setUserId(converter.fromRow(row, columns.userId, Long.class));
+        entity.setCompanyId(converter.fromRow(row, columns.companyId, Long.class));
         return entity;
     }
+
+    /**
+     * The columns of the managers, prefixed with the alias of their table.
+     */
+    private static final class Columns {
+
+        private final String id;
+        private final String registrationNumber;
+        private final String department;
+        private final String userId;
+        private final String companyId;
+
+        private Columns(String prefix) {
+            id = prefix + "_id";
+            registrationNumber = prefix + "_registration_number";
+            department = prefix + "_department";
+            userId = prefix + "_user_id";
+            companyId = prefix + "_company_id";
+        }
+    }
 }
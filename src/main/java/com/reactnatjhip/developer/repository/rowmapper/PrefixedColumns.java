@@ -0,0 +1,35 @@
+package com.reactnatjhip.developer.repository.rowmapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The column names of an entity in a select, prefixed with the alias of its table, built once per alias instead of
+ * once per row. Each row mapper holds them in the named fields of a class of its own, built from the alias.
+ *
+ * @param <C> the type of the prefixed column names.
+ */
+public final class PrefixedColumns<C> {
+
+    private final Function<String, C> factory;
+    private final Map<String, C> columnsByPrefix = new ConcurrentHashMap<>();
+
+    public PrefixedColumns(Function<String, C> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Get the column names prefixed with the given alias.
+     * @param prefix the alias of the table of the entity.
+     * @return the prefixed column names.
+     */
+    public C forPrefix(String prefix) {
+        C prefixed = columnsByPrefix.get(prefix);
+        if (prefixed == null) {
+            prefixed = factory.apply(prefix);
+            columnsByPrefix.putIfAbsent(prefix, prefixed);
+        }
+        return prefixed;
+    }
+}
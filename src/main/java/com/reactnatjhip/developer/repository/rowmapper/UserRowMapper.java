@@ -13,6 +13,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserRowMapper implements BiFunction<Row, String, User> {
 
+    private static final PrefixedColumns<Columns> COLUMNS = new PrefixedColumns<>(Columns::new);
+
     private final ColumnConverter converter;
 
     public UserRowMapper(ColumnConverter converter) {
@@ -25,19 +27,54 @@ public class UserRowMapper implements BiFunction<Row, String, User> {
      */
     @Override
     public User apply(Row row, String prefix) {
+        Columns columns = COLUMNS.forPrefix(prefix);
         User entity = new User();
-        entity.setId(row.get(prefix + "_id", Long.class));
-        entity.setLogin(converter.fromRow(row, prefix + "_login", String.class));
-        entity.setPassword(converter.fromRow(row, prefix + "_password", String.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, prefix + "_activated", Boolean.class)));
-        entity.setLangKey(converter.fromRow(row, prefix + "_lang_key", String.class));
-        entity.setImageUrl(converter.fromRow(row, prefix + "_image_url", String.class));
-        entity.setActivationKey(converter.fromRow(row, prefix + "_activation_key", String.class));
-        entity.setResetKey(converter.fromRow(row, prefix + "_reset_key", String.class));
-        entity.setResetDate(converter.fromRow(row, prefix + "_reset_date", Instant.class));
+        entity.setId(row.get(columns.id, Long.class));
+        entity.setLogin(converter.fromRow(row, columns.login, String.class));
+        entity.setPassword(converter.fromRow(row, columns.password, String.class));
+        entity.setFirstName(converter.fromRow(row, columns.firstName, String.class));
+        entity.setLastName(converter.fromRow(row, columns.lastName, String.class));
+        entity.setEmail(converter.fromRow(row, columns.email, String.class));
+        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, columns.activated, Boolean.class)));
+        entity.setLangKey(converter.fromRow(row, columns.langKey, String.class));
+        entity.setImageUrl(converter.fromRow(row, columns.imageUrl, String.class));
+        entity.setActivationKey(converter.fromRow(row, columns.activationKey, String.class));
+        entity.setResetKey(converter.fromRow(row, columns.resetKey, String.class));
+        entity.setResetDate(converter.fromRow(row, columns.resetDate, Instant.class));
         return entity;
     }
+
+    /**
+     * The columns of the users, prefixed with the alias of their table.
+     */
+    private static final class Columns {
+
+        private final String id;
+        private final String login;
+        private final String password;
+        private final String firstName;
+        private final String lastName;
+        private final String email;
+        private final String activated;
+        private final String langKey;
+        private final String imageUrl;
+        private final String activationKey;
+        private final String resetKey;
+        private final String resetDate;
+
+        private Columns(String prefix) {
+            id = prefix + "_id";
+            login = prefix + "_login";
+            password = prefix + "_password";
+            firstName = prefix + "_first_name";
+            lastName = prefix + "_last_name";
+            email = prefix + "_email";
+            activated = prefix + "_activated";
+            langKey = prefix + "_lang_key";
+            imageUrl = prefix + "_image_url";
+            activationKey = prefix + "_activation_key";
+            resetKey = prefix + "_reset_key";
+            resetDate = prefix + "_reset_date";
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.reactnatjhip.developer.security;
 
 import com.reactnatjhip.developer.domain.User;
 import com.reactnatjhip.developer.repository.UserRepository;
+import com.reactnatjhip.developer.service.UserCacheService;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
@@ -9,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -20,13 +22,16 @@ import reactor.core.publisher.Mono;
  * Authenticate a user from the database.
  */
 @Component("userDetailsService")
-public class DomainUserDetailsService implements ReactiveUserDetailsService {
+public class DomainUserDetailsService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
 
     private final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
+    private final UserCacheService userCacheService;
+
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    public DomainUserDetailsService(UserCacheService userCacheService, UserRepository userRepository) {
+        this.userCacheService = userCacheService;
         this.userRepository = userRepository;
     }
 
@@ -36,19 +41,39 @@ public class DomainUserDetailsService implements ReactiveUserDetailsService {
         log.debug("Authenticating {}", login);
 
         if (new EmailValidator().isValid(login, null)) {
-            return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
+            return userCacheService
+                .getUserWithAuthoritiesByEmail(login)
                 .switchIfEmpty(Mono.error(new UsernameNotFoundException("User with email " + login + " was not found in the database")))
                 .map(user -> createSpringSecurityUser(login, user));
         }
 
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
-        return userRepository
-            .findOneWithAuthoritiesByLogin(lowercaseLogin)
+        return userCacheService
+            .getUserWithAuthoritiesByLogin(lowercaseLogin)
             .switchIfEmpty(Mono.error(new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database")))
             .map(user -> createSpringSecurityUser(lowercaseLogin, user));
     }
 
+    /**
+     * Saves the password of a user rehashed with the current strength, after a successful authentication. The cached
+     * user is evicted again once the new hash is committed, so a concurrent login can't keep the old one in the cache.
+     */
+    @Override
+    @Transactional
+    public Mono<UserDetails> updatePassword(UserDetails userDetails, String newPassword) {
+        log.debug("Upgrading the password hash of {}", userDetails.getUsername());
+        return userRepository
+            .findOneByLogin(userDetails.getUsername())
+            .flatMap(
+                user -> {
+                    user.setPassword(newPassword);
+                    return userRepository.save(user);
+                }
+            )
+            .flatMap(userCacheService::evictUser)
+            .thenReturn(org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newPassword).build());
+    }
+
     private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
         if (!user.isActivated()) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
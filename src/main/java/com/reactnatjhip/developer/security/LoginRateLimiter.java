@@ -0,0 +1,149 @@
+package com.reactnatjhip.developer.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Throttles the authentication attempts by login and by client address, before their password is verified, so a
+ * brute-force attack or a client retrying in a loop can't keep the password hashing pool busy.
+ * <p>
+ * Each login and each client address has a token bucket: it allows {@code capacity} attempts in a burst, and gives
+ * them back one by one over the {@code period}. A bucket is a single {@link AtomicLong} updated with a compare-and-set,
+ * so the allowed attempts don't take any lock. The buckets are dropped once they have been idle for their period, as
+ * they are full again by then, and there are at most {@code max-buckets} of each kind.
+ * <p>
+ * The {@code login.throttled} counter records the rejected attempts, tagged with the kind of bucket that rejected them.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Logger log = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    private final boolean enabled;
+
+    private final Limiter perLogin;
+
+    private final Limiter perClient;
+
+    @Autowired
+    public LoginRateLimiter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this(applicationProperties, meterRegistry, Ticker.systemTicker());
+    }
+
+    LoginRateLimiter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry, Ticker ticker) {
+        ApplicationProperties.LoginThrottling properties = applicationProperties.getLoginThrottling();
+        this.enabled = properties.isEnabled();
+        this.perLogin = new Limiter("login", properties.getPerLogin(), properties.getMaxBuckets(), ticker, meterRegistry);
+        this.perClient = new Limiter("client", properties.getPerClient(), properties.getMaxBuckets(), ticker, meterRegistry);
+    }
+
+    /**
+     * Takes an authentication attempt from the buckets of the login and of the client address.
+     * @param login the login, or {@code null} if it's unknown.
+     * @param clientAddress the address of the client, or {@code null} if it's unknown.
+     * @throws LoginThrottledException if the login or the client address has no attempt left.
+     */
+    public void acquire(String login, String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        if (clientAddress != null) {
+            perClient.acquire(clientAddress);
+        }
+        if (login != null) {
+            perLogin.acquire(login.toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * The token buckets of one kind of key.
+     */
+    private final class Limiter {
+
+        private final String name;
+
+        // time needed to give back one attempt
+        private final long intervalNanos;
+
+        // how far ahead of the current time the buckets may be booked, the burst minus the attempt being made
+        private final long toleranceNanos;
+
+        private final Ticker ticker;
+
+        private final Cache<String, Bucket> buckets;
+
+        private final Counter throttled;
+
+        private Limiter(
+            String name,
+            ApplicationProperties.LoginThrottling.Limit limit,
+            long maxBuckets,
+            Ticker ticker,
+            MeterRegistry meterRegistry
+        ) {
+            this.name = name;
+            long periodNanos = limit.getPeriod().toNanos();
+            this.intervalNanos = periodNanos / Math.max(1, limit.getCapacity());
+            this.toleranceNanos = periodNanos - intervalNanos;
+            this.ticker = ticker;
+            this.buckets = Caffeine.newBuilder().maximumSize(maxBuckets).expireAfterAccess(limit.getPeriod()).ticker(ticker).build();
+            this.throttled = Counter
+                .builder("login.throttled")
+                .description("Authentication attempts rejected by the rate limiter")
+                .tag("key", name)
+                .register(meterRegistry);
+        }
+
+        private void acquire(String key) {
+            long now = ticker.read();
+            long waitNanos = buckets.get(key, k -> new Bucket(now)).tryAcquire(now, intervalNanos, toleranceNanos);
+            if (waitNanos > 0) {
+                throttled.increment();
+                log.debug("Throttled an authentication attempt of the {} {}", name, key);
+                throw new LoginThrottledException(Duration.ofNanos(waitNanos));
+            }
+        }
+    }
+
+    /**
+     * A token bucket, stored as the time at which it will be full again (the theoretical arrival time of the generic
+     * cell rate algorithm): an attempt is allowed when this time is less than the tolerance ahead of now, and pushes it
+     * back by one interval.
+     */
+    private static final class Bucket {
+
+        private final AtomicLong fullAt;
+
+        private Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return 0 if the attempt is allowed, otherwise the nanoseconds to wait before the next attempt is allowed.
+         */
+        private long tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+            while (true) {
+                long current = fullAt.get();
+                long base = current - now > 0 ? current : now;
+                long waitNanos = base - now - toleranceNanos;
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (fullAt.compareAndSet(current, base + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
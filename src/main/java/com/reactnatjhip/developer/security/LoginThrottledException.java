@@ -0,0 +1,22 @@
+package com.reactnatjhip.developer.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a login or a client exceeds its rate of authentication attempts.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(Duration retryAfter) {
+        super("Too many authentication attempts");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
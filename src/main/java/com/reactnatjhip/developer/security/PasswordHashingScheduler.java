@@ -0,0 +1,92 @@
+package com.reactnatjhip.developer.security;
+
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs the password hashing and verification on a dedicated pool sized to the CPUs, so a burst of logins doesn't
+ * starve the blocking work sharing the bounded elastic scheduler.
+ * <p>
+ * The pool has a bounded queue: once it's full, the hashing fails fast with a
+ * {@link PasswordHashingUnavailableException} instead of piling up requests which would time out anyway. The
+ * {@code password.hashing} timer records the duration of the hashing tasks, the {@code password.hashing.queue} gauge
+ * the number of waiting tasks and the {@code password.hashing.rejected} counter the rejected ones.
+ */
+@Component
+public class PasswordHashingScheduler implements DisposableBean {
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Scheduler scheduler;
+
+    private final Duration retryAfter;
+
+    private final Counter rejected;
+
+    public PasswordHashingScheduler(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.PasswordHashing properties = applicationProperties.getPasswordHashing();
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        Timer timer = Timer.builder("password.hashing").description("Duration of the password hashing tasks").register(meterRegistry);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.setDaemon(true);
+        executor.setTaskDecorator(task -> () -> timer.record(task));
+        executor.initialize();
+        scheduler = Schedulers.fromExecutorService(executor.getThreadPoolExecutor(), "password-hashing");
+        retryAfter = properties.getRetryAfter();
+        rejected = Counter.builder("password.hashing.rejected").description("Password hashing tasks rejected").register(meterRegistry);
+        Gauge
+            .builder("password.hashing.queue", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+            .description("Password hashing tasks waiting for a thread")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the scheduler running the hashing tasks; its rejections should be translated with {@link #translateRejection}.
+     * @return the scheduler.
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Hashes or verifies a password on the hashing pool.
+     * @param hashing the hashing task.
+     * @param <T> the type of the result of the task.
+     * @return the result of the task, or a {@link PasswordHashingUnavailableException} error if the queue is full.
+     */
+    public <T> Mono<T> schedule(Callable<T> hashing) {
+        return Mono.fromCallable(hashing).subscribeOn(scheduler).onErrorMap(RejectedExecutionException.class, this::translateRejection);
+    }
+
+    /**
+     * Translates the rejection of a hashing task by the full queue.
+     * @param e the rejection.
+     * @return a {@link PasswordHashingUnavailableException}.
+     */
+    public PasswordHashingUnavailableException translateRejection(RejectedExecutionException e) {
+        rejected.increment();
+        return new PasswordHashingUnavailableException(retryAfter, e);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,22 @@
+package com.reactnatjhip.developer.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a password can't be hashed or verified because the hashing queue is full.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public PasswordHashingUnavailableException(Duration retryAfter, Throwable cause) {
+        super("Password hashing queue is full", cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
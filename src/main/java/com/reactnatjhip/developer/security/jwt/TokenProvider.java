@@ -1,12 +1,20 @@
 package com.reactnatjhip.developer.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,9 +27,18 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
 
+/**
+ * Creates and verifies the JWT tokens.
+ * <p>
+ * The authentication of a verified token is kept in a bounded cache, keyed by a digest of the token, until the token
+ * expires, so a client sending the same token with every request only pays for the signature verification and the
+ * parsing of the authorities once. The hits and misses of the cache are exported with the {@code cache.*} metrics.
+ */
 @Component
 public class TokenProvider {
 
+    public static final String AUTHENTICATIONS_CACHE = "jwtAuthentications";
+
     private final Logger log = LoggerFactory.getLogger(TokenProvider.class);
 
     private static final String AUTHORITIES_KEY = "auth";
@@ -34,7 +51,9 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final Cache<String, VerifiedToken> authentications;
+
+    public TokenProvider(JHipsterProperties jHipsterProperties, MeterRegistry meterRegistry) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -53,6 +72,17 @@ public class TokenProvider {
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        this.authentications =
+            CaffeineCacheMetrics.monitor(
+                meterRegistry,
+                Caffeine
+                    .newBuilder()
+                    .maximumSize(jHipsterProperties.getCache().getCaffeine().getMaxEntries())
+                    .expireAfter(new UntilTokenExpiry())
+                    .recordStats()
+                    .build(),
+                AUTHENTICATIONS_CACHE
+            );
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -77,6 +107,35 @@ public class TokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
+        String digest = digest(token);
+        VerifiedToken verified = authentications.getIfPresent(digest);
+        if (verified == null || verified.isExpired()) {
+            verified = verify(token);
+            authentications.put(digest, verified);
+        }
+        return verified.authentication;
+    }
+
+    /**
+     * Verifies the token, and returns its authentication.
+     * @param token the JWT token.
+     * @return the authentication of the token, or empty if the token is invalid or expired.
+     */
+    public Optional<Authentication> getValidAuthentication(String token) {
+        try {
+            return Optional.of(getAuthentication(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+        }
+        return Optional.empty();
+    }
+
+    public boolean validateToken(String authToken) {
+        return getValidAuthentication(authToken).isPresent();
+    }
+
+    private VerifiedToken verify(String token) {
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
         Collection<? extends GrantedAuthority> authorities = Arrays
@@ -87,17 +146,55 @@ public class TokenProvider {
 
         User principal = new User(claims.getSubject(), "", authorities);
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        long expiration = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        return new VerifiedToken(new UsernamePasswordAuthenticationToken(principal, token, authorities), expiration);
     }
 
-    public boolean validateToken(String authToken) {
+    private static String digest(String token) {
         try {
-            jwtParser.parseClaimsJws(authToken);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            log.info("Invalid JWT token.");
-            log.trace("Invalid JWT token trace.", e);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The authentication of a verified token, and the time the token expires at.
+     */
+    private static final class VerifiedToken {
+
+        private final Authentication authentication;
+        private final long expiration;
+
+        private VerifiedToken(Authentication authentication, long expiration) {
+            this.authentication = authentication;
+            this.expiration = expiration;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiration;
+        }
+    }
+
+    /**
+     * Keeps the verified tokens in the cache until they expire.
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(value.expiration - System.currentTimeMillis(), 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
-        return false;
     }
 }
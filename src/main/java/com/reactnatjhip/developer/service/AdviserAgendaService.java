@@ -0,0 +1,404 @@
+package com.reactnatjhip.developer.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import com.reactnatjhip.developer.domain.Appointment;
+import com.reactnatjhip.developer.domain.Manager;
+import com.reactnatjhip.developer.domain.User;
+import com.reactnatjhip.developer.repository.AppointmentExpansion;
+import com.reactnatjhip.developer.repository.AppointmentRepository;
+import com.reactnatjhip.developer.repository.ManagerRepository;
+import com.reactnatjhip.developer.service.criteria.AppointmentCriteria;
+import com.reactnatjhip.developer.service.dto.AgendaAppointmentDTO;
+import com.reactnatjhip.developer.service.dto.AgendaDayDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service keeping the agendas of the advisers in memory, as one compact projection of the appointments per adviser and
+ * per day, so the agendas asked for again and again by the mobile application don't query the appointments every time.
+ * <p>
+ * A day is loaded from the database on first use, with the names of the managers, and kept up to date with the
+ * appointments created, updated and deleted through this instance, once their transaction is committed. It is bounded
+ * by {@code application.agenda.max-days} and expires after {@code application.agenda.time-to-live}, which bounds the
+ * drift caused by the appointments changed outside of this instance. Every change of a day gives it a new version,
+ * from which the ETags of the agendas are built.
+ * <p>
+ * The hits and misses are exported with the {@code cache.*} metrics tagged with the {@code adviserAgenda} cache, the
+ * {@code adviser.agenda.hit.ratio} gauge their ratio, and the {@code adviser.agenda.appointments} and
+ * {@code adviser.agenda.size} gauges the appointments kept in memory and the estimate of their footprint.
+ */
+@Service
+public class AdviserAgendaService {
+
+    public static final String ADVISER_AGENDA_CACHE = "adviserAgenda";
+
+    // rough footprint of a day and of one of its appointments, without the name of the manager
+    private static final long DAY_BYTES = 160;
+    private static final long APPOINTMENT_BYTES = 120;
+
+    private static final Comparator<AgendaAppointmentDTO> BY_DATE = Comparator
+        .comparing(AgendaAppointmentDTO::getDate)
+        .thenComparing(AgendaAppointmentDTO::getId);
+
+    private final Logger log = LoggerFactory.getLogger(AdviserAgendaService.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final ManagerRepository managerRepository;
+    private final ZoneId zone;
+    private final AsyncCache<DayKey, AgendaDayDTO> days;
+    // the day in which each cached appointment is, so an update or a delete finds it without scanning the days
+    private final Map<Long, Placement> dayByAppointment = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    // distinguishes the versions of this instance from those of the other instances, and of the previous runs
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+
+    public AdviserAgendaService(
+        AppointmentRepository appointmentRepository,
+        ManagerRepository managerRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.appointmentRepository = appointmentRepository;
+        this.managerRepository = managerRepository;
+        ApplicationProperties.Agenda properties = applicationProperties.getAgenda();
+        this.zone = properties.getZone();
+        AsyncCache<DayKey, AgendaDayDTO> cache = Caffeine
+            .newBuilder()
+            .maximumSize(properties.getMaxDays())
+            .expireAfterWrite(properties.getTimeToLive())
+            .<DayKey, AgendaDayDTO>removalListener(
+                (key, day, cause) -> {
+                    // the listener runs asynchronously, maybe once the day is loaded again, whose appointments are kept
+                    if (key != null && day != null && (cause.wasEvicted() || cause == RemovalCause.EXPLICIT)) {
+                        day.getAppointments().forEach(appointment -> unplace(appointment.getId(), key, day.getVersion()));
+                    }
+                }
+            )
+            .recordStats()
+            .buildAsync();
+        this.days = CaffeineCacheMetrics.monitor(meterRegistry, cache, ADVISER_AGENDA_CACHE);
+        Gauge
+            .builder("adviser.agenda.hit.ratio", days, agendas -> agendas.synchronous().stats().hitRate())
+            .description("Share of the days of the agendas served from memory")
+            .register(meterRegistry);
+        Gauge
+            .builder("adviser.agenda.appointments", dayByAppointment, Map::size)
+            .description("Appointments of the agendas kept in memory")
+            .register(meterRegistry);
+        Gauge
+            .builder("adviser.agenda.size", this, AdviserAgendaService::estimateSize)
+            .description("Estimated memory footprint of the agendas")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the agenda of an adviser.
+     * @param adviserId the id of the adviser.
+     * @param from the first day, today if {@code null}.
+     * @param count the number of days.
+     * @return the days, in order.
+     */
+    public Mono<List<AgendaDayDTO>> getAgenda(Long adviserId, LocalDate from, int count) {
+        LocalDate first = from != null ? from : LocalDate.now(zone);
+        return Flux.range(0, count).flatMapSequential(i -> getDay(new DayKey(adviserId, first.plusDays(i)))).collectList();
+    }
+
+    /**
+     * Builds the ETag of an agenda from the versions of its days.
+     * @param agenda the days of the agenda.
+     * @return the ETag, quoted.
+     */
+    public String getETag(List<AgendaDayDTO> agenda) {
+        return agenda
+            .stream()
+            .map(day -> Long.toHexString(day.getVersion()))
+            .collect(Collectors.joining(".", "\"" + epoch + "-", "\""));
+    }
+
+    /**
+     * Updates the agendas with an appointment which was created or updated: it is removed from the day it was in, and
+     * added to the day of its adviser and date, if those days are in memory. Within a transaction, the agendas are only
+     * updated once it is committed.
+     * @param appointment the appointment, as saved.
+     * @return a {@link Mono} completing once the update of the agendas is applied, or registered for the commit.
+     */
+    public Mono<Void> onSaved(Appointment appointment) {
+        DayKey key = appointment.getAdviserId() != null && appointment.getDate() != null
+            ? new DayKey(appointment.getAdviserId(), LocalDate.ofInstant(appointment.getDate(), zone))
+            : null;
+        if (key == null || days.getIfPresent(key) == null) {
+            return afterCommit(() -> move(appointment.getId(), key, null));
+        }
+        // the name of the manager is read in the transaction, so applying the update takes no query
+        return getManagerName(key, appointment.getManagerId())
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(
+                managerName -> {
+                    AgendaAppointmentDTO entry = new AgendaAppointmentDTO(
+                        appointment.getId(),
+                        appointment.getDate(),
+                        appointment.getState(),
+                        appointment.getManagerId(),
+                        managerName.orElse(null)
+                    );
+                    return afterCommit(() -> move(appointment.getId(), key, entry));
+                }
+            );
+    }
+
+    /**
+     * Updates the agendas with an appointment which was deleted. Within a transaction, the agendas are only updated once
+     * it is committed.
+     * @param id the id of the appointment.
+     * @return a {@link Mono} completing once the update of the agendas is applied, or registered for the commit.
+     */
+    public Mono<Void> onDeleted(Long id) {
+        return afterCommit(() -> move(id, null, null));
+    }
+
+    /**
+     * Evict all the days from memory, after changes of the appointments which aren't known one by one.
+     */
+    public void evictAll() {
+        days.synchronous().invalidateAll();
+        dayByAppointment.clear();
+    }
+
+    private Mono<AgendaDayDTO> getDay(DayKey key) {
+        // like in the UserCacheService, the concurrent lookups of a day share the same load
+        return Mono.defer(() -> Mono.fromFuture(days.get(key, (k, executor) -> load(k).toFuture()).thenApply(Function.identity())));
+    }
+
+    private Mono<AgendaDayDTO> load(DayKey key) {
+        log.debug("Loading the agenda of adviser {} on {}", key.adviserId, key.date);
+        AppointmentCriteria criteria = new AppointmentCriteria();
+        criteria.setAdviserId(key.adviserId);
+        criteria.setFromDate(key.date.atStartOfDay(zone).toInstant());
+        criteria.setToDate(key.date.plusDays(1).atStartOfDay(zone).toInstant());
+        return appointmentRepository
+            .findAllExpandedBy(null, criteria, EnumSet.of(AppointmentExpansion.MANAGER_USER))
+            .map(
+                appointment ->
+                    new AgendaAppointmentDTO(
+                        appointment.getId(),
+                        appointment.getDate(),
+                        appointment.getState(),
+                        appointment.getManagerId(),
+                        getManagerName(appointment.getManager())
+                    )
+            )
+            .sort(BY_DATE)
+            .collectList()
+            .map(
+                appointments -> {
+                    long version = versions.incrementAndGet();
+                    appointments.forEach(appointment -> dayByAppointment.put(appointment.getId(), new Placement(key, version)));
+                    return new AgendaDayDTO(key.date, appointments, version);
+                }
+            );
+    }
+
+    /**
+     * Removes an appointment from the day it is in, unless it is {@code key}, and adds the {@code entry} to the day
+     * {@code key} if there is one. Without {@code entry}, as the day wasn't in memory, the day is evicted in case it was
+     * loaded meanwhile, possibly before the commit.
+     */
+    private void move(Long id, DayKey key, AgendaAppointmentDTO entry) {
+        Placement previous = dayByAppointment.get(id);
+        if (previous != null && !previous.key.equals(key)) {
+            update(previous.key, day -> without(previous.key, day, id));
+        }
+        if (entry != null) {
+            update(key, day -> with(key, day, entry));
+        } else if (key != null) {
+            days.synchronous().invalidate(key);
+        }
+    }
+
+    /**
+     * Runs the update of the agendas once the current transaction is committed, or right away outside of a transaction,
+     * so an appointment rolled back is never served from memory.
+     */
+    private Mono<Void> afterCommit(Runnable update) {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(
+                manager ->
+                    manager.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCommit() {
+                                return Mono.fromRunnable(update);
+                            }
+                        }
+                    )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .hasElement()
+            .flatMap(registered -> registered ? Mono.empty() : Mono.fromRunnable(update));
+    }
+
+    private void update(DayKey key, UnaryOperator<AgendaDayDTO> change) {
+        // the change is chained to the load of the day if it is still in progress
+        days.asMap().computeIfPresent(key, (k, day) -> day.thenApply(change));
+    }
+
+    private AgendaDayDTO with(DayKey key, AgendaDayDTO day, AgendaAppointmentDTO entry) {
+        List<AgendaAppointmentDTO> appointments = new ArrayList<>(day.getAppointments().size() + 1);
+        day.getAppointments().stream().filter(appointment -> !appointment.getId().equals(entry.getId())).forEach(appointments::add);
+        appointments.add(entry);
+        appointments.sort(BY_DATE);
+        long version = versions.incrementAndGet();
+        dayByAppointment.put(entry.getId(), new Placement(key, version));
+        return new AgendaDayDTO(day.getDate(), appointments, version);
+    }
+
+    private AgendaDayDTO without(DayKey key, AgendaDayDTO day, Long id) {
+        unplace(id, key, Long.MAX_VALUE);
+        if (day.getAppointments().stream().noneMatch(appointment -> appointment.getId().equals(id))) {
+            return day;
+        }
+        List<AgendaAppointmentDTO> appointments = day
+            .getAppointments()
+            .stream()
+            .filter(appointment -> !appointment.getId().equals(id))
+            .collect(Collectors.toList());
+        return new AgendaDayDTO(day.getDate(), appointments, versions.incrementAndGet());
+    }
+
+    /**
+     * Forgets the day of an appointment if it is still placed in the day {@code key}, as of {@code version} or before:
+     * a day loaded again after the evicted one has a higher version.
+     */
+    private void unplace(Long id, DayKey key, long version) {
+        dayByAppointment.computeIfPresent(
+            id,
+            (i, placement) -> placement.key.equals(key) && placement.version <= version ? null : placement
+        );
+    }
+
+    private Mono<String> getManagerName(DayKey key, Long managerId) {
+        if (managerId == null) {
+            return Mono.empty();
+        }
+        // the name of a manager already in the day, usually the one of the appointment itself, is reused rather than read again
+        AgendaDayDTO day = days.synchronous().getIfPresent(key);
+        String known = Stream
+            .ofNullable(day)
+            .flatMap(loaded -> loaded.getAppointments().stream())
+            .filter(appointment -> managerId.equals(appointment.getManagerId()))
+            .map(AgendaAppointmentDTO::getManagerName)
+            .filter(Objects::nonNull)
+            .findAny()
+            .orElse(null);
+        return known != null ? Mono.just(known) : managerRepository.findById(managerId).map(AdviserAgendaService::getManagerName);
+    }
+
+    /**
+     * The name of a manager: the name of its user, or its login, or else its registration number.
+     */
+    private static String getManagerName(Manager manager) {
+        if (manager == null || manager.getId() == null) {
+            return null;
+        }
+        User user = manager.getUser();
+        if (user != null) {
+            String name = Stream
+                .of(user.getFirstName(), user.getLastName())
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.joining(" "));
+            if (!name.isEmpty()) {
+                return name;
+            }
+            if (user.getLogin() != null) {
+                return user.getLogin();
+            }
+        }
+        return manager.getRegistrationNumber();
+    }
+
+    private double estimateSize() {
+        long size = 0;
+        for (AgendaDayDTO day : days.synchronous().asMap().values()) {
+            size += DAY_BYTES;
+            for (AgendaAppointmentDTO appointment : day.getAppointments()) {
+                size += APPOINTMENT_BYTES + (appointment.getManagerName() != null ? appointment.getManagerName().length() : 0);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The day of an appointment, and the version of the day when it was placed in it.
+     */
+    private static final class Placement {
+
+        private final DayKey key;
+        private final long version;
+
+        private Placement(DayKey key, long version) {
+            this.key = key;
+            this.version = version;
+        }
+    }
+
+    private static final class DayKey {
+
+        private final Long adviserId;
+        private final LocalDate date;
+
+        private DayKey(Long adviserId, LocalDate date) {
+            this.adviserId = adviserId;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DayKey)) {
+                return false;
+            }
+            DayKey that = (DayKey) o;
+            return adviserId.equals(that.adviserId) && date.equals(that.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(adviserId, date);
+        }
+    }
+}
@@ -33,12 +33,22 @@ public interface AdviserService {
      */
     Flux<Adviser> findAll(Pageable pageable);
 
+    /**
+     * Get the page of advisers following the given cursor.
+     *
+     * @param cursor the position of the last adviser already read.
+     * @param pageSize the maximum number of entities to return.
+     * @return the list of entities.
+     */
+    Flux<Adviser> findAll(KeysetCursor cursor, int pageSize);
+
     /**
      * Returns the number of advisers available.
+     * @param exact {@code true} to count the advisers in the database, instead of using the cached or estimated count.
      * @return the number of entities in the database.
      *
      */
-    Mono<Long> countAll();
+    Mono<Long> countAll(boolean exact);
 
     /**
      * Get the "id" adviser.
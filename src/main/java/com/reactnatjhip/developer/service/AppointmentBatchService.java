@@ -0,0 +1,323 @@
+package com.reactnatjhip.developer.service;
+
+import com.reactnatjhip.developer.domain.Appointment;
+import com.reactnatjhip.developer.repository.AppointmentRepository;
+import com.reactnatjhip.developer.service.dto.BatchItemResultDTO;
+import com.reactnatjhip.developer.service.dto.BatchItemResultDTO.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+/**
+ * Service creating, updating and deleting appointments in batches.
+ * <p>
+ * The items are processed in chunks of {@value #CHUNK_SIZE}: each chunk is written with a single batched statement in
+ * its own transaction, so a large import costs a few round trips instead of one request per appointment. The slots are
+ * booked through the {@link AppointmentBookingService} before the chunk is written, and an item which can't be
+ * processed is reported in the results without failing the rest of its chunk.
+ * <p>
+ * The {@code appointment.batch} timer records the duration of each chunk, and the {@code appointment.batch.items}
+ * counter the number of processed items, from which the throughput is derived.
+ */
+@Service
+public class AppointmentBatchService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private static final String ENTITY_NAME = "appointment";
+
+    private final Logger log = LoggerFactory.getLogger(AppointmentBatchService.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentBookingService appointmentBookingService;
+    private final EntityManager entityManager;
+    private final TransactionalOperator transactionalOperator;
+    private final MeterRegistry meterRegistry;
+
+    public AppointmentBatchService(
+        AppointmentRepository appointmentRepository,
+        AppointmentBookingService appointmentBookingService,
+        EntityManager entityManager,
+        TransactionalOperator transactionalOperator,
+        MeterRegistry meterRegistry
+    ) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentBookingService = appointmentBookingService;
+        this.entityManager = entityManager;
+        this.transactionalOperator = transactionalOperator;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates the given appointments.
+     * @param appointments the appointments to create, without id.
+     * @return the result of each appointment, in the given order.
+     */
+    public Flux<BatchItemResultDTO> createAll(Flux<Appointment> appointments) {
+        return process(appointments, "create", this::createChunk);
+    }
+
+    /**
+     * Partially updates the given appointments, ignoring their null fields.
+     * @param appointments the fields to update, with the id of their appointment.
+     * @return the result of each appointment, in the given order.
+     */
+    public Flux<BatchItemResultDTO> partialUpdateAll(Flux<Appointment> appointments) {
+        return process(appointments, "partial-update", this::partialUpdateChunk);
+    }
+
+    /**
+     * Deletes the appointments with the given ids.
+     * @param ids the ids of the appointments to delete.
+     * @return the result of each id, in the given order.
+     */
+    public Flux<BatchItemResultDTO> deleteAll(Flux<Long> ids) {
+        return process(ids, "delete", this::deleteChunk);
+    }
+
+    private <T> Flux<BatchItemResultDTO> process(
+        Flux<T> items,
+        String operation,
+        Function<List<Tuple2<Long, T>>, Mono<List<BatchItemResultDTO>>> chunkProcessor
+    ) {
+        Timer timer = Timer.builder(ENTITY_NAME + ".batch").tag("operation", operation).register(meterRegistry);
+        return items
+            .index()
+            .buffer(CHUNK_SIZE)
+            .concatMap(
+                chunk -> {
+                    long start = System.nanoTime();
+                    return chunkProcessor
+                        .apply(chunk)
+                        .doOnNext(
+                            results -> {
+                                long elapsed = System.nanoTime() - start;
+                                timer.record(elapsed, TimeUnit.NANOSECONDS);
+                                results.forEach(result -> itemCounter(operation, result.getStatus()).increment());
+                                log.debug("Processed {} appointments to {} in {} ms", results.size(), operation, elapsed / 1_000_000);
+                            }
+                        );
+                }
+            )
+            .flatMapIterable(results -> results);
+    }
+
+    private Counter itemCounter(String operation, Status status) {
+        return Counter
+            .builder(ENTITY_NAME + ".batch.items")
+            .tag("operation", operation)
+            .tag("status", status.name().toLowerCase())
+            .register(meterRegistry);
+    }
+
+    private Mono<List<BatchItemResultDTO>> createChunk(List<Tuple2<Long, Appointment>> chunk) {
+        List<BatchItemResultDTO> results = new ArrayList<>(chunk.size());
+        return Flux
+            .fromIterable(chunk)
+            .concatMap(
+                item -> {
+                    if (item.getT2().getId() != null) {
+                        results.add(BatchItemResultDTO.failed(item.getT1(), item.getT2().getId(), "idexists"));
+                        return Mono.empty();
+                    }
+                    return reserve(item.getT1(), item.getT2(), null, results);
+                }
+            )
+            .collectList()
+            .flatMap(booked -> write(booked, Status.CREATED, entityManager::insertAll, results));
+    }
+
+    private Mono<List<BatchItemResultDTO>> partialUpdateChunk(List<Tuple2<Long, Appointment>> chunk) {
+        List<BatchItemResultDTO> results = new ArrayList<>(chunk.size());
+        List<Long> ids = chunk.stream().map(item -> item.getT2().getId()).filter(id -> id != null).collect(Collectors.toList());
+        return findAllById(ids)
+            .flatMapMany(
+                existingById ->
+                    Flux
+                        .fromIterable(chunk)
+                        .concatMap(
+                            item -> {
+                                Appointment patch = item.getT2();
+                                if (patch.getId() == null) {
+                                    results.add(BatchItemResultDTO.failed(item.getT1(), null, "idnull"));
+                                    return Mono.empty();
+                                }
+                                Appointment existing = existingById.get(patch.getId());
+                                if (existing == null) {
+                                    results.add(BatchItemResultDTO.failed(item.getT1(), patch.getId(), "idnotfound"));
+                                    return Mono.empty();
+                                }
+                                Appointment previous = copySlot(existing);
+                                existing.merge(patch);
+                                return reserve(item.getT1(), existing, previous, results);
+                            }
+                        )
+            )
+            .collectList()
+            .flatMap(booked -> write(booked, Status.UPDATED, entityManager::updateAll, results));
+    }
+
+    private Mono<List<BatchItemResultDTO>> deleteChunk(List<Tuple2<Long, Long>> chunk) {
+        List<BatchItemResultDTO> results = new ArrayList<>(chunk.size());
+        List<Long> ids = chunk.stream().map(Tuple2::getT2).filter(id -> id != null).collect(Collectors.toList());
+        return findAllById(ids)
+            .flatMap(
+                existingById ->
+                    transactionalOperator
+                        .transactional(entityManager.deleteAllById(Appointment.class, existingById.keySet()))
+                        .thenMany(Flux.fromIterable(existingById.values()))
+                        .concatMap(appointmentBookingService::release)
+                        .then(
+                            Mono.fromCallable(
+                                () -> {
+                                    for (Tuple2<Long, Long> item : chunk) {
+                                        if (item.getT2() == null) {
+                                            results.add(BatchItemResultDTO.failed(item.getT1(), null, "idnull"));
+                                        } else if (existingById.containsKey(item.getT2())) {
+                                            results.add(BatchItemResultDTO.succeeded(item.getT1(), item.getT2(), Status.DELETED));
+                                        } else {
+                                            results.add(BatchItemResultDTO.failed(item.getT1(), item.getT2(), "idnotfound"));
+                                        }
+                                    }
+                                    return results;
+                                }
+                            )
+                        )
+            )
+            .onErrorResume(
+                e -> {
+                    log.warn("Failed to delete a chunk of {} appointments", chunk.size(), e);
+                    results.clear();
+                    chunk.forEach(item -> results.add(BatchItemResultDTO.failed(item.getT1(), item.getT2(), errorKey(e))));
+                    return Mono.just(results);
+                }
+            );
+    }
+
+    private Mono<Map<Long, Appointment>> findAllById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return appointmentRepository.findAllBy(null, Criteria.where("id").in(ids)).collectMap(Appointment::getId);
+    }
+
+    private Mono<Booking> reserve(long index, Appointment appointment, Appointment previous, List<BatchItemResultDTO> results) {
+        return appointmentBookingService
+            .reserve(appointment, previous)
+            .map(bookingId -> new Booking(index, appointment, previous, bookingId))
+            .onErrorResume(
+                SlotAlreadyBookedException.class,
+                e -> {
+                    results.add(BatchItemResultDTO.failed(index, appointment.getId(), "slotbooked"));
+                    return Mono.empty();
+                }
+            );
+    }
+
+    /**
+     * Writes the booked appointments of a chunk in one transaction, then confirms their slots, or cancels them if the
+     * chunk couldn't be written.
+     */
+    private Mono<List<BatchItemResultDTO>> write(
+        List<Booking> booked,
+        Status status,
+        Function<List<Appointment>, Flux<?>> writer,
+        List<BatchItemResultDTO> results
+    ) {
+        if (booked.isEmpty()) {
+            return Mono.just(sortByIndex(results));
+        }
+        List<Appointment> appointments = booked.stream().map(booking -> booking.appointment).collect(Collectors.toList());
+        return transactionalOperator
+            .transactional(writer.apply(appointments).then())
+            .thenMany(Flux.fromIterable(booked))
+            .concatMap(booking -> appointmentBookingService.confirm(booking.appointment, booking.bookingId))
+            .then(
+                Mono.fromCallable(
+                    () -> {
+                        booked.forEach(
+                            booking -> results.add(BatchItemResultDTO.succeeded(booking.index, booking.appointment.getId(), status))
+                        );
+                        return sortByIndex(results);
+                    }
+                )
+            )
+            .onErrorResume(
+                e -> {
+                    log.warn("Failed to write a chunk of {} appointments", booked.size(), e);
+                    String errorKey = errorKey(e);
+                    return Flux
+                        .fromIterable(booked)
+                        .concatMap(booking -> appointmentBookingService.cancel(booking.appointment, booking.bookingId, booking.previous))
+                        .then(
+                            Mono.fromCallable(
+                                () -> {
+                                    booked.forEach(
+                                        booking ->
+                                            results.add(
+                                                BatchItemResultDTO.failed(
+                                                    booking.index,
+                                                    booking.previous != null ? booking.previous.getId() : null,
+                                                    errorKey
+                                                )
+                                            )
+                                    );
+                                    return sortByIndex(results);
+                                }
+                            )
+                        );
+                }
+            );
+    }
+
+    private static String errorKey(Throwable e) {
+        return AppointmentBookingService.translateSlotConstraintViolation(e) instanceof SlotAlreadyBookedException
+            ? "slotbooked"
+            : "internalServerError";
+    }
+
+    private static List<BatchItemResultDTO> sortByIndex(List<BatchItemResultDTO> results) {
+        results.sort(Comparator.comparingLong(BatchItemResultDTO::getIndex));
+        return results;
+    }
+
+    private static Appointment copySlot(Appointment appointment) {
+        Appointment copy = new Appointment().id(appointment.getId()).date(appointment.getDate());
+        copy.setAdviserId(appointment.getAdviserId());
+        copy.setManagerId(appointment.getManagerId());
+        return copy;
+    }
+
+    /**
+     * An appointment of the chunk whose slot is reserved.
+     */
+    private static final class Booking {
+
+        private final long index;
+        private final Appointment appointment;
+        private final Appointment previous;
+        private final long bookingId;
+
+        private Booking(long index, Appointment appointment, Appointment previous, long bookingId) {
+            this.index = index;
+            this.appointment = appointment;
+            this.previous = previous;
+            this.bookingId = bookingId;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.reactnatjhip.developer.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import com.reactnatjhip.developer.domain.Appointment;
+import com.reactnatjhip.developer.repository.AppointmentRepository;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service booking the appointment slots, so an adviser or a manager never has two overlapping appointments.
+ * <p>
+ * An appointment takes the slot of {@code application.booking.slot-duration} starting at its date. The booked slots
+ * are kept in memory, in one sorted index per adviser and per manager loaded from the database on first use, so the
+ * conflict checks and the free slot lookups are a logarithmic search instead of a scan of the appointments. The
+ * indexes only keep the slots which are over since less than a slot, as those overlap the slots not over yet: the slots
+ * booked once they are over are checked against the database.
+ * At most {@code application.booking.max-indexes} indexes are kept, each of them until it is unused for
+ * {@code application.booking.time-to-live}.
+ * <p>
+ * The indexes don't see the appointments changed outside of this instance: a conflict found in memory is confirmed
+ * against the database before it is reported, and the exclusion constraints of the appointment table reject the
+ * overlaps the indexes missed.
+ */
+@Service
+public class AppointmentBookingService {
+
+    private static final String SLOT_CONSTRAINT_PREFIX = "slot_appointment__";
+
+    private final Logger log = LoggerFactory.getLogger(AppointmentBookingService.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final long slotDuration;
+    private final AsyncCache<Long, SlotIndex> adviserSlots;
+    private final AsyncCache<Long, SlotIndex> managerSlots;
+    private final AtomicLong pendingBookings = new AtomicLong();
+
+    public AppointmentBookingService(AppointmentRepository appointmentRepository, ApplicationProperties applicationProperties) {
+        this.appointmentRepository = appointmentRepository;
+        ApplicationProperties.Booking properties = applicationProperties.getBooking();
+        this.slotDuration = properties.getSlotDuration().toMillis();
+        this.adviserSlots = newIndexes(properties);
+        this.managerSlots = newIndexes(properties);
+    }
+
+    private static AsyncCache<Long, SlotIndex> newIndexes(ApplicationProperties.Booking properties) {
+        return Caffeine.newBuilder().maximumSize(properties.getMaxIndexes()).expireAfterAccess(properties.getTimeToLive()).buildAsync();
+    }
+
+    /**
+     * Saves an appointment, once its slot is booked for its adviser and its manager.
+     * @param appointment the appointment to save.
+     * @return the saved appointment, or a {@link SlotAlreadyBookedException} error if the slot is already booked.
+     */
+    public Mono<Appointment> save(Appointment appointment) {
+        Mono<Optional<Appointment>> previous = appointment.getId() != null
+            ? appointmentRepository.findById(appointment.getId()).map(Optional::of).defaultIfEmpty(Optional.empty())
+            : Mono.just(Optional.empty());
+        return previous
+            .flatMap(
+                existing ->
+                    reserve(appointment, existing.orElse(null))
+                        .flatMap(
+                            bookingId ->
+                                appointmentRepository
+                                    .save(appointment)
+                                    .flatMap(saved -> confirm(saved, bookingId).thenReturn(saved))
+                                    .onErrorResume(e -> cancel(appointment, bookingId, existing.orElse(null)).then(Mono.error(e)))
+                        )
+            )
+            .onErrorMap(AppointmentBookingService::translateSlotConstraintViolation);
+    }
+
+    /**
+     * Books the slot of an appointment about to be saved, and frees the slot it had before.
+     * @param appointment the appointment about to be saved.
+     * @param previous the appointment as currently saved, or {@code null} if it is new.
+     * @return the id the slot is booked under, to {@link #confirm} once the appointment is saved or to {@link #cancel}
+     * if it couldn't be, or a {@link SlotAlreadyBookedException} error if the slot is already booked.
+     */
+    public Mono<Long> reserve(Appointment appointment, Appointment previous) {
+        // a new appointment books its slot under a temporary negative id, until its id is known
+        long bookingId = appointment.getId() != null ? appointment.getId() : -pendingBookings.incrementAndGet();
+        Mono<Void> release = previous != null ? onIndexes(previous, index -> index.remove(bookingId)) : Mono.empty();
+        return release
+            .then(Mono.defer(() -> book(appointment, bookingId)))
+            .onErrorResume(e -> cancel(appointment, bookingId, previous).then(Mono.error(e)))
+            .thenReturn(bookingId);
+    }
+
+    /**
+     * Confirms the slot reserved by {@link #reserve} once the appointment is saved.
+     * @param saved the saved appointment.
+     * @param bookingId the id returned by {@link #reserve}.
+     * @return a {@link Mono} completing once the slot is booked under the id of the appointment.
+     */
+    public Mono<Void> confirm(Appointment saved, long bookingId) {
+        return onIndexes(saved, index -> index.rename(bookingId, saved.getId()));
+    }
+
+    /**
+     * Cancels the slot reserved by {@link #reserve} when the appointment couldn't be saved, and books its previous slot again.
+     * @param appointment the appointment which couldn't be saved.
+     * @param bookingId the id returned by {@link #reserve}.
+     * @param previous the appointment as currently saved, or {@code null} if it is new.
+     * @return a {@link Mono} completing once the slots are restored.
+     */
+    public Mono<Void> cancel(Appointment appointment, long bookingId, Appointment previous) {
+        return onIndexes(appointment, index -> index.remove(bookingId))
+            .then(previous != null ? onIndexes(previous, index -> index.put(previous)) : Mono.empty());
+    }
+
+    /**
+     * Deletes an appointment, and frees its slot.
+     * @param id the id of the appointment to delete.
+     * @return a {@link Mono} completing once the appointment is deleted.
+     */
+    public Mono<Void> delete(Long id) {
+        return appointmentRepository.findById(id).flatMap(existing -> appointmentRepository.deleteById(id).then(release(existing)));
+    }
+
+    /**
+     * Frees the slot of a deleted appointment.
+     * @param deleted the deleted appointment.
+     * @return a {@link Mono} completing once the slot is freed.
+     */
+    public Mono<Void> release(Appointment deleted) {
+        return onIndexes(deleted, index -> index.remove(deleted.getId()));
+    }
+
+    /**
+     * Finds the first slot free for both the given adviser and manager.
+     * @param adviserId the id of the adviser, or {@code null} to ignore the appointments of the advisers.
+     * @param managerId the id of the manager, or {@code null} to ignore the appointments of the managers.
+     * @param from the earliest start of the slot, now if it is in the past.
+     * @return the start of the first free slot.
+     */
+    public Mono<Instant> findNextFreeSlot(Long adviserId, Long managerId, Instant from) {
+        return Flux
+            .concat(adviserSlots(adviserId), managerSlots(managerId))
+            .collectList()
+            .map(
+                indexes -> {
+                    long now = System.currentTimeMillis();
+                    long start;
+                    long next = Math.max(from.toEpochMilli(), now);
+                    indexes.forEach(index -> index.forget(horizon(now)));
+                    do {
+                        start = next;
+                        for (SlotIndex index : indexes) {
+                            next = Math.max(next, index.endOfOverlaps(next, slotDuration));
+                        }
+                    } while (next != start);
+                    return Instant.ofEpochMilli(start);
+                }
+            );
+    }
+
+    /**
+     * Reports the violations of the slot exclusion constraints as a {@link SlotAlreadyBookedException}.
+     */
+    static Throwable translateSlotConstraintViolation(Throwable e) {
+        if (e instanceof DataIntegrityViolationException && e.getMessage() != null && e.getMessage().contains(SLOT_CONSTRAINT_PREFIX)) {
+            return new SlotAlreadyBookedException();
+        }
+        return e;
+    }
+
+    private Mono<Void> book(Appointment appointment, long bookingId) {
+        if (appointment.getDate() == null) {
+            return Mono.empty();
+        }
+        long now = System.currentTimeMillis();
+        long start = appointment.getDate().toEpochMilli();
+        if (start <= now - slotDuration) {
+            return checkInDatabase(appointment, bookingId, start);
+        }
+        return indexes(appointment).concatMap(index -> book(index, bookingId, start, now, new HashSet<>())).then();
+    }
+
+    /**
+     * Checks a slot which is over, and which the indexes don't keep, against the appointments of the database. It
+     * isn't reserved until the appointment is saved: the concurrent bookings of a same slot are only rejected by
+     * the exclusion constraints.
+     */
+    private Mono<Void> checkInDatabase(Appointment appointment, long bookingId, long start) {
+        Instant after = Instant.ofEpochMilli(start - slotDuration);
+        Instant before = Instant.ofEpochMilli(start + slotDuration);
+        return Flux
+            .concat(
+                appointment.getAdviserId() != null
+                    ? appointmentRepository.findByAdviserBetween(appointment.getAdviserId(), after, before)
+                    : Flux.empty(),
+                appointment.getManagerId() != null
+                    ? appointmentRepository.findByManagerBetween(appointment.getManagerId(), after, before)
+                    : Flux.empty()
+            )
+            .filter(other -> other.getId() != bookingId)
+            .next()
+            .flatMap(
+                conflict -> {
+                    log.debug("Slot at {} already booked by appointment {}", Instant.ofEpochMilli(start), conflict.getId());
+                    return Mono.error(new SlotAlreadyBookedException());
+                }
+            );
+    }
+
+    private Mono<Void> book(SlotIndex index, long bookingId, long start, long now, Set<Long> confirmed) {
+        index.forget(horizon(now));
+        Long conflictId = index.tryBook(bookingId, start, slotDuration);
+        if (conflictId == null) {
+            return Mono.empty();
+        }
+        if (conflictId < 0 || !confirmed.add(conflictId)) {
+            log.debug("Slot at {} already booked by appointment {}", Instant.ofEpochMilli(start), conflictId);
+            return Mono.error(new SlotAlreadyBookedException());
+        }
+        // the index may be stale, reload the conflicting appointment before reporting it
+        index.remove(conflictId);
+        return appointmentRepository
+            .findById(conflictId)
+            .filter(index::owns)
+            .doOnNext(index::put)
+            .then(Mono.defer(() -> book(index, bookingId, start, now, confirmed)));
+    }
+
+    private Mono<Void> onIndexes(Appointment appointment, Consumer<SlotIndex> action) {
+        return indexes(appointment).doOnNext(action).then();
+    }
+
+    private Flux<SlotIndex> indexes(Appointment appointment) {
+        return Flux.concat(adviserSlots(appointment.getAdviserId()), managerSlots(appointment.getManagerId()));
+    }
+
+    private Mono<SlotIndex> adviserSlots(Long adviserId) {
+        return slots(adviserSlots, adviserId, Appointment::getAdviserId, appointmentRepository::findByAdviserAfter);
+    }
+
+    private Mono<SlotIndex> managerSlots(Long managerId) {
+        return slots(managerSlots, managerId, Appointment::getManagerId, appointmentRepository::findByManagerAfter);
+    }
+
+    private Mono<SlotIndex> slots(
+        AsyncCache<Long, SlotIndex> indexes,
+        Long ownerId,
+        Function<Appointment, Long> owner,
+        BiFunction<Long, Instant, Flux<Appointment>> finder
+    ) {
+        if (ownerId == null) {
+            return Mono.empty();
+        }
+        // an index failing to load isn't kept, so it is loaded again on next use
+        return Mono.defer(
+            () -> Mono.fromFuture(indexes.get(ownerId, (id, executor) -> load(id, owner, finder).toFuture()).thenApply(Function.identity()))
+        );
+    }
+
+    /**
+     * @return the latest start of the slots the indexes no longer keep: those can't overlap a slot which isn't over.
+     */
+    private long horizon(long now) {
+        return now - 2 * slotDuration;
+    }
+
+    private Mono<SlotIndex> load(Long ownerId, Function<Appointment, Long> owner, BiFunction<Long, Instant, Flux<Appointment>> finder) {
+        long horizon = horizon(System.currentTimeMillis());
+        return finder
+            .apply(ownerId, Instant.ofEpochMilli(horizon))
+            .collectList()
+            .map(appointments -> new SlotIndex(ownerId, owner, horizon, appointments));
+    }
+
+    /**
+     * The slots booked by one adviser or one manager, sorted by start, from the first one after its horizon.
+     */
+    private static final class SlotIndex {
+
+        private final Long ownerId;
+        private final Function<Appointment, Long> owner;
+        private final NavigableSet<Slot> slots = new TreeSet<>();
+        private final Map<Long, Slot> slotsById = new HashMap<>();
+        // the slots starting at or before it aren't kept
+        private long horizon;
+
+        private SlotIndex(Long ownerId, Function<Appointment, Long> owner, long horizon, List<Appointment> appointments) {
+            this.ownerId = ownerId;
+            this.owner = owner;
+            this.horizon = horizon;
+            appointments.stream().filter(this::owns).forEach(this::put);
+        }
+
+        /**
+         * Drops the slots which are no longer needed.
+         * @param horizon the latest start of the slots to drop.
+         */
+        synchronized void forget(long horizon) {
+            this.horizon = Math.max(this.horizon, horizon);
+            while (!slots.isEmpty() && slots.first().start <= this.horizon) {
+                slotsById.remove(slots.pollFirst().id);
+            }
+        }
+
+        /**
+         * Books the slot if no other slot overlaps it.
+         * @return {@code null} if the slot was booked, or the id of an overlapping slot.
+         */
+        synchronized Long tryBook(long id, long start, long duration) {
+            for (Slot slot : overlapping(start, duration)) {
+                if (slot.id != id) {
+                    return slot.id;
+                }
+            }
+            put(id, start);
+            return null;
+        }
+
+        /**
+         * @return the end of the last slot overlapping the given one, or its start if no slot overlaps it.
+         */
+        synchronized long endOfOverlaps(long start, long duration) {
+            long end = start;
+            for (Slot slot : overlapping(start, duration)) {
+                end = Math.max(end, slot.start + duration);
+            }
+            return end;
+        }
+
+        boolean owns(Appointment appointment) {
+            return appointment.getDate() != null && ownerId.equals(owner.apply(appointment));
+        }
+
+        void put(Appointment appointment) {
+            if (owns(appointment)) {
+                put(appointment.getId(), appointment.getDate().toEpochMilli());
+            }
+        }
+
+        synchronized void put(long id, long start) {
+            remove(id);
+            if (start <= horizon) {
+                return;
+            }
+            Slot slot = new Slot(start, id);
+            slots.add(slot);
+            slotsById.put(id, slot);
+        }
+
+        synchronized void remove(long id) {
+            Slot slot = slotsById.remove(id);
+            if (slot != null) {
+                slots.remove(slot);
+            }
+        }
+
+        synchronized void rename(long id, long newId) {
+            Slot slot = slotsById.get(id);
+            if (slot != null && id != newId) {
+                remove(id);
+                put(newId, slot.start);
+            }
+        }
+
+        private NavigableSet<Slot> overlapping(long start, long duration) {
+            return slots.subSet(new Slot(start - duration + 1, Long.MIN_VALUE), true, new Slot(start + duration, Long.MIN_VALUE), false);
+        }
+    }
+
+    private static final class Slot implements Comparable<Slot> {
+
+        private final long start;
+        private final long id;
+
+        private Slot(long start, long id) {
+            this.start = start;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byStart = Long.compare(start, other.start);
+            return byStart != 0 ? byStart : Long.compare(id, other.id);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.reactnatjhip.developer.service;
 
 import io.r2dbc.spi.Row;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
@@ -16,6 +18,7 @@ public class ColumnConverter {
 
     private final ConversionService conversionService;
     private final R2dbcCustomConversions conversions;
+    private final Map<Class<?>, Map<String, Boolean>> directAccessByTarget = new ConcurrentHashMap<>();
 
     public ColumnConverter(R2dbcCustomConversions conversions, R2dbcConverter r2dbcConverter) {
         this.conversionService = r2dbcConverter.getConversionService();
@@ -48,6 +51,10 @@ public class ColumnConverter {
 
     /**
      * Convert a value from the {@link Row} to a type - throws an exception, it it's impossible.
+     * <p>
+     * Whether the driver reads the column directly as the target type is remembered per column and target type, so
+     * the columns it can't read, like the {@link java.time.Instant} stored as timestamps, are converted without first
+     * failing on every row.
      * @param row which contains the column values.
      * @param target class.
      * @param columnName the name of the column which to convert.
@@ -55,10 +62,21 @@ public class ColumnConverter {
      * @return the value which can be constructed from the input.
      */
     public <T> T fromRow(Row row, String columnName, Class<T> target) {
+        Map<String, Boolean> directAccess = directAccessByTarget.computeIfAbsent(target, key -> new ConcurrentHashMap<>());
+        Boolean direct = directAccess.get(columnName);
+        if (Boolean.FALSE.equals(direct)) {
+            return convert(row.get(columnName), target);
+        }
         try {
             // try, directly the driver
-            return row.get(columnName, target);
+            T value = row.get(columnName, target);
+            // a null value doesn't tell whether the driver can read the type
+            if (direct == null && value != null) {
+                directAccess.put(columnName, Boolean.TRUE);
+            }
+            return value;
         } catch (Exception e) {
+            directAccess.put(columnName, Boolean.FALSE);
             Object obj = row.get(columnName);
             return convert(obj, target);
         }
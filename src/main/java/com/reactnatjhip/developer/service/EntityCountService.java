@@ -0,0 +1,154 @@
+package com.reactnatjhip.developer.service;
+
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service keeping the number of rows of the entity tables, so the paged listings don't need a {@code SELECT COUNT(*)}
+ * for every page.
+ * <p>
+ * A count is loaded on first use, kept up to date with the inserts and deletes done through the {@link EntityManager}
+ * once their transaction is committed, and reloaded once it is older than {@code application.count.max-staleness},
+ * which bounds the drift caused by rows changed outside of this instance. On PostgreSQL, the tables estimated above
+ * {@code application.count.estimate-threshold} rows are counted with the planner estimate instead of a full scan.
+ */
+@Service
+public class EntityCountService {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final Logger log = LoggerFactory.getLogger(EntityCountService.class);
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final ApplicationProperties.Count properties;
+    private final Map<Class<?>, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public EntityCountService(R2dbcEntityTemplate r2dbcEntityTemplate, ApplicationProperties applicationProperties) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.properties = applicationProperties.getCount();
+    }
+
+    /**
+     * Returns the number of rows of the given entity type.
+     * @param entityType the entity type which holds the table name.
+     * @param exact {@code true} to count the rows in the database, instead of using the cached count or the estimate.
+     * @return the number of rows.
+     */
+    public Mono<Long> count(Class<?> entityType, boolean exact) {
+        if (!exact) {
+            CachedCount cached = counts.get(entityType);
+            if (cached != null && System.nanoTime() - cached.loadedAt < properties.getMaxStaleness().toNanos()) {
+                return Mono.just(cached.value);
+            }
+        }
+        Mono<Long> count = exact ? countExactly(entityType) : countApproximately(entityType);
+        return count.doOnNext(value -> counts.put(entityType, new CachedCount(value, System.nanoTime())));
+    }
+
+    /**
+     * Records that rows of the given entity type were inserted, once the current transaction is committed.
+     * @param entityType the entity type which holds the table name.
+     * @param rows the number of inserted rows.
+     * @return a {@link Mono} completing once the insert is recorded, or registered to be.
+     */
+    public Mono<Void> recordInserts(Class<?> entityType, long rows) {
+        return afterCommit(() -> counts.computeIfPresent(entityType, (type, cached) -> cached.plus(rows)));
+    }
+
+    /**
+     * Records that rows of the given entity type were deleted, once the current transaction is committed.
+     * @param entityType the entity type which holds the table name.
+     * @param rows the number of deleted rows.
+     * @return a {@link Mono} completing once the delete is recorded, or registered to be.
+     */
+    public Mono<Void> recordDeletes(Class<?> entityType, long rows) {
+        return afterCommit(() -> counts.computeIfPresent(entityType, (type, cached) -> cached.plus(-rows)));
+    }
+
+    /**
+     * Forgets the count of the given entity type, so it is loaded again on the next use; again once the current
+     * transaction is committed, as it may have been loaded meanwhile.
+     * @param entityType the entity type which holds the table name.
+     * @return a {@link Mono} completing once the count is forgotten.
+     */
+    public Mono<Void> evict(Class<?> entityType) {
+        counts.remove(entityType);
+        return afterCommit(() -> counts.remove(entityType));
+    }
+
+    /**
+     * Runs the update of the counts once the current transaction is committed, or right away outside of a transaction,
+     * so the rows of a rolled back transaction are never counted.
+     */
+    private Mono<Void> afterCommit(Runnable update) {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(
+                manager ->
+                    manager.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCommit() {
+                                return Mono.fromRunnable(update);
+                            }
+                        }
+                    )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .hasElement()
+            .flatMap(registered -> registered ? Mono.empty() : Mono.fromRunnable(update));
+    }
+
+    private Mono<Long> countExactly(Class<?> entityType) {
+        return r2dbcEntityTemplate.count(Query.empty(), entityType);
+    }
+
+    private Mono<Long> countApproximately(Class<?> entityType) {
+        DatabaseClient db = r2dbcEntityTemplate.getDatabaseClient();
+        if (!POSTGRESQL.equals(db.getConnectionFactory().getMetadata().getName())) {
+            return countExactly(entityType);
+        }
+        String tableName = r2dbcEntityTemplate
+            .getConverter()
+            .getMappingContext()
+            .getRequiredPersistentEntity(entityType)
+            .getTableName()
+            .getReference();
+        // reltuples is negative as long as the table was never analyzed
+        return db
+            .sql("SELECT reltuples::bigint AS estimate FROM pg_class WHERE oid = to_regclass(:table)")
+            .bind("table", tableName)
+            .map(row -> row.get("estimate", Long.class))
+            .one()
+            .filter(estimate -> estimate >= properties.getEstimateThreshold())
+            .doOnNext(estimate -> log.debug("Using the estimated count of {} : {}", tableName, estimate))
+            .switchIfEmpty(Mono.defer(() -> countExactly(entityType)));
+    }
+
+    private static final class CachedCount {
+
+        private final long value;
+        private final long loadedAt;
+
+        private CachedCount(long value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+
+        private CachedCount plus(long rows) {
+            return new CachedCount(Math.max(0, value + rows), loadedAt);
+        }
+    }
+}
@@ -1,37 +1,58 @@
 package com.reactnatjhip.developer.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
+import org.reactivestreams.Publisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.StatementMapper;
 import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.query.BoundCondition;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.query.Update;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.OrderByField;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectWhere;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.Parameter;
+import org.springframework.r2dbc.core.PreparedOperation;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindMarkersFactory;
+import org.springframework.r2dbc.core.binding.BindTarget;
+import org.springframework.r2dbc.core.binding.Bindings;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
- * Helper class to create SQL selects based on the entity, paging parameters and criteria.
+ * Helper class to create SQL selects based on the entity, paging parameters and criteria, and to write entities in batches.
  *
  */
 @Service
@@ -39,6 +60,14 @@ public class EntityManager {
 
     public static final String ENTITY_ALIAS = "e";
     public static final String ALIAS_PREFIX = "e_";
+    public static final String KEYSET_VALUE = "keysetValue";
+    public static final String KEYSET_ID = "keysetId";
+    public static final String PAGE_LIMIT = "pageLimit";
+    public static final String PAGE_OFFSET = "pageOffset";
+
+    private static final String CRITERIA_PREFIX = "p";
+    private static final String PAGE_LIMIT_OFFSET = " LIMIT :" + PAGE_LIMIT + " OFFSET :" + PAGE_OFFSET;
+    private static final int MAX_CACHED_SELECTS = 512;
 
     public static class LinkTable {
 
@@ -56,94 +85,449 @@ public class EntityManager {
         }
     }
 
+    /**
+     * Criteria on one of the tables joined by the select fragment of a query, such as the table of a relation.
+     */
+    public static class JoinCriteria {
+
+        final Table table;
+        final Class<?> entityType;
+        final Criteria criteria;
+
+        public JoinCriteria(Table table, Class<?> entityType, Criteria criteria) {
+            Assert.notNull(table, "table is null");
+            Assert.notNull(entityType, "entityType is null");
+            Assert.notNull(criteria, "criteria is null");
+            this.table = table;
+            this.entityType = entityType;
+            this.criteria = criteria;
+        }
+    }
+
     private final SqlRenderer sqlRenderer;
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final EntityCountService entityCountService;
+    // the sort and the criteria come from the clients, so only the most recently used statements are kept
+    private final Cache<String, String> selectCache = Caffeine.newBuilder().maximumSize(MAX_CACHED_SELECTS).build();
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        EntityCountService entityCountService
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.entityCountService = entityCountService;
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
+     * Creates an SQL query from the given fragment, pagination parameters and criteria, with the values of the page and
+     * of the criteria bound as parameters.
+     * <p>
+     * The statement only depends on the entity type, the shape of the criteria and the sort, so it is rendered once
+     * per combination and reused afterwards, which also lets the database reuse its plan.
+     * @param selectFrom supplies a representation of a select statement, only called when the statement isn't cached yet;
+     *                   it must always return the same fragment for the given entity type.
      * @param entityType the entity type which holds the table name.
      * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
+     * @param criteria filter of the rows, or null, if every row needs to be returned
+     * @return sql query with the bound parameters
      */
-    public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
+    public DatabaseClient.GenericExecuteSpec createQuery(
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        Pageable pageable,
+        Criteria criteria
+    ) {
+        return createQuery(selectFrom, "", entityType, pageable, criteria);
+    }
+
+    /**
+     * Like {@link #createQuery(Supplier, Class, Pageable, Criteria)}, for an entity type read with several fragments.
+     * @param selectFrom supplies a representation of a select statement, only called when the statement isn't cached yet;
+     *                   it must always return the same fragment for the given entity type and variant.
+     * @param variant the name of the fragment, distinguishing the statements cached for the entity type.
+     * @param entityType the entity type which holds the table name.
+     * @param pageable page parameter, or null, if everything needs to be returned
+     * @param criteria filter of the rows, or null, if every row needs to be returned
+     * @return sql query with the bound parameters
+     */
+    public DatabaseClient.GenericExecuteSpec createQuery(
+        Supplier<? extends SelectWhere> selectFrom,
+        String variant,
+        Class<?> entityType,
+        Pageable pageable,
+        Criteria criteria
+    ) {
+        return createQuery(selectFrom, variant, entityType, pageable, criteria, List.of());
+    }
+
+    /**
+     * Like {@link #createQuery(Supplier, String, Class, Pageable, Criteria)}, also filtering the rows on the tables
+     * joined by the fragment.
+     * @param selectFrom supplies a representation of a select statement, only called when the statement isn't cached yet;
+     *                   it must always return the same fragment for the given entity type and variant.
+     * @param variant the name of the fragment, distinguishing the statements cached for the entity type.
+     * @param entityType the entity type which holds the table name.
+     * @param pageable page parameter, or null, if everything needs to be returned
+     * @param criteria filter of the rows on the entity table, or null
+     * @param joinCriteria filters of the rows on the joined tables.
+     * @return sql query with the bound parameters
+     */
+    public DatabaseClient.GenericExecuteSpec createQuery(
+        Supplier<? extends SelectWhere> selectFrom,
+        String variant,
+        Class<?> entityType,
+        Pageable pageable,
+        Criteria criteria,
+        List<JoinCriteria> joinCriteria
+    ) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        BoundCondition condition = createCondition(entity, criteria, joinCriteria);
+        Sort sort = pageable != null ? pageable.getSort() : Sort.unsorted();
+        String key = String.join(
+            "|",
+            entityType.getName(),
+            variant,
+            condition != null ? condition.getCondition().toString() : "",
+            sort.toString(),
+            String.valueOf(pageable != null)
+        );
+        String select = getCachedSelect(
+            key,
+            () -> {
+                SelectOrdered selectOrdered = condition != null ? selectFrom.get().where(condition.getCondition()) : selectFrom.get();
+                return createSelectImpl(selectOrdered, entity, sort) + (pageable != null ? PAGE_LIMIT_OFFSET : "");
+            }
+        );
+
+        DatabaseClient.GenericExecuteSpec spec = bind(r2dbcEntityTemplate.getDatabaseClient().sql(select), condition);
         if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
+            spec = spec.bind(PAGE_LIMIT, pageable.getPageSize()).bind(PAGE_OFFSET, pageable.getOffset());
+        }
+        return spec;
+    }
+
+    /**
+     * Counts the rows of a query created from the given fragment and criteria, as
+     * {@link #createQuery(Supplier, String, Class, Pageable, Criteria, List)} would return them without paging.
+     * @param selectFrom supplies a representation of a select statement, only called when the statement isn't cached yet.
+     * @param variant the name of the fragment, distinguishing the statements cached for the entity type.
+     * @param entityType the entity type which holds the table name.
+     * @param criteria filter of the rows on the entity table, or null
+     * @param joinCriteria filters of the rows on the joined tables.
+     * @return the number of rows.
+     */
+    public Mono<Long> count(
+        Supplier<? extends SelectWhere> selectFrom,
+        String variant,
+        Class<?> entityType,
+        Criteria criteria,
+        List<JoinCriteria> joinCriteria
+    ) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        BoundCondition condition = createCondition(entity, criteria, joinCriteria);
+        String key = String.join("|", entityType.getName(), variant, "count", condition != null ? condition.getCondition().toString() : "");
+        String select = getCachedSelect(
+            key,
+            () -> {
+                SelectOrdered selectOrdered = condition != null ? selectFrom.get().where(condition.getCondition()) : selectFrom.get();
+                return "SELECT COUNT(*) FROM (" + createSelect(selectOrdered.build()) + ") c";
             }
-        } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
+        );
+        return bind(r2dbcEntityTemplate.getDatabaseClient().sql(select), condition).map((row, metadata) -> row.get(0, Long.class)).one();
+    }
+
+    /**
+     * Maps the criteria on the entity table and on the joined tables to a single condition, numbering the bind markers
+     * across all of them.
+     */
+    private BoundCondition createCondition(RelationalPersistentEntity<?> entity, Criteria criteria, List<JoinCriteria> joinCriteria) {
+        BindMarkers bindMarkers = BindMarkersFactory.named(":", CRITERIA_PREFIX, 32).create();
+        BoundCondition condition = criteria != null && !criteria.isEmpty()
+            ? updateMapper.getMappedObject(bindMarkers, criteria, Table.create(entity.getTableName()).as(ENTITY_ALIAS), entity)
+            : null;
+        for (JoinCriteria join : joinCriteria) {
+            if (join.criteria.isEmpty()) {
+                continue;
             }
+            BoundCondition joined = updateMapper.getMappedObject(
+                bindMarkers,
+                join.criteria,
+                join.table,
+                getRequiredPersistentEntity(join.entityType)
+            );
+            condition =
+                condition == null
+                    ? joined
+                    : new BoundCondition(
+                        Bindings.merge(condition.getBindings(), joined.getBindings()),
+                        condition.getCondition().and(joined.getCondition())
+                    );
         }
+        return condition;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, BoundCondition condition) {
+        if (condition == null) {
+            return spec;
+        }
+        ExecuteSpecBindTarget target = new ExecuteSpecBindTarget(spec);
+        condition.getBindings().apply(target);
+        return target.spec;
+    }
+
+    private String createSelectImpl(SelectOrdered selectFrom, RelationalPersistentEntity<?> entity, Sort sortParameter) {
+        if (sortParameter.isSorted()) {
+            Sort sort = updateMapper.getMappedObject(sortParameter, entity);
+            selectFrom = selectFrom.orderBy(createOrderByFields(Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS), sort));
+        }
+        return createSelect(selectFrom.build());
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
+     * Reads the page following the given cursor. Instead of skipping the previous rows with an offset, the rows are
+     * filtered with a keyset predicate on the sort column and the id, so every page costs the same, however deep it is.
+     * <p>
+     * The rows with a null sort value come last, ordered by their id. They are read by a statement of their own once
+     * the other rows are exhausted, so each statement is a single range of an index on the sort column and the id.
+     * <p>
+     * Like {@link #createQuery(Supplier, Class, Pageable, Criteria)}, the statements are rendered once per sort and cached.
+     * @param selectFrom supplies a representation of a select statement, without ordering and paging; only called when
+     *                   the statement isn't cached yet.
      * @param entityType the entity type which holds the table name.
-     * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
+     * @param cursor the position of the last row already read.
+     * @param pageSize the maximum number of rows to return.
+     * @param mapper maps the rows to the entities.
+     * @param <T> the type of the entities.
+     * @return the entities of the page.
      */
-    public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
+    public <T> Flux<T> findByKeyset(
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        KeysetCursor cursor,
+        int pageSize,
+        BiFunction<Row, RowMetadata, T> mapper
+    ) {
+        return findByKeyset(selectFrom, "", entityType, cursor, pageSize, mapper);
+    }
+
+    /**
+     * Like {@link #findByKeyset(Supplier, Class, KeysetCursor, int, BiFunction)}, for an entity type read with several
+     * fragments.
+     * @param selectFrom supplies a representation of a select statement, without ordering and paging; only called when
+     *                   the statement isn't cached yet.
+     * @param variant the name of the fragment, distinguishing the statements cached for the entity type.
+     * @param entityType the entity type which holds the table name.
+     * @param cursor the position of the last row already read.
+     * @param pageSize the maximum number of rows to return.
+     * @param mapper maps the rows to the entities.
+     * @param <T> the type of the entities.
+     * @return the entities of the page.
+     */
+    public <T> Flux<T> findByKeyset(
+        Supplier<? extends SelectWhere> selectFrom,
+        String variant,
+        Class<?> entityType,
+        KeysetCursor cursor,
+        int pageSize,
+        BiFunction<Row, RowMetadata, T> mapper
+    ) {
+        return findByKeyset(selectFrom, variant, entityType, cursor, pageSize, null, List.of(), mapper);
+    }
+
+    /**
+     * Like {@link #findByKeyset(Supplier, String, Class, KeysetCursor, int, BiFunction)}, also filtering the rows on the
+     * entity table and on the tables joined by the fragment.
+     * @param selectFrom supplies a representation of a select statement, without ordering and paging; only called when
+     *                   the statement isn't cached yet.
+     * @param variant the name of the fragment, distinguishing the statements cached for the entity type.
+     * @param entityType the entity type which holds the table name.
+     * @param cursor the position of the last row already read.
+     * @param pageSize the maximum number of rows to return.
+     * @param criteria filter of the rows on the entity table, or null
+     * @param joinCriteria filters of the rows on the joined tables.
+     * @param mapper maps the rows to the entities.
+     * @param <T> the type of the entities.
+     * @return the entities of the page.
+     */
+    public <T> Flux<T> findByKeyset(
+        Supplier<? extends SelectWhere> selectFrom,
+        String variant,
+        Class<?> entityType,
+        KeysetCursor cursor,
+        int pageSize,
+        Criteria criteria,
+        List<JoinCriteria> joinCriteria,
+        BiFunction<Row, RowMetadata, T> mapper
+    ) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        BoundCondition condition = createCondition(entity, criteria, joinCriteria);
+        RelationalPersistentProperty property = cursor.getProperty() != null ? getKeysetProperty(entity, cursor) : null;
+        KeysetQuery query = new KeysetQuery(selectFrom, variant, entity, condition, property, cursor);
+        if (property == null) {
+            // ordered by id only
+            return query.execute(false, !cursor.isFirst(), pageSize).map(mapper).all();
+        }
+        if (!cursor.isFirst() && cursor.getValue() == null) {
+            // already among the rows with a null sort value
+            return query.execute(true, true, pageSize).map(mapper).all();
+        }
+        AtomicInteger read = new AtomicInteger();
+        return Flux.concat(
+            query.execute(false, !cursor.isFirst(), pageSize).map(mapper).all().doOnNext(row -> read.incrementAndGet()),
+            Flux.defer(() -> read.get() < pageSize ? query.execute(true, false, pageSize - read.get()).map(mapper).all() : Flux.empty())
+        );
+    }
+
+    /**
+     * The statements reading a keyset page: the rows with a sort value, then those without.
+     */
+    private final class KeysetQuery {
+
+        private final Supplier<? extends SelectWhere> selectFrom;
+        private final String variant;
+        private final RelationalPersistentEntity<?> entity;
+        private final BoundCondition condition;
+        private final RelationalPersistentProperty property;
+        private final KeysetCursor cursor;
+
+        private KeysetQuery(
+            Supplier<? extends SelectWhere> selectFrom,
+            String variant,
+            RelationalPersistentEntity<?> entity,
+            BoundCondition condition,
+            RelationalPersistentProperty property,
+            KeysetCursor cursor
+        ) {
+            this.selectFrom = selectFrom;
+            this.variant = variant;
+            this.entity = entity;
+            this.condition = condition;
+            this.property = property;
+            this.cursor = cursor;
+        }
+
+        /**
+         * @param nulls {@code true} to read the rows with a null sort value.
+         * @param seek {@code true} to read the rows after the cursor, {@code false} to read from the first one.
+         * @param limit the maximum number of rows to return.
+         */
+        DatabaseClient.GenericExecuteSpec execute(boolean nulls, boolean seek, int limit) {
+            String key = String.join(
+                "|",
+                entity.getType().getName(),
+                variant,
+                "keyset",
+                condition != null ? condition.getCondition().toString() : "",
+                String.valueOf(cursor.getProperty()),
+                cursor.getDirection().name(),
+                nulls ? "nulls" : "values",
+                seek ? "seek" : "first"
+            );
+            String select = getCachedSelect(
+                key,
+                () ->
+                    createKeysetSelect(
+                        condition != null ? selectFrom.get().where(Conditions.nest(condition.getCondition())) : selectFrom.get(),
+                        condition != null,
+                        entity,
+                        property,
+                        cursor.getDirection(),
+                        nulls,
+                        seek
+                    )
+            );
+
+            DatabaseClient.GenericExecuteSpec spec = bind(r2dbcEntityTemplate.getDatabaseClient().sql(select), condition)
+                .bind(PAGE_LIMIT, limit);
+            if (!seek) {
+                return spec;
+            }
+            spec = spec.bind(KEYSET_ID, cursor.getId());
+            if (property != null && !nulls) {
+                Object value = Instant.class.equals(property.getActualType())
+                    ? Instant.parse(cursor.getValue())
+                    : r2dbcEntityTemplate.getConverter().getConversionService().convert(cursor.getValue(), property.getActualType());
+                spec = spec.bind(KEYSET_VALUE, r2dbcEntityTemplate.getDataAccessStrategy().getBindValue(Parameter.from(value)));
             }
+            return spec;
+        }
+    }
+
+    private String createKeysetSelect(
+        SelectOrdered selectFrom,
+        boolean filtered,
+        RelationalPersistentEntity<?> entity,
+        RelationalPersistentProperty property,
+        Sort.Direction sortDirection,
+        boolean nulls,
+        boolean seek
+    ) {
+        String idColumn = ENTITY_ALIAS + "." + entity.getRequiredIdProperty().getColumnName().getReference();
+        String operator = sortDirection.isAscending() ? " > " : " < ";
+        String direction = sortDirection.isAscending() ? " ASC" : " DESC";
+        // the keyset predicate is added to the condition of the criteria, if any, which is nested for that
+        String where = filtered ? " AND " : " WHERE ";
+
+        StringBuilder select = new StringBuilder(createSelect(selectFrom.build()));
+        if (property == null) {
+            if (seek) {
+                select.append(where).append(idColumn).append(operator).append(":").append(KEYSET_ID);
+            }
+            select.append(" ORDER BY ").append(idColumn).append(direction);
         } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
+            String sortColumn = ENTITY_ALIAS + "." + property.getColumnName().getReference();
+            if (nulls) {
+                select.append(where).append(sortColumn).append(" IS NULL");
+                if (seek) {
+                    select.append(" AND ").append(idColumn).append(operator).append(":").append(KEYSET_ID);
+                }
+                select.append(" ORDER BY ").append(idColumn).append(direction);
             } else {
-                return createSelectImpl(selectFrom, entityType, null);
+                if (seek) {
+                    // a null sort value never compares, so this also skips the rows without one
+                    select
+                        .append(where)
+                        .append("(")
+                        .append(sortColumn)
+                        .append(", ")
+                        .append(idColumn)
+                        .append(")")
+                        .append(operator)
+                        .append("(:")
+                        .append(KEYSET_VALUE)
+                        .append(", :")
+                        .append(KEYSET_ID)
+                        .append(")");
+                } else {
+                    select.append(where).append(sortColumn).append(" IS NOT NULL");
+                }
+                select.append(" ORDER BY ").append(sortColumn).append(direction).append(", ").append(idColumn).append(direction);
             }
         }
+        return select.append(" LIMIT :").append(PAGE_LIMIT).toString();
     }
 
-    private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
-        if (sortParameter != null && sortParameter.isSorted()) {
-            RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
-            if (entity != null) {
-                Sort sort = updateMapper.getMappedObject(sortParameter, entity);
-                selectFrom =
-                    selectFrom.orderBy(createOrderByFields(Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS), sort));
-            }
+    private String getCachedSelect(String key, Supplier<String> renderer) {
+        return selectCache.get(key, k -> renderer.get());
+    }
+
+    private RelationalPersistentProperty getKeysetProperty(RelationalPersistentEntity<?> entity, KeysetCursor cursor) {
+        RelationalPersistentProperty property = entity.getPersistentProperty(cursor.getProperty());
+        if (property == null || property.isEntity()) {
+            throw new IllegalArgumentException("Unknown sort property " + cursor.getProperty() + " for " + entity.getName());
         }
-        return createSelect(selectFrom.build());
+        return property;
     }
 
-    private RelationalPersistentEntity<?> getPersistentEntity(Class<?> entityType) {
-        return r2dbcEntityTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
+    private RelationalPersistentEntity<?> getRequiredPersistentEntity(Class<?> entityType) {
+        return r2dbcEntityTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityType);
     }
 
     /**
@@ -152,7 +536,36 @@ public class EntityManager {
      * @return the number of deleted entity
      */
     public Mono<Integer> deleteAll(Class<?> entityType) {
-        return r2dbcEntityTemplate.delete(entityType).all();
+        return r2dbcEntityTemplate.delete(entityType).all().flatMap(deleted -> entityCountService.evict(entityType).thenReturn(deleted));
+    }
+
+    /**
+     * Delete the entity with the given type and id, and return the number of deletions.
+     * @param entityType the entity type which holds the table name.
+     * @param id the id of the entity to delete.
+     * @return the number of deleted entity
+     */
+    public Mono<Integer> deleteById(Class<?> entityType, Object id) {
+        SqlIdentifier idColumn = getRequiredPersistentEntity(entityType).getRequiredIdProperty().getColumnName();
+        return r2dbcEntityTemplate
+            .delete(Query.query(Criteria.where(idColumn.getReference()).is(id)), entityType)
+            .flatMap(deleted -> entityCountService.recordDeletes(entityType, deleted).thenReturn(deleted));
+    }
+
+    /**
+     * Delete the entities with the given type and ids with one statement, and return the number of deletions.
+     * @param entityType the entity type which holds the table name.
+     * @param ids the ids of the entities to delete.
+     * @return the number of deleted entity
+     */
+    public Mono<Integer> deleteAllById(Class<?> entityType, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0);
+        }
+        SqlIdentifier idColumn = getRequiredPersistentEntity(entityType).getRequiredIdProperty().getColumnName();
+        return r2dbcEntityTemplate
+            .delete(Query.query(Criteria.where(idColumn.getReference()).in(ids)), entityType)
+            .flatMap(deleted -> entityCountService.recordDeletes(entityType, deleted).thenReturn(deleted));
     }
 
     /**
@@ -181,7 +594,109 @@ public class EntityManager {
      * @return the persisted entity.
      */
     public <S> Mono<S> insert(S entity) {
-        return r2dbcEntityTemplate.insert(entity);
+        return r2dbcEntityTemplate
+            .insert(entity)
+            .flatMap(inserted -> entityCountService.recordInserts(inserted.getClass(), 1).thenReturn(inserted));
+    }
+
+    /**
+     * Inserts the given entities into the database with one statement, holding one set of bindings per entity, and sets
+     * their ids.
+     * @param <S> the type of the persisted entities.
+     * @param entities the entities to be inserted into the database, all of the same type and without id.
+     * @return the persisted entities, in the given order.
+     */
+    public <S> Flux<S> insertAll(List<S> entities) {
+        if (entities.isEmpty()) {
+            return Flux.empty();
+        }
+        Class<?> entityType = entities.get(0).getClass();
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        RelationalPersistentProperty idProperty = entity.getRequiredIdProperty();
+        List<PreparedOperation<?>> inserts = new ArrayList<>(entities.size());
+        for (S toInsert : entities) {
+            StatementMapper.InsertSpec insert = statementMapper.createInsert(entity.getTableName());
+            for (Entry<SqlIdentifier, Parameter> column : getOutboundRow(toInsert).entrySet()) {
+                if (!column.getKey().equals(idProperty.getColumnName())) {
+                    insert = insert.withColumn(column.getKey(), column.getValue());
+                }
+            }
+            inserts.add(statementMapper.getMappedObject(insert));
+        }
+        return executeBatch(
+            inserts,
+            statement -> statement.returnGeneratedValues(idProperty.getColumnName().getReference()),
+            result -> result.map((row, metadata) -> row.get(0, idProperty.getActualType()))
+        )
+            .collectList()
+            .flatMapMany(
+                ids -> {
+                    if (ids.size() != entities.size()) {
+                        return Flux.error(new IllegalStateException("Expected " + entities.size() + " generated ids, got " + ids.size()));
+                    }
+                    for (int i = 0; i < ids.size(); i++) {
+                        entity.getPropertyAccessor(entities.get(i)).setProperty(idProperty, ids.get(i));
+                    }
+                    return entityCountService.recordInserts(entityType, entities.size()).thenMany(Flux.fromIterable(entities));
+                }
+            );
+    }
+
+    /**
+     * Updates the given entities in the database with one statement, holding one set of bindings per entity.
+     * @param <S> the type of the persisted entities.
+     * @param entities the entities to be updated in the database, all of the same type and with an id.
+     * @return the number of updated rows of each entity, in the given order.
+     */
+    public <S> Flux<Integer> updateAll(List<S> entities) {
+        if (entities.isEmpty()) {
+            return Flux.empty();
+        }
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entities.get(0).getClass());
+        SqlIdentifier idColumn = entity.getRequiredIdProperty().getColumnName();
+        List<PreparedOperation<?>> updates = new ArrayList<>(entities.size());
+        for (S toUpdate : entities) {
+            OutboundRow row = getOutboundRow(toUpdate);
+            Parameter id = row.remove(idColumn);
+            Assert.isTrue(id != null && id.hasValue(), "id is null");
+            StatementMapper.UpdateSpec update = statementMapper
+                .createUpdate(entity.getTableName(), Update.from(new LinkedHashMap<SqlIdentifier, Object>(row)))
+                .withCriteria(Criteria.where(idColumn.getReference()).is(id.getValue()));
+            updates.add(statementMapper.getMappedObject(update));
+        }
+        return executeBatch(updates, statement -> statement, Result::getRowsUpdated);
+    }
+
+    private OutboundRow getOutboundRow(Object entity) {
+        return r2dbcEntityTemplate.getDataAccessStrategy().getOutboundRow(entity);
+    }
+
+    /**
+     * Executes the given operations, which must all render the same SQL, as a single statement with one set of bindings
+     * per operation, so the database receives them in one round trip.
+     */
+    private <T> Flux<T> executeBatch(
+        List<PreparedOperation<?>> operations,
+        Function<Statement, Statement> customizer,
+        Function<Result, Publisher<T>> resultMapper
+    ) {
+        String sql = operations.get(0).toQuery();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(
+                connection -> {
+                    Statement statement = customizer.apply(connection.createStatement(sql));
+                    for (int i = 0; i < operations.size(); i++) {
+                        PreparedOperation<?> operation = operations.get(i);
+                        Assert.state(sql.equals(operation.toQuery()), "Batched operations must have the same SQL");
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        operation.bindTo(new StatementBindTarget(statement));
+                    }
+                    return Flux.from(statement.execute()).concatMap(resultMapper);
+                }
+            );
     }
 
     /**
@@ -239,4 +754,68 @@ public class EntityManager {
 
         return fields;
     }
+
+    /**
+     * Applies the bindings of a prepared operation to the current set of bindings of a statement.
+     */
+    private static class StatementBindTarget implements BindTarget {
+
+        private final Statement statement;
+
+        StatementBindTarget(Statement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public void bind(String identifier, Object value) {
+            statement.bind(identifier, value);
+        }
+
+        @Override
+        public void bind(int index, Object value) {
+            statement.bind(index, value);
+        }
+
+        @Override
+        public void bindNull(String identifier, Class<?> type) {
+            statement.bindNull(identifier, type);
+        }
+
+        @Override
+        public void bindNull(int index, Class<?> type) {
+            statement.bindNull(index, type);
+        }
+    }
+
+    /**
+     * Applies the bindings of a mapped criteria to an execute spec.
+     */
+    private static class ExecuteSpecBindTarget implements BindTarget {
+
+        private DatabaseClient.GenericExecuteSpec spec;
+
+        ExecuteSpecBindTarget(DatabaseClient.GenericExecuteSpec spec) {
+            this.spec = spec;
+        }
+
+        @Override
+        public void bind(String identifier, Object value) {
+            spec = spec.bind(identifier, value);
+        }
+
+        @Override
+        public void bind(int index, Object value) {
+            spec = spec.bind(index, value);
+        }
+
+        @Override
+        public void bindNull(String identifier, Class<?> type) {
+            spec = spec.bindNull(identifier, type);
+        }
+
+        @Override
+        public void bindNull(int index, Class<?> type) {
+            spec = spec.bindNull(index, type);
+        }
+    }
 }
@@ -0,0 +1,154 @@
+package com.reactnatjhip.developer.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+
+/**
+ * Position in a keyset ("seek") paginated listing: the sort property and direction, and the sort value and id of the
+ * last row returned so far.
+ * <p>
+ * Cursors are handed to the clients as opaque, url-safe tokens. As the token carries the order it was created for, the
+ * following pages are always read in the same order, whatever sort parameter the client sends along.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL_VALUE = "-";
+    private static final String VALUE_PREFIX = "v";
+
+    @Nullable
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    @Nullable
+    private final Long id;
+
+    @Nullable
+    private final String value;
+
+    private KeysetCursor(@Nullable String property, Sort.Direction direction, @Nullable Long id, @Nullable String value) {
+        this.property = property;
+        this.direction = direction;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * Creates the cursor pointing before the first row of a listing in the given order.
+     * @param sort the requested order, at most one property besides the id is supported.
+     * @return the cursor of the first page.
+     * @throws IllegalArgumentException if the sort contains more than one property.
+     */
+    public static KeysetCursor first(Sort sort) {
+        Iterator<Sort.Order> orders = sort.stream().filter(order -> !"id".equals(order.getProperty())).iterator();
+        if (!orders.hasNext()) {
+            Sort.Order idOrder = sort.getOrderFor("id");
+            return new KeysetCursor(null, idOrder != null ? idOrder.getDirection() : Sort.Direction.ASC, null, null);
+        }
+        Sort.Order order = orders.next();
+        if (orders.hasNext()) {
+            throw new IllegalArgumentException("Keyset pagination supports a single sort property");
+        }
+        return new KeysetCursor(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    /**
+     * Decodes a token previously created by {@link #encode()}.
+     * @param token the opaque token sent by the client.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static KeysetCursor decode(String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = decoded.split("\\" + SEPARATOR, 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid keyset cursor");
+        }
+        Sort.Direction direction = Sort.Direction.fromString(parts[0]);
+        String property = parts[1].isEmpty() ? null : parts[1];
+        Long id = Long.valueOf(parts[2]);
+        String value = parts[3].startsWith(VALUE_PREFIX) ? parts[3].substring(VALUE_PREFIX.length()) : null;
+        if (value == null && !NULL_VALUE.equals(parts[3])) {
+            throw new IllegalArgumentException("Invalid keyset cursor");
+        }
+        return new KeysetCursor(property, direction, id, value);
+    }
+
+    /**
+     * Encodes this cursor into an opaque, url-safe token.
+     * @return the token to send to the client.
+     */
+    public String encode() {
+        String decoded = String.join(
+            SEPARATOR,
+            direction.name(),
+            property != null ? property : "",
+            String.valueOf(id),
+            value != null ? VALUE_PREFIX + value : NULL_VALUE
+        );
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates the cursor pointing after the given row, in the same order as this cursor.
+     * @param lastRow the last entity of the current page.
+     * @return the cursor of the next page.
+     */
+    public KeysetCursor next(Object lastRow) {
+        BeanWrapper row = PropertyAccessorFactory.forBeanPropertyAccess(lastRow);
+        Object lastValue = property != null ? row.getPropertyValue(property) : null;
+        return new KeysetCursor(property, direction, (Long) row.getPropertyValue("id"), lastValue != null ? lastValue.toString() : null);
+    }
+
+    /**
+     * @return {@code true} if this cursor points before the first row.
+     */
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    /**
+     * @return the sort property, or {@code null} if the rows are only ordered by id.
+     */
+    @Nullable
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return the id of the last row, or {@code null} for the first page.
+     */
+    @Nullable
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the string representation of the sort value of the last row, or {@code null} if it was null.
+     */
+    @Nullable
+    public String getValue() {
+        return value;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "property='" + property + "'" +
+            ", direction=" + direction +
+            ", id=" + id +
+            ", value='" + value + "'" +
+            "}";
+    }
+}
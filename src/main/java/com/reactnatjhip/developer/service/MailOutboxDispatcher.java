@@ -0,0 +1,241 @@
+package com.reactnatjhip.developer.service;
+
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import com.reactnatjhip.developer.domain.MailOutbox;
+import com.reactnatjhip.developer.domain.enumeration.MailStatus;
+import com.reactnatjhip.developer.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service sending the emails of the outbox.
+ * <p>
+ * The outbox is polled every {@code application.mail-outbox.poll-interval}, and drained in batches of
+ * {@code batch-size} emails, each batch being sent over a single connection to the mail server. An email which can't
+ * be sent is retried with an exponential backoff, and left in the outbox with the {@link MailStatus#DEAD} status after
+ * {@code max-attempts}. The emails are sent at least once: one of them may be sent again if the application stops
+ * between sending a batch and recording it.
+ * <p>
+ * Each batch is claimed before it is sent, in a transaction of its own, so the instances of the application don't send
+ * the same emails. A claim expires after {@code lease-duration}, after which the emails of an instance which stopped
+ * are claimed again. The sent and dead emails are deleted once older than {@code retention}, every night.
+ * <p>
+ * The {@code mail.outbox.sent}, {@code mail.outbox.failed} and {@code mail.outbox.dead} counters record the outcome of
+ * the attempts, from which the send rate is derived, the {@code mail.outbox.batch} timer the duration of the batches,
+ * and the {@code mail.outbox.pending} and {@code mail.outbox.lag} gauges the number of pending emails and the age of the
+ * oldest one, as of the last poll.
+ */
+@Service
+public class MailOutboxDispatcher implements DisposableBean {
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private final MailOutboxRepository mailOutboxRepository;
+
+    private final MailService mailService;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationProperties.MailOutbox properties;
+
+    private final Counter sent;
+
+    private final Counter failed;
+
+    private final Counter dead;
+
+    private final Timer batchTimer;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    private Disposable polling;
+
+    public MailOutboxDispatcher(
+        MailOutboxRepository mailOutboxRepository,
+        MailService mailService,
+        TransactionalOperator transactionalOperator,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailService = mailService;
+        this.transactionalOperator = transactionalOperator;
+        this.properties = applicationProperties.getMailOutbox();
+        this.sent = Counter.builder("mail.outbox.sent").description("Emails sent").register(meterRegistry);
+        this.failed =
+            Counter.builder("mail.outbox.failed").description("Email sending attempts which failed, to be retried").register(meterRegistry);
+        this.dead = Counter.builder("mail.outbox.dead").description("Emails given up after their last attempt").register(meterRegistry);
+        this.batchTimer = Timer.builder("mail.outbox.batch").description("Duration of the batches of emails").register(meterRegistry);
+        Gauge.builder("mail.outbox.pending", pending, AtomicLong::get).description("Emails waiting in the outbox").register(meterRegistry);
+        Gauge
+            .builder("mail.outbox.lag", lagSeconds, AtomicLong::get)
+            .description("Age of the oldest email waiting in the outbox")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.debug("The mail outbox dispatcher is disabled");
+            return;
+        }
+        polling =
+            Flux
+                .interval(properties.getPollInterval())
+                .onBackpressureDrop()
+                .concatMap(
+                    tick ->
+                        drain()
+                            .onErrorResume(
+                                e -> {
+                                    log.warn("Could not drain the mail outbox", e);
+                                    return Mono.empty();
+                                }
+                            )
+                )
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (polling != null) {
+            polling.dispose();
+        }
+    }
+
+    /**
+     * Sends the emails of the outbox which are due, batch by batch.
+     *
+     * @return the number of emails sent or failed.
+     */
+    public Mono<Integer> drain() {
+        return dispatchBatch()
+            .expand(count -> count < properties.getBatchSize() ? Mono.empty() : dispatchBatch())
+            .reduce(0, Integer::sum)
+            .flatMap(count -> updateGauges().thenReturn(count));
+    }
+
+    /**
+     * Deletes the sent and dead emails older than the retention, every night at 02:00 (am), in the background.
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void removeFinishedEmails() {
+        if (!purging.compareAndSet(false, true)) {
+            log.warn("Skipping the purge of the mail outbox, the previous one is still running");
+            return;
+        }
+        purge()
+            .doOnTerminate(() -> purging.set(false))
+            .doOnCancel(() -> purging.set(false))
+            .subscribe(null, e -> log.error("Could not purge the mail outbox", e));
+    }
+
+    /**
+     * Deletes the sent and dead emails older than {@code application.mail-outbox.retention}.
+     *
+     * @return the number of emails deleted.
+     */
+    public Mono<Integer> purge() {
+        return Mono
+            .defer(() -> mailOutboxRepository.deleteFinishedBefore(Instant.now().minus(properties.getRetention())))
+            .doOnNext(count -> log.debug("Deleted {} sent or dead emails from the outbox", count));
+    }
+
+    private Mono<Integer> dispatchBatch() {
+        return claimBatch()
+            .flatMap(
+                batch -> {
+                    if (batch.isEmpty()) {
+                        return Mono.just(0);
+                    }
+                    long start = System.nanoTime();
+                    return Mono
+                        .fromCallable(() -> mailService.sendAll(batch))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(failures -> record(batch, failures))
+                        .doOnSuccess(ignored -> batchTimer.record(Duration.ofNanos(System.nanoTime() - start)))
+                        .thenReturn(batch.size());
+                }
+            );
+    }
+
+    private Mono<List<MailOutbox>> claimBatch() {
+        String token = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        return transactionalOperator
+            .transactional(mailOutboxRepository.claimDue(token, now, now.plus(properties.getLeaseDuration()), properties.getBatchSize()))
+            .flatMap(
+                claimed -> claimed == 0 ? Mono.just(List.<MailOutbox>of()) : mailOutboxRepository.findAllByClaimToken(token).collectList()
+            );
+    }
+
+    private Mono<Void> record(List<MailOutbox> batch, Map<MailOutbox, Exception> failures) {
+        Instant now = Instant.now();
+        List<Long> sentIds = batch.stream().filter(mail -> !failures.containsKey(mail)).map(MailOutbox::getId).collect(Collectors.toList());
+        sent.increment(sentIds.size());
+        Mono<Integer> markSent = sentIds.isEmpty() ? Mono.just(0) : mailOutboxRepository.markSent(now, sentIds);
+        return markSent
+            .thenMany(Flux.fromIterable(failures.entrySet()))
+            .concatMap(failure -> mailOutboxRepository.save(fail(failure.getKey(), failure.getValue(), now)))
+            .then();
+    }
+
+    private MailOutbox fail(MailOutbox mail, Exception cause, Instant now) {
+        int attempts = mail.getAttempts() + 1;
+        mail.attempts(attempts).lastError(StringUtils.abbreviate(String.valueOf(cause.getMessage()), MAX_ERROR_LENGTH));
+        if (attempts >= properties.getMaxAttempts()) {
+            dead.increment();
+            log.error("Giving up the email {} to '{}' after {} attempts", mail.getId(), mail.getRecipient(), attempts, cause);
+            return mail.status(MailStatus.DEAD).claimToken(null);
+        }
+        failed.increment();
+        log.warn("Email {} to '{}' could not be sent, attempt {}: {}", mail.getId(), mail.getRecipient(), attempts, cause.getMessage());
+        return mail.status(MailStatus.PENDING).claimToken(null).nextAttemptAt(now.plus(backoff(attempts)));
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : backoff;
+    }
+
+    private Mono<Void> updateGauges() {
+        return mailOutboxRepository
+            .countByStatus(MailStatus.PENDING)
+            .doOnNext(pending::set)
+            .then(mailOutboxRepository.findFirstByStatusOrderByCreatedDateAsc(MailStatus.PENDING))
+            .map(oldest -> Duration.between(oldest.getCreatedDate(), Instant.now()).getSeconds())
+            .defaultIfEmpty(0L)
+            .doOnNext(lagSeconds::set)
+            .then();
+    }
+}
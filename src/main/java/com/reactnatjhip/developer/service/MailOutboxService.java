@@ -0,0 +1,63 @@
+package com.reactnatjhip.developer.service;
+
+import com.reactnatjhip.developer.domain.MailOutbox;
+import com.reactnatjhip.developer.domain.User;
+import com.reactnatjhip.developer.domain.enumeration.MailStatus;
+import com.reactnatjhip.developer.repository.MailOutboxRepository;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service writing the emails of the account workflows to the outbox.
+ * <p>
+ * The emails are written in the transaction of the change which triggers them, so an email is sent if and only if the
+ * change is committed; the {@link MailOutboxDispatcher} sends them afterwards.
+ */
+@Service
+public class MailOutboxService {
+
+    private final Logger log = LoggerFactory.getLogger(MailOutboxService.class);
+
+    private final MailService mailService;
+
+    private final MailOutboxRepository mailOutboxRepository;
+
+    public MailOutboxService(MailService mailService, MailOutboxRepository mailOutboxRepository) {
+        this.mailService = mailService;
+        this.mailOutboxRepository = mailOutboxRepository;
+    }
+
+    public Mono<Void> queueActivationEmail(User user) {
+        log.debug("Queueing activation email to '{}'", user.getEmail());
+        return queueEmailFromTemplate(user, MailService.ACTIVATION_TEMPLATE, "email.activation.title");
+    }
+
+    public Mono<Void> queueCreationEmail(User user) {
+        log.debug("Queueing creation email to '{}'", user.getEmail());
+        return queueEmailFromTemplate(user, MailService.CREATION_TEMPLATE, "email.activation.title");
+    }
+
+    public Mono<Void> queuePasswordResetMail(User user) {
+        log.debug("Queueing password reset email to '{}'", user.getEmail());
+        return queueEmailFromTemplate(user, MailService.PASSWORD_RESET_TEMPLATE, "email.reset.title");
+    }
+
+    private Mono<Void> queueEmailFromTemplate(User user, String templateName, String titleKey) {
+        // the templates are read from the classpath when they are first rendered
+        return Mono
+            .fromCallable(() -> mailService.createEmailFromTemplate(user, templateName, titleKey))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(
+                mail -> {
+                    Instant now = Instant.now();
+                    mail.status(MailStatus.PENDING).attempts(0).createdDate(now).nextAttemptAt(now);
+                    return mailOutboxRepository.save(mail);
+                }
+            )
+            .then();
+    }
+}
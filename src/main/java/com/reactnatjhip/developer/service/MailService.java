@@ -1,14 +1,27 @@
 package com.reactnatjhip.developer.service;
 
+import com.reactnatjhip.developer.domain.MailOutbox;
 import com.reactnatjhip.developer.domain.User;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -20,7 +33,13 @@ import tech.jhipster.config.JHipsterProperties;
 /**
  * Service for sending emails.
  * <p>
- * We use the {@link Async} annotation to send emails asynchronously.
+ * We use the {@link Async} annotation to send emails asynchronously. The emails of the account workflows are rather
+ * written to the outbox by the {@link MailOutboxService}, with the changes of their user, and sent in batches by the
+ * {@link MailOutboxDispatcher}.
+ * <p>
+ * The templates of the account emails are precompiled for each locale: they are rendered once with placeholders for the
+ * variables of the user, which are then filled in for each email, see {@link PrecompiledMailTemplate}. The subjects are
+ * cached for each locale as well.
  */
 @Service
 public class MailService {
@@ -31,6 +50,24 @@ public class MailService {
 
     private static final String BASE_URL = "baseUrl";
 
+    static final String ACTIVATION_TEMPLATE = "mail/activationEmail";
+
+    static final String CREATION_TEMPLATE = "mail/creationEmail";
+
+    static final String PASSWORD_RESET_TEMPLATE = "mail/passwordResetEmail";
+
+    private static final List<String> PRECOMPILED_TEMPLATES = List.of(ACTIVATION_TEMPLATE, CREATION_TEMPLATE, PASSWORD_RESET_TEMPLATE);
+
+    // the variables of the user written by the precompiled templates, by their placeholder
+    private static final Map<String, Function<User, String>> USER_VARIABLES = Map.of(
+        "__login__",
+        User::getLogin,
+        "__activationKey__",
+        User::getActivationKey,
+        "__resetKey__",
+        User::getResetKey
+    );
+
     private final JHipsterProperties jHipsterProperties;
 
     private final JavaMailSender javaMailSender;
@@ -39,6 +76,12 @@ public class MailService {
 
     private final SpringTemplateEngine templateEngine;
 
+    private final Map<String, Locale> locales = new ConcurrentHashMap<>();
+
+    private final Map<String, PrecompiledMailTemplate> precompiledTemplates = new ConcurrentHashMap<>();
+
+    private final Map<String, String> subjects = new ConcurrentHashMap<>();
+
     public MailService(
         JHipsterProperties jHipsterProperties,
         JavaMailSender javaMailSender,
@@ -62,51 +105,151 @@ public class MailService {
             content
         );
 
-        // Prepare message using a Spring helper
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
         try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
+            javaMailSender.send(createMimeMessage(to, subject, content, isMultipart, isHtml));
             log.debug("Sent email to User '{}'", to);
         } catch (MailException | MessagingException e) {
             log.warn("Email could not be sent to user '{}'", to, e);
         }
     }
 
+    /**
+     * Sends the emails of the outbox over a single connection to the mail server.
+     *
+     * @param mails the emails to send.
+     * @return the emails which couldn't be sent, with the reason.
+     */
+    public Map<MailOutbox, Exception> sendAll(List<MailOutbox> mails) {
+        Map<MailOutbox, Exception> failures = new IdentityHashMap<>();
+        Map<MimeMessage, MailOutbox> mailsByMessage = new LinkedHashMap<>();
+        for (MailOutbox mail : mails) {
+            try {
+                mailsByMessage.put(
+                    createMimeMessage(mail.getRecipient(), mail.getSubject(), mail.getContent(), false, mail.getHtml()),
+                    mail
+                );
+            } catch (MessagingException e) {
+                failures.put(mail, e);
+            }
+        }
+        if (mailsByMessage.isEmpty()) {
+            return failures;
+        }
+        try {
+            javaMailSender.send(mailsByMessage.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // the other messages have been sent over the same connection
+            e.getFailedMessages().forEach((message, cause) -> failures.put(mailsByMessage.get(message), cause));
+        } catch (MailException e) {
+            mailsByMessage.values().forEach(mail -> failures.put(mail, e));
+        }
+        log.debug("Sent {} emails out of {}", mails.size() - failures.size(), mails.size());
+        return failures;
+    }
+
+    private MimeMessage createMimeMessage(String to, String subject, String content, boolean isMultipart, boolean isHtml)
+        throws MessagingException {
+        // Prepare message using a Spring helper
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
+        message.setTo(to);
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(subject);
+        message.setText(content, isHtml);
+        return mimeMessage;
+    }
+
     @Async
     public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
+        MailOutbox mail = createEmailFromTemplate(user, templateName, titleKey);
+        if (mail != null) {
+            sendEmail(mail.getRecipient(), mail.getSubject(), mail.getContent(), false, mail.getHtml());
+        }
+    }
+
+    /**
+     * Renders an email for the user from a template, to be sent later from the outbox.
+     *
+     * @param user the recipient.
+     * @param templateName the name of the Thymeleaf template.
+     * @param titleKey the message key of the subject.
+     * @return the email, or {@code null} if the user has no email address.
+     */
+    public MailOutbox createEmailFromTemplate(User user, String templateName, String titleKey) {
         if (user.getEmail() == null) {
             log.debug("Email doesn't exist for user '{}'", user.getLogin());
-            return;
+            return null;
+        }
+        Locale locale = locales.computeIfAbsent(user.getLangKey(), Locale::forLanguageTag);
+        String content = null;
+        if (PRECOMPILED_TEMPLATES.contains(templateName)) {
+            content = getPrecompiledTemplate(templateName, locale).render(user);
+        }
+        if (content == null) {
+            content = render(templateName, user, locale);
+        }
+        String subject = subjects.computeIfAbsent(
+            titleKey + '_' + locale.toLanguageTag(),
+            key -> messageSource.getMessage(titleKey, null, locale)
+        );
+        return new MailOutbox().recipient(user.getEmail()).subject(subject).content(content).html(true);
+    }
+
+    /**
+     * Precompiles the account templates for the languages of the application, so the first emails don't pay for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precompileTemplates() {
+        try {
+            Resource[] bundles = new PathMatchingResourcePatternResolver().getResources("classpath*:i18n/messages_*.properties");
+            for (Resource bundle : bundles) {
+                String filename = bundle.getFilename();
+                String langKey = filename.substring("messages_".length(), filename.length() - ".properties".length()).replace('_', '-');
+                Locale locale = locales.computeIfAbsent(langKey, Locale::forLanguageTag);
+                PRECOMPILED_TEMPLATES.forEach(templateName -> getPrecompiledTemplate(templateName, locale));
+            }
+            log.debug("Precompiled {} mail templates", precompiledTemplates.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Mail templates could not be precompiled, they will be on their first use", e);
         }
-        Locale locale = Locale.forLanguageTag(user.getLangKey());
+    }
+
+    private PrecompiledMailTemplate getPrecompiledTemplate(String templateName, Locale locale) {
+        return precompiledTemplates.computeIfAbsent(
+            templateName + '_' + locale.toLanguageTag(),
+            key -> {
+                // the template is rendered with placeholders, which are replaced by the values of each user
+                User placeholders = new User();
+                placeholders.setLogin("__login__");
+                placeholders.setActivationKey("__activationKey__");
+                placeholders.setResetKey("__resetKey__");
+                return PrecompiledMailTemplate.compile(render(templateName, placeholders, locale), USER_VARIABLES);
+            }
+        );
+    }
+
+    private String render(String templateName, User user, Locale locale) {
         Context context = new Context(locale);
         context.setVariable(USER, user);
         context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        return templateEngine.process(templateName, context);
     }
 
     @Async
     public void sendActivationEmail(User user) {
         log.debug("Sending activation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
+        sendEmailFromTemplate(user, ACTIVATION_TEMPLATE, "email.activation.title");
     }
 
     @Async
     public void sendCreationEmail(User user) {
         log.debug("Sending creation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
+        sendEmailFromTemplate(user, CREATION_TEMPLATE, "email.activation.title");
     }
 
     @Async
     public void sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
+        sendEmailFromTemplate(user, PASSWORD_RESET_TEMPLATE, "email.reset.title");
     }
 }
@@ -33,12 +33,22 @@ public interface ManagerService {
      */
     Flux<Manager> findAll(Pageable pageable);
 
+    /**
+     * Get the page of managers following the given cursor.
+     *
+     * @param cursor the position of the last manager already read.
+     * @param pageSize the maximum number of entities to return.
+     * @return the list of entities.
+     */
+    Flux<Manager> findAll(KeysetCursor cursor, int pageSize);
+
     /**
      * Returns the number of managers available.
+     * @param exact {@code true} to count the managers in the database, instead of using the cached or estimated count.
      * @return the number of entities in the database.
      *
      */
-    Mono<Long> countAll();
+    Mono<Long> countAll(boolean exact);
 
     /**
      * Get the "id" manager.
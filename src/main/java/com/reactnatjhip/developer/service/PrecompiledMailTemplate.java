@@ -0,0 +1,84 @@
+package com.reactnatjhip.developer.service;
+
+import com.reactnatjhip.developer.domain.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * A mail template rendered once for a locale, with placeholders instead of the variables of the user: an email is
+ * rendered by concatenating the text between the placeholders with the escaped values of its user.
+ * <p>
+ * This only holds for templates which write the variables of the user as escaped text or attribute values, without
+ * conditions nor iterations on them.
+ */
+final class PrecompiledMailTemplate {
+
+    private final String[] segments;
+
+    private final List<Function<User, String>> variables;
+
+    private final int length;
+
+    private PrecompiledMailTemplate(String[] segments, List<Function<User, String>> variables) {
+        this.segments = segments;
+        this.variables = variables;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.length = length;
+    }
+
+    /**
+     * Splits a template around its placeholders.
+     *
+     * @param rendered the template rendered with placeholders as the values of the user.
+     * @param variablesByPlaceholder the placeholders, with the accessor of the value they stand for.
+     * @return the precompiled template.
+     */
+    static PrecompiledMailTemplate compile(String rendered, Map<String, Function<User, String>> variablesByPlaceholder) {
+        List<String> segments = new ArrayList<>();
+        List<Function<User, String>> variables = new ArrayList<>();
+        int start = 0;
+        while (true) {
+            int next = -1;
+            String placeholder = null;
+            for (String candidate : variablesByPlaceholder.keySet()) {
+                int index = rendered.indexOf(candidate, start);
+                if (index >= 0 && (next < 0 || index < next)) {
+                    next = index;
+                    placeholder = candidate;
+                }
+            }
+            if (placeholder == null) {
+                segments.add(rendered.substring(start));
+                return new PrecompiledMailTemplate(segments.toArray(new String[0]), variables);
+            }
+            segments.add(rendered.substring(start, next));
+            variables.add(variablesByPlaceholder.get(placeholder));
+            start = next + placeholder.length();
+        }
+    }
+
+    /**
+     * Renders the template for a user.
+     *
+     * @param user the user.
+     * @return the content, or {@code null} if a variable of the user is missing, as the template engine may not render
+     * it as an empty text.
+     */
+    String render(User user) {
+        StringBuilder content = new StringBuilder(length + 32 * variables.size());
+        for (int i = 0; i < variables.size(); i++) {
+            String value = variables.get(i).apply(user);
+            if (value == null) {
+                return null;
+            }
+            content.append(segments[i]).append(HtmlUtils.htmlEscape(value));
+        }
+        return content.append(segments[segments.length - 1]).toString();
+    }
+}
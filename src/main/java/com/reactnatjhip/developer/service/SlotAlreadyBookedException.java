@@ -0,0 +1,10 @@
+package com.reactnatjhip.developer.service;
+
+public class SlotAlreadyBookedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SlotAlreadyBookedException() {
+        super("Slot already booked!");
+    }
+}
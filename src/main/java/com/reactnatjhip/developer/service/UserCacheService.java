@@ -0,0 +1,181 @@
+package com.reactnatjhip.developer.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import com.reactnatjhip.developer.domain.Authority;
+import com.reactnatjhip.developer.domain.User;
+import com.reactnatjhip.developer.repository.AuthorityRepository;
+import com.reactnatjhip.developer.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service caching the users with their authorities, by login and by email, and the authorities by name, so the
+ * authentications and the account requests don't join the user and authority tables every time.
+ * <p>
+ * The caches are bounded by {@code application.user-cache.max-entries} and expire after
+ * {@code application.user-cache.time-to-live}. The users are evicted by {@link UserService} whenever it changes them,
+ * once right away and once again when the transaction of the change completes, so a concurrent lookup can't cache the
+ * user as it was before the commit. The hits and misses are exported with the {@code cache.*} metrics, tagged with the
+ * name of the cache.
+ * <p>
+ * The cached users are shared, and must not be modified.
+ */
+@Service
+public class UserCacheService {
+
+    public static final String USERS_BY_LOGIN_CACHE = "usersByLogin";
+
+    public static final String USERS_BY_EMAIL_CACHE = "usersByEmail";
+
+    public static final String AUTHORITIES_CACHE = "authorities";
+
+    private final UserRepository userRepository;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final AsyncCache<String, User> usersByLogin;
+
+    private final AsyncCache<String, User> usersByEmail;
+
+    private final AsyncCache<String, Map<String, Authority>> authorities;
+
+    public UserCacheService(
+        UserRepository userRepository,
+        AuthorityRepository authorityRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.authorityRepository = authorityRepository;
+        ApplicationProperties.UserCache properties = applicationProperties.getUserCache();
+        this.usersByLogin = createCache(USERS_BY_LOGIN_CACHE, properties, meterRegistry);
+        this.usersByEmail = createCache(USERS_BY_EMAIL_CACHE, properties, meterRegistry);
+        this.authorities = createCache(AUTHORITIES_CACHE, properties, meterRegistry);
+    }
+
+    /**
+     * Get the user with the given login, with its authorities.
+     * @param login the lower-cased login of the user.
+     * @return the user, or an empty {@link Mono} if no user has this login.
+     */
+    public Mono<User> getUserWithAuthoritiesByLogin(String login) {
+        return get(usersByLogin, login, userRepository::findOneWithAuthoritiesByLogin);
+    }
+
+    /**
+     * Get the user with the given email, ignoring its case, with its authorities.
+     * @param email the email of the user.
+     * @return the user, or an empty {@link Mono} if no user has this email.
+     */
+    public Mono<User> getUserWithAuthoritiesByEmail(String email) {
+        return get(usersByEmail, email.toLowerCase(Locale.ENGLISH), userRepository::findOneWithAuthoritiesByEmailIgnoreCase);
+    }
+
+    /**
+     * Get the authority with the given name.
+     * @param name the name of the authority.
+     * @return the authority, or an empty {@link Mono} if it doesn't exist.
+     */
+    public Mono<Authority> getAuthority(String name) {
+        return getAuthoritiesByName().flatMap(authoritiesByName -> Mono.justOrEmpty(authoritiesByName.get(name)));
+    }
+
+    /**
+     * Get all the authorities.
+     * @return the authorities.
+     */
+    public Flux<Authority> getAuthorities() {
+        return getAuthoritiesByName().flatMapIterable(Map::values);
+    }
+
+    /**
+     * Evict the user with the given login and email from the caches, right away and again when the current transaction
+     * completes, if any.
+     * @param login the login of the user, or {@code null}.
+     * @param email the email of the user, or {@code null}.
+     * @return a {@link Mono} completing once the user is evicted.
+     */
+    public Mono<Void> evictUser(String login, String email) {
+        return Mono
+            .fromRunnable(() -> invalidateUser(login, email))
+            .then(TransactionSynchronizationManager.forCurrentTransaction())
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(
+                manager ->
+                    manager.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCompletion(int status) {
+                                return Mono.fromRunnable(() -> invalidateUser(login, email));
+                            }
+                        }
+                    )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .then();
+    }
+
+    /**
+     * Evict the user from the caches, right away and again when the current transaction completes, if any.
+     * @param user the user, as cached.
+     * @return a {@link Mono} completing once the user is evicted.
+     */
+    public Mono<Void> evictUser(User user) {
+        return evictUser(user.getLogin(), user.getEmail());
+    }
+
+    /**
+     * Evict all the users and the authorities from the caches.
+     */
+    public void evictAll() {
+        usersByLogin.synchronous().invalidateAll();
+        usersByEmail.synchronous().invalidateAll();
+        authorities.synchronous().invalidateAll();
+    }
+
+    private void invalidateUser(String login, String email) {
+        if (login != null) {
+            usersByLogin.synchronous().invalidate(login);
+        }
+        if (email != null) {
+            usersByEmail.synchronous().invalidate(email.toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    private Mono<Map<String, Authority>> getAuthoritiesByName() {
+        return get(authorities, AUTHORITIES_CACHE, key -> authorityRepository.findAll().collectMap(Authority::getName));
+    }
+
+    private static <V> AsyncCache<String, V> createCache(
+        String name,
+        ApplicationProperties.UserCache properties,
+        MeterRegistry meterRegistry
+    ) {
+        AsyncCache<String, V> cache = Caffeine
+            .newBuilder()
+            .maximumSize(properties.getMaxEntries())
+            .expireAfterWrite(properties.getTimeToLive())
+            .recordStats()
+            .buildAsync();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    private static <V> Mono<V> get(AsyncCache<String, V> cache, String key, Function<String, Mono<V>> loader) {
+        // the concurrent lookups of a key share the same load, and an empty result isn't cached;
+        // the load is exposed through a dependent stage so a cancelled lookup doesn't cancel it for the others
+        return Mono.defer(
+            () -> Mono.fromFuture(cache.get(key, (k, executor) -> loader.apply(k).toFuture()).thenApply(Function.identity()))
+        );
+    }
+}
@@ -0,0 +1,274 @@
+package com.reactnatjhip.developer.service;
+
+import com.reactnatjhip.developer.config.Constants;
+import com.reactnatjhip.developer.domain.Authority;
+import com.reactnatjhip.developer.domain.User;
+import com.reactnatjhip.developer.repository.UserRepository;
+import com.reactnatjhip.developer.security.PasswordHashingScheduler;
+import com.reactnatjhip.developer.security.SecurityUtils;
+import com.reactnatjhip.developer.service.dto.AdminUserDTO;
+import com.reactnatjhip.developer.service.dto.BatchItemResultDTO;
+import com.reactnatjhip.developer.service.dto.BatchItemResultDTO.Status;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.Validator;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Service importing users in bulk.
+ * <p>
+ * The users are imported in chunks of {@value #CHUNK_SIZE}, each in its own transaction: the logins and emails of a
+ * chunk are checked with one query each, the users are written with a single batched insert and their authorities
+ * with multi-row inserts, instead of a few statements per user. Like the users created by an administrator, the
+ * imported users are activated and receive a creation email with a reset link to choose their password.
+ * <p>
+ * Each user is validated like the users created one by one, and an invalid user is reported with the
+ * {@code invalid<field>} error key of its first invalid field, before the valid users of its chunk are written.
+ */
+@Service
+public class UserImportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
+    private final EntityManager entityManager;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingScheduler passwordHashingScheduler;
+    private final MailOutboxService mailOutboxService;
+    private final TransactionalOperator transactionalOperator;
+    private final Validator validator;
+
+    public UserImportService(
+        UserRepository userRepository,
+        UserCacheService userCacheService,
+        EntityManager entityManager,
+        PasswordEncoder passwordEncoder,
+        PasswordHashingScheduler passwordHashingScheduler,
+        MailOutboxService mailOutboxService,
+        TransactionalOperator transactionalOperator,
+        Validator validator
+    ) {
+        this.userRepository = userRepository;
+        this.userCacheService = userCacheService;
+        this.entityManager = entityManager;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.mailOutboxService = mailOutboxService;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+    }
+
+    /**
+     * Creates the given users.
+     * @param users the users to create, without id.
+     * @return the result of each user, in the given order.
+     */
+    public Flux<BatchItemResultDTO> importAll(Flux<AdminUserDTO> users) {
+        return SecurityUtils
+            .getCurrentUserLogin()
+            .defaultIfEmpty(Constants.SYSTEM)
+            .flatMapMany(
+                currentLogin ->
+                    users
+                        .index()
+                        .buffer(CHUNK_SIZE)
+                        .concatMap(chunk -> importChunk(chunk, currentLogin))
+                        .flatMapIterable(results -> results)
+            );
+    }
+
+    private Mono<List<BatchItemResultDTO>> importChunk(List<Tuple2<Long, AdminUserDTO>> chunk, String currentLogin) {
+        long start = System.nanoTime();
+        Set<String> logins = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> authorityNames = new HashSet<>();
+        for (Tuple2<Long, AdminUserDTO> item : chunk) {
+            AdminUserDTO userDTO = item.getT2();
+            if (userDTO.getLogin() != null) {
+                logins.add(userDTO.getLogin().toLowerCase());
+            }
+            if (userDTO.getEmail() != null) {
+                emails.add(userDTO.getEmail().toLowerCase());
+            }
+            if (userDTO.getAuthorities() != null) {
+                authorityNames.addAll(userDTO.getAuthorities());
+            }
+        }
+        Mono<Set<String>> existingLogins = logins.isEmpty()
+            ? Mono.just(Set.of())
+            : userRepository.findAllByLoginIn(logins).map(User::getLogin).collect(Collectors.toSet());
+        Mono<Set<String>> existingEmails = emails.isEmpty()
+            ? Mono.just(Set.of())
+            : userRepository.findAllByEmailIn(emails).map(User::getEmail).collect(Collectors.toSet());
+        Mono<Set<String>> knownAuthorities = Flux
+            .fromIterable(authorityNames)
+            .flatMap(userCacheService::getAuthority)
+            .map(Authority::getName)
+            .collect(Collectors.toSet());
+        // the imported users can't log in before choosing their password, so they share the hash of a random one
+        Mono<String> encryptedPassword = passwordHashingScheduler.schedule(() -> passwordEncoder.encode(RandomUtil.generatePassword()));
+        return Mono
+            .zip(existingLogins, existingEmails, knownAuthorities, encryptedPassword)
+            .flatMap(
+                existing -> {
+                    List<BatchItemResultDTO> results = new ArrayList<>(chunk.size());
+                    Map<Long, User> usersByIndex = new LinkedHashMap<>();
+                    Set<String> usedLogins = new HashSet<>(existing.getT1());
+                    Set<String> usedEmails = new HashSet<>(existing.getT2());
+                    for (Tuple2<Long, AdminUserDTO> item : chunk) {
+                        String errorKey = validate(item.getT2(), usedLogins, usedEmails);
+                        if (errorKey != null) {
+                            results.add(BatchItemResultDTO.failed(item.getT1(), item.getT2().getId(), errorKey));
+                        } else {
+                            usersByIndex.put(item.getT1(), createUser(item.getT2(), existing.getT3(), existing.getT4(), currentLogin));
+                        }
+                    }
+                    return write(usersByIndex, results);
+                }
+            )
+            .doOnNext(
+                results -> log.debug("Imported a chunk of {} users in {} ms", results.size(), (System.nanoTime() - start) / 1_000_000)
+            );
+    }
+
+    /**
+     * Checks that the user is valid, that its login and its email are not used yet, neither in the database nor earlier
+     * in the chunk, and reserves them.
+     */
+    private String validate(AdminUserDTO userDTO, Set<String> usedLogins, Set<String> usedEmails) {
+        if (userDTO.getId() != null) {
+            return "idexists";
+        }
+        if (StringUtils.isBlank(userDTO.getLogin())) {
+            return "loginnull";
+        }
+        String invalidField = validator
+            .validate(userDTO)
+            .stream()
+            .map(violation -> violation.getPropertyPath().toString())
+            .sorted()
+            .findFirst()
+            .orElse(null);
+        if (invalidField != null) {
+            return "invalid" + invalidField.toLowerCase(Locale.ENGLISH);
+        }
+        String login = userDTO.getLogin().toLowerCase();
+        String email = userDTO.getEmail() != null ? userDTO.getEmail().toLowerCase() : null;
+        if (usedLogins.contains(login)) {
+            return "userexists";
+        }
+        if (email != null && usedEmails.contains(email)) {
+            return "emailexists";
+        }
+        usedLogins.add(login);
+        if (email != null) {
+            usedEmails.add(email);
+        }
+        return null;
+    }
+
+    private static User createUser(AdminUserDTO userDTO, Set<String> knownAuthorities, String encryptedPassword, String currentLogin) {
+        User user = new User();
+        user.setLogin(userDTO.getLogin().toLowerCase());
+        user.setFirstName(userDTO.getFirstName());
+        user.setLastName(userDTO.getLastName());
+        if (userDTO.getEmail() != null) {
+            user.setEmail(userDTO.getEmail().toLowerCase());
+        }
+        user.setImageUrl(userDTO.getImageUrl());
+        user.setLangKey(userDTO.getLangKey() != null ? userDTO.getLangKey() : Constants.DEFAULT_LANGUAGE);
+        user.setPassword(encryptedPassword);
+        user.setResetKey(RandomUtil.generateResetKey());
+        user.setResetDate(Instant.now());
+        user.setActivated(true);
+        user.setCreatedBy(currentLogin);
+        user.setLastModifiedBy(currentLogin);
+        if (userDTO.getAuthorities() != null) {
+            userDTO
+                .getAuthorities()
+                .stream()
+                .filter(knownAuthorities::contains)
+                .forEach(
+                    name -> {
+                        Authority authority = new Authority();
+                        authority.setName(name);
+                        user.getAuthorities().add(authority);
+                    }
+                );
+        }
+        return user;
+    }
+
+    /**
+     * Writes the valid users of a chunk in one transaction, then queues their creation emails.
+     */
+    private Mono<List<BatchItemResultDTO>> write(Map<Long, User> usersByIndex, List<BatchItemResultDTO> results) {
+        if (usersByIndex.isEmpty()) {
+            return Mono.just(sortByIndex(results));
+        }
+        List<User> users = new ArrayList<>(usersByIndex.values());
+        return transactionalOperator
+            .transactional(
+                entityManager
+                    .insertAll(users)
+                    .collectList()
+                    .flatMap(
+                        inserted -> {
+                            Map<Long, Set<String>> authoritiesByUserId = new LinkedHashMap<>();
+                            for (User user : inserted) {
+                                authoritiesByUserId.put(
+                                    user.getId(),
+                                    user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet())
+                                );
+                            }
+                            return userRepository.saveUserAuthorities(authoritiesByUserId);
+                        }
+                    )
+                    .thenMany(Flux.fromIterable(users))
+                    .concatMap(mailOutboxService::queueCreationEmail)
+                    .then()
+            )
+            .then(
+                Mono.fromCallable(
+                    () -> {
+                        usersByIndex.forEach(
+                            (index, user) -> results.add(BatchItemResultDTO.succeeded(index, user.getId(), Status.CREATED))
+                        );
+                        return sortByIndex(results);
+                    }
+                )
+            )
+            .onErrorResume(
+                e -> {
+                    log.warn("Failed to import a chunk of {} users", users.size(), e);
+                    usersByIndex.keySet().forEach(index -> results.add(BatchItemResultDTO.failed(index, null, "internalServerError")));
+                    return Mono.just(sortByIndex(results));
+                }
+            );
+    }
+
+    private static List<BatchItemResultDTO> sortByIndex(List<BatchItemResultDTO> results) {
+        results.sort(Comparator.comparingLong(BatchItemResultDTO::getIndex));
+        return results;
+    }
+}
@@ -3,17 +3,23 @@ package com.reactnatjhip.developer.service;
 import com.reactnatjhip.developer.config.Constants;
 import com.reactnatjhip.developer.domain.Authority;
 import com.reactnatjhip.developer.domain.User;
-import com.reactnatjhip.developer.repository.AuthorityRepository;
 import com.reactnatjhip.developer.repository.UserRepository;
 import com.reactnatjhip.developer.security.AuthoritiesConstants;
+import com.reactnatjhip.developer.security.PasswordHashingScheduler;
 import com.reactnatjhip.developer.security.SecurityUtils;
 import com.reactnatjhip.developer.service.dto.AdminUserDTO;
 import com.reactnatjhip.developer.service.dto.UserDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
@@ -21,6 +27,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -32,18 +39,46 @@ import tech.jhipster.security.RandomUtil;
 @Service
 public class UserService {
 
+    static final int PURGE_CHUNK_SIZE = 500;
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthorityRepository authorityRepository;
+    private final UserCacheService userCacheService;
+
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
+    private final MailOutboxService mailOutboxService;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final Counter purgedUsers;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final Timer purgeTimer;
+
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        UserCacheService userCacheService,
+        PasswordHashingScheduler passwordHashingScheduler,
+        MailOutboxService mailOutboxService,
+        TransactionalOperator transactionalOperator,
+        MeterRegistry meterRegistry
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authorityRepository = authorityRepository;
+        this.userCacheService = userCacheService;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.mailOutboxService = mailOutboxService;
+        this.transactionalOperator = transactionalOperator;
+        this.purgedUsers = Counter.builder("users.purge.deleted").description("Not activated users deleted").register(meterRegistry);
+        this.purgeTimer =
+            Timer.builder("users.purge").description("Duration of the purges of the not activated users").register(meterRegistry);
     }
 
     @Transactional
@@ -68,14 +103,16 @@ public class UserService {
         return userRepository
             .findOneByResetKey(key)
             .filter(user -> user.getResetDate().isAfter(Instant.now().minusSeconds(86400)))
-            .publishOn(Schedulers.boundedElastic())
-            .map(
-                user -> {
-                    user.setPassword(passwordEncoder.encode(newPassword));
-                    user.setResetKey(null);
-                    user.setResetDate(null);
-                    return user;
-                }
+            .flatMap(
+                user ->
+                    passwordHashingScheduler.schedule(
+                        () -> {
+                            user.setPassword(passwordEncoder.encode(newPassword));
+                            user.setResetKey(null);
+                            user.setResetDate(null);
+                            return user;
+                        }
+                    )
             )
             .flatMap(this::saveUser);
     }
@@ -93,7 +130,8 @@ public class UserService {
                     return user;
                 }
             )
-            .flatMap(this::saveUser);
+            .flatMap(this::saveUser)
+            .flatMap(user -> mailOutboxService.queuePasswordResetMail(user).thenReturn(user));
     }
 
     @Transactional
@@ -103,7 +141,7 @@ public class UserService {
             .flatMap(
                 existingUser -> {
                     if (!existingUser.isActivated()) {
-                        return userRepository.delete(existingUser);
+                        return userRepository.delete(existingUser).then(userCacheService.evictUser(existingUser));
                     } else {
                         return Mono.error(new UsernameAlreadyUsedException());
                     }
@@ -113,15 +151,14 @@ public class UserService {
             .flatMap(
                 existingUser -> {
                     if (!existingUser.isActivated()) {
-                        return userRepository.delete(existingUser);
+                        return userRepository.delete(existingUser).then(userCacheService.evictUser(existingUser));
                     } else {
                         return Mono.error(new EmailAlreadyUsedException());
                     }
                 }
             )
-            .publishOn(Schedulers.boundedElastic())
             .then(
-                Mono.fromCallable(
+                passwordHashingScheduler.schedule(
                     () -> {
                         User newUser = new User();
                         String encryptedPassword = passwordEncoder.encode(password);
@@ -146,13 +183,14 @@ public class UserService {
             .flatMap(
                 newUser -> {
                     Set<Authority> authorities = new HashSet<>();
-                    return authorityRepository
-                        .findById(AuthoritiesConstants.USER)
+                    return userCacheService
+                        .getAuthority(AuthoritiesConstants.USER)
                         .map(authorities::add)
                         .thenReturn(newUser)
                         .doOnNext(user -> user.setAuthorities(authorities))
                         .flatMap(this::saveUser)
-                        .doOnNext(user -> log.debug("Created Information for User: {}", user));
+                        .doOnNext(user -> log.debug("Created Information for User: {}", user))
+                        .flatMap(user -> mailOutboxService.queueActivationEmail(user).thenReturn(user));
                 }
             );
     }
@@ -174,22 +212,23 @@ public class UserService {
         }
         return Flux
             .fromIterable(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : new HashSet<>())
-            .flatMap(authorityRepository::findById)
+            .flatMap(userCacheService::getAuthority)
             .doOnNext(authority -> user.getAuthorities().add(authority))
-            .then(Mono.just(user))
-            .publishOn(Schedulers.boundedElastic())
-            .map(
-                newUser -> {
-                    String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
-                    newUser.setPassword(encryptedPassword);
-                    newUser.setResetKey(RandomUtil.generateResetKey());
-                    newUser.setResetDate(Instant.now());
-                    newUser.setActivated(true);
-                    return newUser;
-                }
+            .then(
+                passwordHashingScheduler.schedule(
+                    () -> {
+                        String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
+                        user.setPassword(encryptedPassword);
+                        user.setResetKey(RandomUtil.generateResetKey());
+                        user.setResetDate(Instant.now());
+                        user.setActivated(true);
+                        return user;
+                    }
+                )
             )
             .flatMap(this::saveUser)
-            .doOnNext(user1 -> log.debug("Created Information for User: {}", user1));
+            .doOnNext(user1 -> log.debug("Created Information for User: {}", user1))
+            .flatMap(user1 -> mailOutboxService.queueCreationEmail(user1).thenReturn(user1));
     }
 
     /**
@@ -204,6 +243,8 @@ public class UserService {
             .findById(userDTO.getId())
             .flatMap(
                 user -> {
+                    // the login and the email may change, so the user is evicted under its current ones
+                    Mono<Void> evicted = userCacheService.evictUser(user.getLogin(), user.getEmail());
                     user.setLogin(userDTO.getLogin().toLowerCase());
                     user.setFirstName(userDTO.getFirstName());
                     user.setLastName(userDTO.getLastName());
@@ -215,15 +256,14 @@ public class UserService {
                     user.setLangKey(userDTO.getLangKey());
                     Set<Authority> managedAuthorities = user.getAuthorities();
                     managedAuthorities.clear();
-                    return userRepository
-                        .deleteUserAuthorities(user.getId())
+                    return evicted
                         .thenMany(Flux.fromIterable(userDTO.getAuthorities()))
-                        .flatMap(authorityRepository::findById)
+                        .flatMap(userCacheService::getAuthority)
                         .map(managedAuthorities::add)
                         .then(Mono.just(user));
                 }
             )
-            .flatMap(this::saveUser)
+            .flatMap(user -> saveUser(user, true))
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .map(AdminUserDTO::new);
     }
@@ -232,7 +272,7 @@ public class UserService {
     public Mono<Void> deleteUser(String login) {
         return userRepository
             .findOneByLogin(login)
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
+            .flatMap(user -> userRepository.delete(user).then(userCacheService.evictUser(user)).thenReturn(user))
             .doOnNext(user -> log.debug("Deleted User: {}", user))
             .then();
     }
@@ -254,6 +294,7 @@ public class UserService {
             .flatMap(userRepository::findOneByLogin)
             .flatMap(
                 user -> {
+                    Mono<Void> evicted = userCacheService.evictUser(user.getLogin(), user.getEmail());
                     user.setFirstName(firstName);
                     user.setLastName(lastName);
                     if (email != null) {
@@ -261,15 +302,35 @@ public class UserService {
                     }
                     user.setLangKey(langKey);
                     user.setImageUrl(imageUrl);
-                    return saveUser(user);
+                    return evicted.then(saveUser(user));
                 }
             )
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .then();
     }
 
+    /**
+     * Saves the user, and adds the authorities it has to the stored ones.
+     *
+     * @param user the user, whose authorities may not be loaded.
+     * @return the saved user.
+     */
     @Transactional
     public Mono<User> saveUser(User user) {
+        return saveUser(user, false);
+    }
+
+    /**
+     * Saves the user, and writes only the difference between its authorities and the stored ones, with one statement
+     * for the added authorities and one for the removed ones.
+     *
+     * @param user the user.
+     * @param replaceAuthorities {@code true} to also remove the stored authorities the user doesn't have, which requires
+     * its authorities to be loaded.
+     * @return the saved user.
+     */
+    private Mono<User> saveUser(User user, boolean replaceAuthorities) {
+        boolean isNew = user.getId() == null;
         return SecurityUtils
             .getCurrentUserLogin()
             .switchIfEmpty(Mono.just(Constants.SYSTEM))
@@ -283,13 +344,36 @@ public class UserService {
                     // once https://github.com/spring-projects/spring-data-r2dbc/issues/215 is done
                     return userRepository
                         .save(user)
-                        .flatMap(
-                            savedUser ->
-                                Flux
-                                    .fromIterable(user.getAuthorities())
-                                    .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                                    .then(Mono.just(savedUser))
-                        );
+                        .flatMap(savedUser -> syncAuthorities(savedUser, isNew, replaceAuthorities).thenReturn(savedUser))
+                        .flatMap(savedUser -> userCacheService.evictUser(savedUser).thenReturn(savedUser));
+                }
+            );
+    }
+
+    private Mono<Void> syncAuthorities(User user, boolean isNew, boolean replaceAuthorities) {
+        Set<String> authorities = new HashSet<>();
+        user.getAuthorities().forEach(authority -> authorities.add(authority.getName()));
+        if (isNew) {
+            return userRepository.saveUserAuthorities(Map.of(user.getId(), authorities));
+        }
+        if (authorities.isEmpty() && !replaceAuthorities) {
+            return Mono.empty();
+        }
+        return userRepository
+            .findAuthorityNamesByUserId(user.getId())
+            .collect(Collectors.toSet())
+            .flatMap(
+                stored -> {
+                    Set<String> added = new HashSet<>(authorities);
+                    added.removeAll(stored);
+                    Set<String> removed = new HashSet<>();
+                    if (replaceAuthorities) {
+                        removed.addAll(stored);
+                        removed.removeAll(authorities);
+                    }
+                    return userRepository
+                        .deleteUserAuthorities(user.getId(), removed)
+                        .then(userRepository.saveUserAuthorities(Map.of(user.getId(), added)));
                 }
             );
     }
@@ -299,17 +383,19 @@ public class UserService {
         return SecurityUtils
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .publishOn(Schedulers.boundedElastic())
-            .map(
-                user -> {
-                    String currentEncryptedPassword = user.getPassword();
-                    if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
-                        throw new InvalidPasswordException();
-                    }
-                    String encryptedPassword = passwordEncoder.encode(newPassword);
-                    user.setPassword(encryptedPassword);
-                    return user;
-                }
+            .flatMap(
+                user ->
+                    passwordHashingScheduler.schedule(
+                        () -> {
+                            String currentEncryptedPassword = user.getPassword();
+                            if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
+                                throw new InvalidPasswordException();
+                            }
+                            String encryptedPassword = passwordEncoder.encode(newPassword);
+                            user.setPassword(encryptedPassword);
+                            return user;
+                        }
+                    )
             )
             .flatMap(this::saveUser)
             .doOnNext(user -> log.debug("Changed password for User: {}", user))
@@ -333,32 +419,68 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public Mono<User> getUserWithAuthoritiesByLogin(String login) {
-        return userRepository.findOneWithAuthoritiesByLogin(login);
+        return userCacheService.getUserWithAuthoritiesByLogin(login);
     }
 
     @Transactional(readOnly = true)
     public Mono<User> getUserWithAuthorities() {
-        return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneWithAuthoritiesByLogin);
+        return SecurityUtils.getCurrentUserLogin().flatMap(userCacheService::getUserWithAuthoritiesByLogin);
     }
 
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am). The purge runs in the background, so the scheduler thread
+     * is not blocked, and a run is skipped while the previous one is still going on.
      */
     @Scheduled(cron = "0 0 1 * * ?")
     public void removeNotActivatedUsers() {
-        removeNotActivatedUsersReactively().blockLast();
+        if (!purging.compareAndSet(false, true)) {
+            log.warn("Skipping the purge of the not activated users, the previous one is still running");
+            return;
+        }
+        removeNotActivatedUsersReactively()
+            .doOnTerminate(() -> purging.set(false))
+            .doOnCancel(() -> purging.set(false))
+            .subscribe(null, e -> log.error("Could not purge the not activated users", e));
     }
 
-    @Transactional
-    public Flux<User> removeNotActivatedUsersReactively() {
-        return userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(
-                LocalDateTime.ofInstant(Instant.now().minus(3, ChronoUnit.DAYS), ZoneOffset.UTC)
-            )
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
-            .doOnNext(user -> log.debug("Deleted User: {}", user));
+    /**
+     * Deletes the users which were not activated within 3 days, by chunks of {@value #PURGE_CHUNK_SIZE}, each in its own
+     * transaction. An interrupted purge is resumed by the next one, which deletes the users left.
+     * <p>
+     * The {@code users.purge.deleted} counter records the users deleted, and the {@code users.purge} timer the duration
+     * of the purges.
+     *
+     * @return the number of users deleted.
+     */
+    public Mono<Long> removeNotActivatedUsersReactively() {
+        return Mono.defer(
+            () -> {
+                long start = System.nanoTime();
+                LocalDateTime createdBefore = LocalDateTime.ofInstant(Instant.now().minus(3, ChronoUnit.DAYS), ZoneOffset.UTC);
+                return purgeChunk(createdBefore)
+                    .expand(count -> count < PURGE_CHUNK_SIZE ? Mono.empty() : purgeChunk(createdBefore))
+                    .reduce(0L, Long::sum)
+                    .doOnNext(
+                        count -> {
+                            if (count > 0) {
+                                // the deleted users are not known one by one, and the purge is rare enough to clear the cache
+                                userCacheService.evictAll();
+                            }
+                            purgeTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                            log.debug("Deleted {} not activated users", count);
+                        }
+                    );
+            }
+        );
+    }
+
+    private Mono<Long> purgeChunk(LocalDateTime createdBefore) {
+        return transactionalOperator
+            .transactional(userRepository.deleteNotActivatedUsers(createdBefore, PURGE_CHUNK_SIZE))
+            .map(Integer::longValue)
+            .doOnNext(purgedUsers::increment);
     }
 
     /**
@@ -367,6 +489,6 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public Flux<String> getAuthorities() {
-        return authorityRepository.findAll().map(Authority::getName);
+        return userCacheService.getAuthorities().map(Authority::getName);
     }
 }
@@ -0,0 +1,131 @@
+package com.reactnatjhip.developer.service.criteria;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Criteria class for the {@link com.reactnatjhip.developer.domain.Appointment} entity, bound from the query parameters
+ * of the listing. Every criterion which is set must match; the date range includes {@code fromDate} and excludes
+ * {@code toDate}, and the bank is the one of the adviser.
+ */
+public class AppointmentCriteria implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Instant fromDate;
+
+    private Instant toDate;
+
+    private Boolean state;
+
+    private Long adviserId;
+
+    private Long managerId;
+
+    private Long bankId;
+
+    public AppointmentCriteria() {}
+
+    public AppointmentCriteria(AppointmentCriteria other) {
+        this.fromDate = other.fromDate;
+        this.toDate = other.toDate;
+        this.state = other.state;
+        this.adviserId = other.adviserId;
+        this.managerId = other.managerId;
+        this.bankId = other.bankId;
+    }
+
+    public AppointmentCriteria copy() {
+        return new AppointmentCriteria(this);
+    }
+
+    public boolean isEmpty() {
+        return fromDate == null && toDate == null && state == null && adviserId == null && managerId == null && bankId == null;
+    }
+
+    public Instant getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(Instant fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public Instant getToDate() {
+        return toDate;
+    }
+
+    public void setToDate(Instant toDate) {
+        this.toDate = toDate;
+    }
+
+    public Boolean getState() {
+        return state;
+    }
+
+    public void setState(Boolean state) {
+        this.state = state;
+    }
+
+    public Long getAdviserId() {
+        return adviserId;
+    }
+
+    public void setAdviserId(Long adviserId) {
+        this.adviserId = adviserId;
+    }
+
+    public Long getManagerId() {
+        return managerId;
+    }
+
+    public void setManagerId(Long managerId) {
+        this.managerId = managerId;
+    }
+
+    public Long getBankId() {
+        return bankId;
+    }
+
+    public void setBankId(Long bankId) {
+        this.bankId = bankId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final AppointmentCriteria that = (AppointmentCriteria) o;
+        return (
+            Objects.equals(fromDate, that.fromDate) &&
+            Objects.equals(toDate, that.toDate) &&
+            Objects.equals(state, that.state) &&
+            Objects.equals(adviserId, that.adviserId) &&
+            Objects.equals(managerId, that.managerId) &&
+            Objects.equals(bankId, that.bankId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fromDate, toDate, state, adviserId, managerId, bankId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AppointmentCriteria{" +
+            (fromDate != null ? "fromDate=" + fromDate + ", " : "") +
+            (toDate != null ? "toDate=" + toDate + ", " : "") +
+            (state != null ? "state=" + state + ", " : "") +
+            (adviserId != null ? "adviserId=" + adviserId + ", " : "") +
+            (managerId != null ? "managerId=" + managerId + ", " : "") +
+            (bankId != null ? "bankId=" + bankId + ", " : "") +
+            "}";
+    }
+}
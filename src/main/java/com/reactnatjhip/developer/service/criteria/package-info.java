@@ -0,0 +1,4 @@
+/**
+ * Criteria of the filtered listings.
+ */
+package com.reactnatjhip.developer.service.criteria;
@@ -0,0 +1,83 @@
+package com.reactnatjhip.developer.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A DTO representing an appointment in the agenda of an adviser - its id, date and state, and its manager.
+ * <p>
+ * It is kept in memory by the agendas, so it is immutable.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class AgendaAppointmentDTO {
+
+    private final Long id;
+    private final Instant date;
+    private final Boolean state;
+    private final Long managerId;
+    private final String managerName;
+
+    public AgendaAppointmentDTO(Long id, Instant date, Boolean state, Long managerId, String managerName) {
+        this.id = id;
+        this.date = date;
+        this.state = state;
+        this.managerId = managerId;
+        this.managerName = managerName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getDate() {
+        return date;
+    }
+
+    public Boolean getState() {
+        return state;
+    }
+
+    public Long getManagerId() {
+        return managerId;
+    }
+
+    public String getManagerName() {
+        return managerName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AgendaAppointmentDTO)) {
+            return false;
+        }
+        AgendaAppointmentDTO that = (AgendaAppointmentDTO) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(date, that.date) &&
+            Objects.equals(state, that.state) &&
+            Objects.equals(managerId, that.managerId) &&
+            Objects.equals(managerName, that.managerName)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, date, state, managerId, managerName);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AgendaAppointmentDTO{" +
+            "id=" + id +
+            ", date='" + date + "'" +
+            ", state='" + state + "'" +
+            ", managerId=" + managerId +
+            ", managerName='" + managerName + "'" +
+            "}";
+    }
+}
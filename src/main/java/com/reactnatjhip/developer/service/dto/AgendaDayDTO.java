@@ -0,0 +1,46 @@
+package com.reactnatjhip.developer.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A DTO representing a day of the agenda of an adviser, with its appointments ordered by date.
+ * <p>
+ * It is kept in memory by the agendas, so it is immutable: a change of the day replaces it with a new version.
+ */
+public final class AgendaDayDTO {
+
+    private final LocalDate date;
+    private final List<AgendaAppointmentDTO> appointments;
+    private final long version;
+
+    public AgendaDayDTO(LocalDate date, List<AgendaAppointmentDTO> appointments, long version) {
+        this.date = date;
+        this.appointments = List.copyOf(appointments);
+        this.version = version;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public List<AgendaAppointmentDTO> getAppointments() {
+        return appointments;
+    }
+
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AgendaDayDTO{" +
+            "date=" + date +
+            ", appointments=" + appointments.size() +
+            ", version=" + version +
+            "}";
+    }
+}
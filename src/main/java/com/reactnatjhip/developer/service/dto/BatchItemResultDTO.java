@@ -0,0 +1,78 @@
+package com.reactnatjhip.developer.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A DTO representing the outcome of one item of a batch request - its position in the request, its id and its status.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultDTO {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        FAILED,
+    }
+
+    private long index;
+    private Long id;
+    private Status status;
+    private String errorKey;
+
+    public BatchItemResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BatchItemResultDTO(long index, Long id, Status status, String errorKey) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.errorKey = errorKey;
+    }
+
+    public static BatchItemResultDTO succeeded(long index, Long id, Status status) {
+        return new BatchItemResultDTO(index, id, status, null);
+    }
+
+    public static BatchItemResultDTO failed(long index, Long id, String errorKey) {
+        return new BatchItemResultDTO(index, id, Status.FAILED, errorKey);
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getErrorKey() {
+        return errorKey;
+    }
+
+    public void setErrorKey(String errorKey) {
+        this.errorKey = errorKey;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchItemResultDTO{" + "index=" + index + ", id=" + id + ", status=" + status + ", errorKey='" + errorKey + '\'' + "}";
+    }
+}
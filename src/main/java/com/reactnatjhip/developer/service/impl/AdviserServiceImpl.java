@@ -3,6 +3,8 @@ package com.reactnatjhip.developer.service.impl;
 import com.reactnatjhip.developer.domain.Adviser;
 import com.reactnatjhip.developer.repository.AdviserRepository;
 import com.reactnatjhip.developer.service.AdviserService;
+import com.reactnatjhip.developer.service.EntityCountService;
+import com.reactnatjhip.developer.service.KeysetCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
@@ -22,8 +24,11 @@ public class AdviserServiceImpl implements AdviserService {
 
     private final AdviserRepository adviserRepository;
 
-    public AdviserServiceImpl(AdviserRepository adviserRepository) {
+    private final EntityCountService entityCountService;
+
+    public AdviserServiceImpl(AdviserRepository adviserRepository, EntityCountService entityCountService) {
         this.adviserRepository = adviserRepository;
+        this.entityCountService = entityCountService;
     }
 
     @Override
@@ -63,8 +68,15 @@ public class AdviserServiceImpl implements AdviserService {
         return adviserRepository.findAllBy(pageable);
     }
 
-    public Mono<Long> countAll() {
-        return adviserRepository.count();
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Adviser> findAll(KeysetCursor cursor, int pageSize) {
+        log.debug("Request to get Advisers after {}", cursor);
+        return adviserRepository.findAllBy(cursor, pageSize);
+    }
+
+    public Mono<Long> countAll(boolean exact) {
+        return entityCountService.count(Adviser.class, exact);
     }
 
     @Override
@@ -2,6 +2,8 @@ package com.reactnatjhip.developer.service.impl;
 
 import com.reactnatjhip.developer.domain.Manager;
 import com.reactnatjhip.developer.repository.ManagerRepository;
+import com.reactnatjhip.developer.service.EntityCountService;
+import com.reactnatjhip.developer.service.KeysetCursor;
 import com.reactnatjhip.developer.service.ManagerService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,8 +24,11 @@ public class ManagerServiceImpl implements ManagerService {
 
     private final ManagerRepository managerRepository;
 
-    public ManagerServiceImpl(ManagerRepository managerRepository) {
+    private final EntityCountService entityCountService;
+
+    public ManagerServiceImpl(ManagerRepository managerRepository, EntityCountService entityCountService) {
         this.managerRepository = managerRepository;
+        this.entityCountService = entityCountService;
     }
 
     @Override
@@ -60,8 +65,15 @@ public class ManagerServiceImpl implements ManagerService {
         return managerRepository.findAllBy(pageable);
     }
 
-    public Mono<Long> countAll() {
-        return managerRepository.count();
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Manager> findAll(KeysetCursor cursor, int pageSize) {
+        log.debug("Request to get Managers after {}", cursor);
+        return managerRepository.findAllBy(cursor, pageSize);
+    }
+
+    public Mono<Long> countAll(boolean exact) {
+        return entityCountService.count(Manager.class, exact);
     }
 
     @Override
@@ -2,7 +2,6 @@ package com.reactnatjhip.developer.web.rest;
 
 import com.reactnatjhip.developer.repository.UserRepository;
 import com.reactnatjhip.developer.security.SecurityUtils;
-import com.reactnatjhip.developer.service.MailService;
 import com.reactnatjhip.developer.service.UserService;
 import com.reactnatjhip.developer.service.dto.AdminUserDTO;
 import com.reactnatjhip.developer.service.dto.PasswordChangeDTO;
@@ -41,12 +40,9 @@ public class AccountResource {
 
     private final UserService userService;
 
-    private final MailService mailService;
-
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    public AccountResource(UserRepository userRepository, UserService userService) {
         this.userRepository = userRepository;
         this.userService = userService;
-        this.mailService = mailService;
     }
 
     /**
@@ -63,7 +59,7 @@ public class AccountResource {
         if (isPasswordLengthInvalid(managedUserVM.getPassword())) {
             throw new InvalidPasswordException();
         }
-        return userService.registerUser(managedUserVM, managedUserVM.getPassword()).doOnSuccess(mailService::sendActivationEmail).then();
+        return userService.registerUser(managedUserVM, managedUserVM.getPassword()).then();
     }
 
     /**
@@ -171,9 +167,7 @@ public class AccountResource {
             .requestPasswordReset(mail)
             .doOnSuccess(
                 user -> {
-                    if (Objects.nonNull(user)) {
-                        mailService.sendPasswordResetMail(user);
-                    } else {
+                    if (Objects.isNull(user)) {
                         // Pretend the request has been successful to prevent checking which emails really exist
                         // but log that an invalid attempt has been made
                         log.warn("Password reset requested for non existing mail");
@@ -0,0 +1,62 @@
+package com.reactnatjhip.developer.web.rest;
+
+import com.reactnatjhip.developer.service.AdviserAgendaService;
+import com.reactnatjhip.developer.service.dto.AgendaDayDTO;
+import com.reactnatjhip.developer.web.rest.errors.BadRequestAlertException;
+import java.time.LocalDate;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller serving the agendas of the advisers, from the {@link AdviserAgendaService}.
+ */
+@RestController
+@RequestMapping("/api")
+public class AdviserAgendaResource {
+
+    static final int MAX_DAYS = 31;
+
+    private final Logger log = LoggerFactory.getLogger(AdviserAgendaResource.class);
+
+    private static final String ENTITY_NAME = "adviserAgenda";
+
+    private final AdviserAgendaService adviserAgendaService;
+
+    public AdviserAgendaResource(AdviserAgendaService adviserAgendaService) {
+        this.adviserAgendaService = adviserAgendaService;
+    }
+
+    /**
+     * {@code GET  /advisers/:id/agenda} : get the agenda of the "id" adviser.
+     * <p>
+     * The response has an {@code ETag} built from the versions of the days, so a client sending it back in an
+     * {@code If-None-Match} header gets a {@code 304 (Not Modified)} without body as long as the agenda is unchanged.
+     *
+     * @param id the id of the adviser.
+     * @param from the first day of the agenda, as {@code yyyy-MM-dd}, today if not set.
+     * @param days the number of days of the agenda, from 1 to {@value #MAX_DAYS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the days of the agenda in body, or with status {@code 400 (Bad Request)} if the number of days is invalid.
+     */
+    @GetMapping("/advisers/{id}/agenda")
+    public Mono<ResponseEntity<List<AgendaDayDTO>>> getAdviserAgenda(
+        @PathVariable Long id,
+        @RequestParam(value = "from", required = false) LocalDate from,
+        @RequestParam(value = "days", defaultValue = "2") int days
+    ) {
+        log.debug("REST request to get the agenda of Adviser {} from {} for {} days", id, from, days);
+        if (days < 1 || days > MAX_DAYS) {
+            throw new BadRequestAlertException("Invalid number of days", ENTITY_NAME, "invaliddays");
+        }
+        return adviserAgendaService
+            .getAgenda(id, from, days)
+            .map(
+                agenda ->
+                    ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(adviserAgendaService.getETag(agenda)).body(agenda)
+            );
+    }
+}
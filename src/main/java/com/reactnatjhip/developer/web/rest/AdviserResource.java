@@ -3,7 +3,9 @@ package com.reactnatjhip.developer.web.rest;
 import com.reactnatjhip.developer.domain.Adviser;
 import com.reactnatjhip.developer.repository.AdviserRepository;
 import com.reactnatjhip.developer.service.AdviserService;
+import com.reactnatjhip.developer.service.KeysetCursor;
 import com.reactnatjhip.developer.web.rest.errors.BadRequestAlertException;
+import com.reactnatjhip.developer.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -178,16 +180,33 @@ public class AdviserResource {
 
     /**
      * {@code GET  /advisers} : get all the advisers.
+     * <p>
+     * When the {@code after} parameter is present, the page following that cursor is read with a keyset predicate
+     * instead of an offset, and the {@code Link} header carries the cursor of the next page instead of a total count.
+     * An empty {@code after} parameter starts a keyset listing at the first page.
+     * <p>
+     * The total count is cached for a bounded time, or estimated on large tables; {@code exactCount=true} counts the
+     * advisers in the database instead.
      *
      * @param pageable the pagination information.
+     * @param after the cursor returned with the previous page, or empty to read the first page.
+     * @param exactCount {@code true} to return the exact total count.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of advisers in body.
      */
     @GetMapping("/advisers")
-    public Mono<ResponseEntity<List<Adviser>>> getAllAdvisers(Pageable pageable, ServerHttpRequest request) {
+    public Mono<ResponseEntity<List<Adviser>>> getAllAdvisers(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = "exactCount", defaultValue = "false") boolean exactCount,
+        ServerHttpRequest request
+    ) {
+        if (after != null) {
+            return getAdvisersAfter(after, pageable, request);
+        }
         log.debug("REST request to get a page of Advisers");
         return adviserService
-            .countAll()
+            .countAll(exactCount)
             .zipWith(adviserService.findAll(pageable).collectList())
             .map(
                 countWithEntities -> {
@@ -204,6 +223,28 @@ public class AdviserResource {
             );
     }
 
+    private Mono<ResponseEntity<List<Adviser>>> getAdvisersAfter(String after, Pageable pageable, ServerHttpRequest request) {
+        KeysetCursor cursor = KeysetPaginationUtil.parseCursor(after, pageable.getSort(), Adviser.class, ENTITY_NAME);
+        log.debug("REST request to get a page of Advisers after {}", cursor);
+        return adviserService
+            .findAll(cursor, pageable.getPageSize())
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(
+                            KeysetPaginationUtil.generateKeysetHttpHeaders(
+                                UriComponentsBuilder.fromHttpRequest(request),
+                                cursor,
+                                entities,
+                                pageable.getPageSize()
+                            )
+                        )
+                        .body(entities)
+            );
+    }
+
     /**
      * {@code GET  /advisers/:id} : get the "id" adviser.
      *
@@ -1,14 +1,26 @@
 package com.reactnatjhip.developer.web.rest;
 
 import com.reactnatjhip.developer.domain.Appointment;
+import com.reactnatjhip.developer.repository.AppointmentExpansion;
 import com.reactnatjhip.developer.repository.AppointmentRepository;
+import com.reactnatjhip.developer.service.AdviserAgendaService;
+import com.reactnatjhip.developer.service.AppointmentBatchService;
+import com.reactnatjhip.developer.service.AppointmentBookingService;
+import com.reactnatjhip.developer.service.EntityCountService;
+import com.reactnatjhip.developer.service.KeysetCursor;
+import com.reactnatjhip.developer.service.criteria.AppointmentCriteria;
+import com.reactnatjhip.developer.service.dto.BatchItemResultDTO;
 import com.reactnatjhip.developer.web.rest.errors.BadRequestAlertException;
+import com.reactnatjhip.developer.web.rest.errors.SlotAlreadyBookedException;
+import com.reactnatjhip.developer.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +32,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -47,8 +60,26 @@ public class AppointmentResource {
 
     private final AppointmentRepository appointmentRepository;
 
-    public AppointmentResource(AppointmentRepository appointmentRepository) {
+    private final EntityCountService entityCountService;
+
+    private final AppointmentBookingService appointmentBookingService;
+
+    private final AppointmentBatchService appointmentBatchService;
+
+    private final AdviserAgendaService adviserAgendaService;
+
+    public AppointmentResource(
+        AppointmentRepository appointmentRepository,
+        EntityCountService entityCountService,
+        AppointmentBookingService appointmentBookingService,
+        AppointmentBatchService appointmentBatchService,
+        AdviserAgendaService adviserAgendaService
+    ) {
         this.appointmentRepository = appointmentRepository;
+        this.entityCountService = entityCountService;
+        this.appointmentBookingService = appointmentBookingService;
+        this.appointmentBatchService = appointmentBatchService;
+        this.adviserAgendaService = adviserAgendaService;
     }
 
     /**
@@ -57,6 +88,7 @@ public class AppointmentResource {
      * @param appointment the appointment to create.
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new appointment, or with status {@code 400 (Bad Request)} if the appointment has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
+     * @throws SlotAlreadyBookedException {@code 400 (Bad Request)} if the adviser or the manager already has an appointment at that time.
      */
     @PostMapping("/appointments")
     public Mono<ResponseEntity<Appointment>> createAppointment(@RequestBody Appointment appointment) throws URISyntaxException {
@@ -64,8 +96,7 @@ public class AppointmentResource {
         if (appointment.getId() != null) {
             throw new BadRequestAlertException("A new appointment cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        return appointmentRepository
-            .save(appointment)
+        return save(appointment)
             .map(
                 result -> {
                     try {
@@ -89,6 +120,7 @@ public class AppointmentResource {
      * or with status {@code 400 (Bad Request)} if the appointment is not valid,
      * or with status {@code 500 (Internal Server Error)} if the appointment couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
+     * @throws SlotAlreadyBookedException {@code 400 (Bad Request)} if the adviser or the manager already has an appointment at that time.
      */
     @PutMapping("/appointments/{id}")
     public Mono<ResponseEntity<Appointment>> updateAppointment(
@@ -111,8 +143,7 @@ public class AppointmentResource {
                         return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
                     }
 
-                    return appointmentRepository
-                        .save(appointment)
+                    return save(appointment)
                         .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                         .map(
                             result ->
@@ -137,6 +168,7 @@ public class AppointmentResource {
      * or with status {@code 404 (Not Found)} if the appointment is not found,
      * or with status {@code 500 (Internal Server Error)} if the appointment couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
+     * @throws SlotAlreadyBookedException {@code 400 (Bad Request)} if the adviser or the manager already has an appointment at that time.
      */
     @PatchMapping(value = "/appointments/{id}", consumes = "application/merge-patch+json")
     public Mono<ResponseEntity<Appointment>> partialUpdateAppointment(
@@ -161,25 +193,8 @@ public class AppointmentResource {
 
                     Mono<Appointment> result = appointmentRepository
                         .findById(appointment.getId())
-                        .map(
-                            existingAppointment -> {
-                                if (appointment.getReason() != null) {
-                                    existingAppointment.setReason(appointment.getReason());
-                                }
-                                if (appointment.getDate() != null) {
-                                    existingAppointment.setDate(appointment.getDate());
-                                }
-                                if (appointment.getState() != null) {
-                                    existingAppointment.setState(appointment.getState());
-                                }
-                                if (appointment.getReportreason() != null) {
-                                    existingAppointment.setReportreason(appointment.getReportreason());
-                                }
-
-                                return existingAppointment;
-                            }
-                        )
-                        .flatMap(appointmentRepository::save);
+                        .map(existingAppointment -> existingAppointment.merge(appointment))
+                        .flatMap(this::save);
 
                     return result
                         .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -195,18 +210,96 @@ public class AppointmentResource {
     }
 
     /**
-     * {@code GET  /appointments} : get all the appointments.
+     * {@code POST  /appointments/batch} : Create new appointments, from a JSON array or a stream of JSON lines.
+     * <p>
+     * The appointments are written in chunks, each in its own transaction, so the appointments of the chunks already
+     * written are kept if a later chunk fails.
      *
+     * @param appointments the appointments to create.
+     * @return the result of each appointment, in the given order: its id once created, or the key of its error.
+     */
+    @PostMapping(value = "/appointments/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BatchItemResultDTO> createAppointments(@RequestBody Flux<Appointment> appointments) {
+        log.debug("REST request to save a batch of Appointments");
+        return appointmentBatchService.createAll(appointments).doFinally(signal -> adviserAgendaService.evictAll());
+    }
+
+    /**
+     * {@code PATCH  /appointments/batch} : Partial updates given fields of existing appointments, field will ignore if it is null.
+     *
+     * @param appointments the appointments to update, from a JSON array or a stream of JSON lines.
+     * @return the result of each appointment, in the given order.
+     */
+    @PatchMapping(
+        value = "/appointments/batch",
+        consumes = { "application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE }
+    )
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BatchItemResultDTO> partialUpdateAppointments(@RequestBody Flux<Appointment> appointments) {
+        log.debug("REST request to partial update a batch of Appointments");
+        return appointmentBatchService.partialUpdateAll(appointments).doFinally(signal -> adviserAgendaService.evictAll());
+    }
+
+    /**
+     * {@code DELETE  /appointments/batch} : delete the appointments with the given ids.
+     *
+     * @param ids the ids of the appointments to delete, from a JSON array or a stream of JSON lines.
+     * @return the result of each id, in the given order.
+     */
+    @DeleteMapping(value = "/appointments/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BatchItemResultDTO> deleteAppointments(@RequestBody Flux<Long> ids) {
+        log.debug("REST request to delete a batch of Appointments");
+        return appointmentBatchService.deleteAll(ids).doFinally(signal -> adviserAgendaService.evictAll());
+    }
+
+    /**
+     * {@code GET  /appointments} : get all the appointments, optionally filtered.
+     * <p>
+     * The {@code fromDate}, {@code toDate}, {@code state}, {@code adviserId}, {@code managerId} and {@code bankId}
+     * parameters filter the appointments in the database, with their values bound as parameters of the query. The
+     * total count of a filtered listing is counted with the same criteria.
+     * <p>
+     * When the {@code after} parameter is present, the page following that cursor is read with a keyset predicate
+     * instead of an offset, and the {@code Link} header carries the cursor of the next page instead of a total count.
+     * An empty {@code after} parameter starts a keyset listing at the first page.
+     * <p>
+     * The total count is cached for a bounded time, or estimated on large tables; {@code exactCount=true} counts the
+     * appointments in the database instead.
+     * <p>
+     * The {@code expand} parameter lists the relations of the advisers and managers to return with the appointments,
+     * among {@code adviser.user}, {@code adviser.bank}, {@code manager.user} and {@code manager.company}; they are read
+     * in the same query as the appointments.
+     *
+     * @param criteria the criteria which the appointments should match.
      * @param pageable the pagination information.
+     * @param after the cursor returned with the previous page, or empty to read the first page.
+     * @param exactCount {@code true} to return the exact total count.
+     * @param expand the comma separated relations to return with the appointments.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of appointments in body.
      */
     @GetMapping("/appointments")
-    public Mono<ResponseEntity<List<Appointment>>> getAllAppointments(Pageable pageable, ServerHttpRequest request) {
-        log.debug("REST request to get a page of Appointments");
-        return appointmentRepository
-            .count()
-            .zipWith(appointmentRepository.findAllBy(pageable).collectList())
+    public Mono<ResponseEntity<List<Appointment>>> getAllAppointments(
+        AppointmentCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = "exactCount", defaultValue = "false") boolean exactCount,
+        @RequestParam(value = "expand", required = false) String expand,
+        ServerHttpRequest request
+    ) {
+        Set<AppointmentExpansion> expansions = parseExpansions(expand);
+        if (after != null) {
+            return getAppointmentsAfter(after, criteria, pageable, expansions, request);
+        }
+        log.debug("REST request to get a page of Appointments by {}, expanding {}", criteria, expansions);
+        // the cached counts are the ones of the whole table
+        Mono<Long> count = criteria.isEmpty()
+            ? entityCountService.count(Appointment.class, exactCount)
+            : appointmentRepository.countBy(criteria);
+        return count
+            .zipWith(appointmentRepository.findAllExpandedBy(pageable, criteria, expansions).collectList())
             .map(
                 countWithEntities -> {
                     return ResponseEntity
@@ -222,19 +315,100 @@ public class AppointmentResource {
             );
     }
 
+    private Mono<ResponseEntity<List<Appointment>>> getAppointmentsAfter(
+        String after,
+        AppointmentCriteria criteria,
+        Pageable pageable,
+        Set<AppointmentExpansion> expansions,
+        ServerHttpRequest request
+    ) {
+        KeysetCursor cursor = KeysetPaginationUtil.parseCursor(after, pageable.getSort(), Appointment.class, ENTITY_NAME);
+        log.debug("REST request to get a page of Appointments by {} after {}, expanding {}", criteria, cursor, expansions);
+        return appointmentRepository
+            .findAllExpandedBy(cursor, pageable.getPageSize(), criteria, expansions)
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(
+                            KeysetPaginationUtil.generateKeysetHttpHeaders(
+                                UriComponentsBuilder.fromHttpRequest(request),
+                                cursor,
+                                entities,
+                                pageable.getPageSize()
+                            )
+                        )
+                        .body(entities)
+            );
+    }
+
+    /**
+     * {@code GET  /appointments} : get all the appointments as a stream, optionally filtered by date range and adviser.
+     * <p>
+     * The appointments are written as they are read from the database, so large exports run in constant memory.
+     *
+     * @param fromDate the earliest date of the appointments, inclusive.
+     * @param toDate the latest date of the appointments, exclusive.
+     * @param adviserId the id of the adviser of the appointments.
+     * @return the {@link Flux} of appointments.
+     */
+    @GetMapping(value = "/appointments", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<Appointment> getAllAppointmentsAsStream(
+        @RequestParam(value = "fromDate", required = false) Instant fromDate,
+        @RequestParam(value = "toDate", required = false) Instant toDate,
+        @RequestParam(value = "adviserId", required = false) Long adviserId
+    ) {
+        log.debug("REST request to get all Appointments as a stream, from {} to {}, adviser {}", fromDate, toDate, adviserId);
+        return appointmentRepository.streamAllBy(fromDate, toDate, adviserId);
+    }
+
+    /**
+     * {@code GET  /appointments/next-free-slot} : get the start of the first slot free for the given adviser and manager.
+     *
+     * @param adviserId the id of the adviser.
+     * @param managerId the id of the manager.
+     * @param fromDate the earliest start of the slot, now if absent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the start of the free slot.
+     */
+    @GetMapping("/appointments/next-free-slot")
+    public Mono<ResponseEntity<Instant>> getNextFreeSlot(
+        @RequestParam(value = "adviserId", required = false) Long adviserId,
+        @RequestParam(value = "managerId", required = false) Long managerId,
+        @RequestParam(value = "fromDate", required = false) Instant fromDate
+    ) {
+        log.debug("REST request to get the next free slot of adviser {} and manager {} from {}", adviserId, managerId, fromDate);
+        return appointmentBookingService
+            .findNextFreeSlot(adviserId, managerId, fromDate != null ? fromDate : Instant.now())
+            .map(ResponseEntity::ok);
+    }
+
     /**
      * {@code GET  /appointments/:id} : get the "id" appointment.
      *
      * @param id the id of the appointment to retrieve.
+     * @param expand the comma separated relations to return with the appointment, as for the list of appointments.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the appointment, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/appointments/{id}")
-    public Mono<ResponseEntity<Appointment>> getAppointment(@PathVariable Long id) {
-        log.debug("REST request to get Appointment : {}", id);
-        Mono<Appointment> appointment = appointmentRepository.findById(id);
+    public Mono<ResponseEntity<Appointment>> getAppointment(
+        @PathVariable Long id,
+        @RequestParam(value = "expand", required = false) String expand
+    ) {
+        Set<AppointmentExpansion> expansions = parseExpansions(expand);
+        log.debug("REST request to get Appointment : {}, expanding {}", id, expansions);
+        Mono<Appointment> appointment = appointmentRepository.findExpandedById(id, expansions);
         return ResponseUtil.wrapOrNotFound(appointment);
     }
 
+    private static Set<AppointmentExpansion> parseExpansions(String expand) {
+        try {
+            return AppointmentExpansion.parse(expand);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "invalidexpand");
+        }
+    }
+
     /**
      * {@code DELETE  /appointments/:id} : delete the "id" appointment.
      *
@@ -245,8 +419,9 @@ public class AppointmentResource {
     @ResponseStatus(code = HttpStatus.NO_CONTENT)
     public Mono<ResponseEntity<Void>> deleteAppointment(@PathVariable Long id) {
         log.debug("REST request to delete Appointment : {}", id);
-        return appointmentRepository
-            .deleteById(id)
+        return appointmentBookingService
+            .delete(id)
+            .then(adviserAgendaService.onDeleted(id))
             .map(
                 result ->
                     ResponseEntity
@@ -255,4 +430,12 @@ public class AppointmentResource {
                         .build()
             );
     }
+
+    /**
+     * Saves an appointment through the booking service, and updates the agenda of its adviser with it once the
+     * transaction is committed.
+     */
+    private Mono<Appointment> save(Appointment appointment) {
+        return appointmentBookingService.save(appointment).flatMap(saved -> adviserAgendaService.onSaved(saved).thenReturn(saved));
+    }
 }
@@ -2,8 +2,10 @@ package com.reactnatjhip.developer.web.rest;
 
 import com.reactnatjhip.developer.domain.Manager;
 import com.reactnatjhip.developer.repository.ManagerRepository;
+import com.reactnatjhip.developer.service.KeysetCursor;
 import com.reactnatjhip.developer.service.ManagerService;
 import com.reactnatjhip.developer.web.rest.errors.BadRequestAlertException;
+import com.reactnatjhip.developer.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -178,16 +180,33 @@ public class ManagerResource {
 
     /**
      * {@code GET  /managers} : get all the managers.
+     * <p>
+     * When the {@code after} parameter is present, the page following that cursor is read with a keyset predicate
+     * instead of an offset, and the {@code Link} header carries the cursor of the next page instead of a total count.
+     * An empty {@code after} parameter starts a keyset listing at the first page.
+     * <p>
+     * The total count is cached for a bounded time, or estimated on large tables; {@code exactCount=true} counts the
+     * managers in the database instead.
      *
      * @param pageable the pagination information.
+     * @param after the cursor returned with the previous page, or empty to read the first page.
+     * @param exactCount {@code true} to return the exact total count.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of managers in body.
      */
     @GetMapping("/managers")
-    public Mono<ResponseEntity<List<Manager>>> getAllManagers(Pageable pageable, ServerHttpRequest request) {
+    public Mono<ResponseEntity<List<Manager>>> getAllManagers(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = "exactCount", defaultValue = "false") boolean exactCount,
+        ServerHttpRequest request
+    ) {
+        if (after != null) {
+            return getManagersAfter(after, pageable, request);
+        }
         log.debug("REST request to get a page of Managers");
         return managerService
-            .countAll()
+            .countAll(exactCount)
             .zipWith(managerService.findAll(pageable).collectList())
             .map(
                 countWithEntities -> {
@@ -204,6 +223,28 @@ public class ManagerResource {
             );
     }
 
+    private Mono<ResponseEntity<List<Manager>>> getManagersAfter(String after, Pageable pageable, ServerHttpRequest request) {
+        KeysetCursor cursor = KeysetPaginationUtil.parseCursor(after, pageable.getSort(), Manager.class, ENTITY_NAME);
+        log.debug("REST request to get a page of Managers after {}", cursor);
+        return managerService
+            .findAll(cursor, pageable.getPageSize())
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(
+                            KeysetPaginationUtil.generateKeysetHttpHeaders(
+                                UriComponentsBuilder.fromHttpRequest(request),
+                                cursor,
+                                entities,
+                                pageable.getPageSize()
+                            )
+                        )
+                        .body(entities)
+            );
+    }
+
     /**
      * {@code GET  /managers/:id} : get the "id" manager.
      *
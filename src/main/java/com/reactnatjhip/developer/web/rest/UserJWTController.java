@@ -1,13 +1,16 @@
 package com.reactnatjhip.developer.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.reactnatjhip.developer.security.LoginRateLimiter;
 import com.reactnatjhip.developer.security.jwt.JWTFilter;
 import com.reactnatjhip.developer.security.jwt.TokenProvider;
 import com.reactnatjhip.developer.web.rest.vm.LoginVM;
+import java.net.InetSocketAddress;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
@@ -25,14 +28,22 @@ public class UserJWTController {
 
     private final ReactiveAuthenticationManager authenticationManager;
 
-    public UserJWTController(TokenProvider tokenProvider, ReactiveAuthenticationManager authenticationManager) {
+    private final LoginRateLimiter loginRateLimiter;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        ReactiveAuthenticationManager authenticationManager,
+        LoginRateLimiter loginRateLimiter
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManager = authenticationManager;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     @PostMapping("/authenticate")
-    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM) {
+    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM, ServerHttpRequest request) {
         return loginVM
+            .doOnNext(login -> loginRateLimiter.acquire(login.getUsername(), getClientAddress(request)))
             .flatMap(
                 login ->
                     authenticationManager
@@ -48,6 +59,14 @@ public class UserJWTController {
             );
     }
 
+    private static String getClientAddress(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return null;
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+
     /**
      * Object to return as body in JWT Authentication.
      */
@@ -4,9 +4,10 @@ import com.reactnatjhip.developer.config.Constants;
 import com.reactnatjhip.developer.domain.User;
 import com.reactnatjhip.developer.repository.UserRepository;
 import com.reactnatjhip.developer.security.AuthoritiesConstants;
-import com.reactnatjhip.developer.service.MailService;
+import com.reactnatjhip.developer.service.UserImportService;
 import com.reactnatjhip.developer.service.UserService;
 import com.reactnatjhip.developer.service.dto.AdminUserDTO;
+import com.reactnatjhip.developer.service.dto.BatchItemResultDTO;
 import com.reactnatjhip.developer.web.rest.errors.BadRequestAlertException;
 import com.reactnatjhip.developer.web.rest.errors.EmailAlreadyUsedException;
 import com.reactnatjhip.developer.web.rest.errors.LoginAlreadyUsedException;
@@ -25,6 +26,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -89,12 +91,12 @@ public class UserResource {
 
     private final UserRepository userRepository;
 
-    private final MailService mailService;
+    private final UserImportService userImportService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    public UserResource(UserService userService, UserRepository userRepository, UserImportService userImportService) {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.mailService = mailService;
+        this.userImportService = userImportService;
     }
 
     /**
@@ -137,7 +139,6 @@ public class UserResource {
                     return userService.createUser(userDTO);
                 }
             )
-            .doOnSuccess(mailService::sendCreationEmail)
             .map(
                 user -> {
                     try {
@@ -152,6 +153,23 @@ public class UserResource {
             );
     }
 
+    /**
+     * {@code POST  /admin/users/import}  : Creates new users in bulk, from a JSON array or a stream of JSON lines.
+     * <p>
+     * The users are written in chunks, each in its own transaction, and are activated and sent a creation email like the
+     * users created one by one. A user which is invalid, or whose login or email is already in use, is reported without
+     * failing the others.
+     *
+     * @param users the users to create.
+     * @return the result of each user, in the given order: its id once created, or the key of its error.
+     */
+    @PostMapping(value = "/users/import", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<BatchItemResultDTO> importUsers(@RequestBody Flux<AdminUserDTO> users) {
+        log.debug("REST request to import a batch of Users");
+        return userImportService.importAll(users);
+    }
+
     /**
      * {@code PUT /admin/users} : Updates an existing User.
      *
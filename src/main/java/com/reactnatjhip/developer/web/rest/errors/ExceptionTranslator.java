@@ -13,6 +13,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.stereotype.Component;
@@ -142,6 +143,19 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         );
     }
 
+    @ExceptionHandler
+    public Mono<ResponseEntity<Problem>> handleSlotAlreadyBookedException(
+        com.reactnatjhip.developer.service.SlotAlreadyBookedException ex,
+        ServerWebExchange request
+    ) {
+        SlotAlreadyBookedException problem = new SlotAlreadyBookedException();
+        return create(
+            problem,
+            request,
+            HeaderUtil.createFailureAlert(applicationName, true, problem.getEntityName(), problem.getErrorKey(), problem.getMessage())
+        );
+    }
+
     @ExceptionHandler
     public Mono<ResponseEntity<Problem>> handleInvalidPasswordException(
         com.reactnatjhip.developer.service.InvalidPasswordException ex,
@@ -165,6 +179,38 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(ex, problem, request);
     }
 
+    @ExceptionHandler
+    public Mono<ResponseEntity<Problem>> handlePasswordHashingUnavailableException(
+        com.reactnatjhip.developer.security.PasswordHashingUnavailableException ex,
+        ServerWebExchange request
+    ) {
+        Problem problem = Problem
+            .builder()
+            .withStatus(Status.SERVICE_UNAVAILABLE)
+            .with(MESSAGE_KEY, ErrorConstants.ERR_PASSWORD_HASHING_BUSY)
+            .build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())));
+        return create(ex, problem, request, headers);
+    }
+
+    @ExceptionHandler
+    public Mono<ResponseEntity<Problem>> handleLoginThrottledException(
+        com.reactnatjhip.developer.security.LoginThrottledException ex,
+        ServerWebExchange request
+    ) {
+        Problem problem = Problem
+            .builder()
+            .withStatus(Status.TOO_MANY_REQUESTS)
+            .with(MESSAGE_KEY, ErrorConstants.ERR_LOGIN_THROTTLED)
+            .build();
+        HttpHeaders headers = new HttpHeaders();
+        // rounded up, so the client doesn't retry too early
+        long retryAfterSeconds = (ex.getRetryAfter().toMillis() + 999) / 1000;
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfterSeconds)));
+        return create(ex, problem, request, headers);
+    }
+
     @Override
     public ProblemBuilder prepare(final Throwable throwable, final StatusType status, final URI type) {
         Collection<String> activeProfiles = Arrays.asList(env.getActiveProfiles());
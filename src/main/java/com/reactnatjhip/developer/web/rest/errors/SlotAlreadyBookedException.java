@@ -0,0 +1,10 @@
+package com.reactnatjhip.developer.web.rest.errors;
+
+public class SlotAlreadyBookedException extends BadRequestAlertException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SlotAlreadyBookedException() {
+        super(ErrorConstants.SLOT_ALREADY_BOOKED_TYPE, "Slot already booked!", "appointment", "slotbooked");
+    }
+}
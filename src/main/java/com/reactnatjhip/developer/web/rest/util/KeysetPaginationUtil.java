@@ -0,0 +1,83 @@
+package com.reactnatjhip.developer.web.rest.util;
+
+import com.reactnatjhip.developer.service.KeysetCursor;
+import com.reactnatjhip.developer.web.rest.errors.BadRequestAlertException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset ("seek") pagination.
+ * <p>
+ * Instead of a page number, the client sends the opaque {@code after} token of the previous page, and follows the
+ * {@code rel="next"} link of the response until there is none.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Reads the cursor sent by the client; an empty token asks for the first page in the requested order.
+     *
+     * @param after the {@code after} request parameter.
+     * @param sort the requested order, only used for the first page.
+     * @param entityType the type of the listed entities, whose columns are the valid sort properties.
+     * @param entityName the name of the listed entity, used in the error message.
+     * @return the cursor.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the token or the sort are invalid.
+     */
+    public static KeysetCursor parseCursor(String after, Sort sort, Class<?> entityType, String entityName) {
+        KeysetCursor cursor;
+        try {
+            cursor = after.isEmpty() ? KeysetCursor.first(sort) : KeysetCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), entityName, "invalidcursor");
+        }
+        // the property of a token is checked too, as the clients can forge one
+        if (cursor.getProperty() != null && !isColumn(entityType, cursor.getProperty())) {
+            throw new BadRequestAlertException("Invalid sort property " + cursor.getProperty(), entityName, "invalidsort");
+        }
+        return cursor;
+    }
+
+    private static boolean isColumn(Class<?> entityType, String property) {
+        Field field = ReflectionUtils.findField(entityType, property);
+        return field != null && !Modifier.isStatic(field.getModifiers()) && !field.isAnnotationPresent(Transient.class);
+    }
+
+    /**
+     * Generates the {@code Link} header pointing to the next page, if the current page is full.
+     *
+     * @param uriBuilder the builder of the current request uri.
+     * @param cursor the cursor used to read the current page.
+     * @param page the entities of the current page.
+     * @param pageSize the requested page size.
+     * @param <T> the type of the entities.
+     * @return the http headers.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        KeysetCursor cursor,
+        List<T> page,
+        int pageSize
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (!page.isEmpty() && page.size() >= pageSize) {
+            String next = uriBuilder
+                .replaceQueryParam("page")
+                .replaceQueryParam(AFTER_PARAMETER, cursor.next(page.get(page.size() - 1)).encode())
+                .toUriString();
+            headers.add(HttpHeaders.LINK, String.format(HEADER_LINK_FORMAT, next, "next"));
+        }
+        return headers;
+    }
+}
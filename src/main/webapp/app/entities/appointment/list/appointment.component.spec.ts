@@ -5,6 +5,9 @@ import { HttpHeaders, HttpResponse } from '@angular/common/http';
 import { HttpClientTestingModule } from '@angular/common/http/testing';
 import { ActivatedRoute, Router } from '@angular/router';
 import { of } from 'rxjs';
+import * as dayjs from 'dayjs';
+
+import { DATE_TIME_FORMAT } from 'app/config/input.constants';
 
 import { AppointmentService } from '../service/appointment.service';
 
@@ -96,5 +99,37 @@ describe('Component Tests', () => {
       // THEN
       expect(service.query).toHaveBeenLastCalledWith(expect.objectContaining({ sort: ['name,desc', 'id'] }));
     });
+
+    it('should pass the filter to the query', () => {
+      // GIVEN
+      comp.filter = { fromDate: '2021-09-06T08:00', state: false, adviserId: 2, bankId: 3 };
+
+      // WHEN
+      comp.applyFilter();
+
+      // THEN
+      expect(service.query).toHaveBeenLastCalledWith(
+        expect.objectContaining({
+          page: 0,
+          fromDate: dayjs('2021-09-06T08:00', DATE_TIME_FORMAT).toJSON(),
+          state: false,
+          adviserId: 2,
+          bankId: 3,
+        })
+      );
+      expect(service.query).not.toHaveBeenLastCalledWith(expect.objectContaining({ toDate: expect.anything() }));
+    });
+
+    it('should clear the filter', () => {
+      // GIVEN
+      comp.filter = { state: true };
+
+      // WHEN
+      comp.clearFilter();
+
+      // THEN
+      expect(comp.filter).toEqual({});
+      expect(service.query).not.toHaveBeenLastCalledWith(expect.objectContaining({ state: expect.anything() }));
+    });
   });
 });
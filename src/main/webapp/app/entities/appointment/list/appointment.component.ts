@@ -3,13 +3,24 @@ import { HttpHeaders, HttpResponse } from '@angular/common/http';
 import { ActivatedRoute, Router } from '@angular/router';
 import { combineLatest } from 'rxjs';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
+import * as dayjs from 'dayjs';
 
 import { IAppointment } from '../appointment.model';
 
 import { ASC, DESC, ITEMS_PER_PAGE, SORT } from 'app/config/pagination.constants';
+import { DATE_TIME_FORMAT } from 'app/config/input.constants';
 import { AppointmentService } from '../service/appointment.service';
 import { AppointmentDeleteDialogComponent } from '../delete/appointment-delete-dialog.component';
 
+export interface IAppointmentFilter {
+  fromDate?: string | null;
+  toDate?: string | null;
+  state?: boolean | null;
+  adviserId?: number | null;
+  managerId?: number | null;
+  bankId?: number | null;
+}
+
 @Component({
   selector: 'jhi-appointment',
   templateUrl: './appointment.component.html',
@@ -23,6 +34,7 @@ export class AppointmentComponent implements OnInit {
   predicate!: string;
   ascending!: boolean;
   ngbPaginationPage = 1;
+  filter: IAppointmentFilter = {};
 
   constructor(
     protected appointmentService: AppointmentService,
@@ -40,6 +52,7 @@ export class AppointmentComponent implements OnInit {
         page: pageToLoad - 1,
         size: this.itemsPerPage,
         sort: this.sort(),
+        ...this.filterParams(),
       })
       .subscribe(
         (res: HttpResponse<IAppointment[]>) => {
@@ -57,6 +70,15 @@ export class AppointmentComponent implements OnInit {
     this.handleNavigation();
   }
 
+  applyFilter(): void {
+    this.loadPage(1);
+  }
+
+  clearFilter(): void {
+    this.filter = {};
+    this.loadPage(1);
+  }
+
   trackId(index: number, item: IAppointment): number {
     return item.id!;
   }
@@ -80,6 +102,32 @@ export class AppointmentComponent implements OnInit {
     return result;
   }
 
+  /**
+   * The criteria set in the filter, which the server applies to the appointments before paging them.
+   */
+  protected filterParams(): { [key: string]: string | number | boolean } {
+    const params: { [key: string]: string | number | boolean } = {};
+    if (this.filter.fromDate) {
+      params.fromDate = dayjs(this.filter.fromDate, DATE_TIME_FORMAT).toJSON();
+    }
+    if (this.filter.toDate) {
+      params.toDate = dayjs(this.filter.toDate, DATE_TIME_FORMAT).toJSON();
+    }
+    if (this.filter.state !== undefined && this.filter.state !== null) {
+      params.state = this.filter.state;
+    }
+    if (this.filter.adviserId) {
+      params.adviserId = this.filter.adviserId;
+    }
+    if (this.filter.managerId) {
+      params.managerId = this.filter.managerId;
+    }
+    if (this.filter.bankId) {
+      params.bankId = this.filter.bankId;
+    }
+    return params;
+  }
+
   protected handleNavigation(): void {
     combineLatest([this.activatedRoute.data, this.activatedRoute.queryParamMap]).subscribe(([data, params]) => {
       const page = params.get('page');
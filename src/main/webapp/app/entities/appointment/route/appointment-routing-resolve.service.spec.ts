@@ -9,7 +9,7 @@ import { of } from 'rxjs';
 import { IAppointment, Appointment } from '../appointment.model';
 import { AppointmentService } from '../service/appointment.service';
 
-import { AppointmentRoutingResolveService } from './appointment-routing-resolve.service';
+import { APPOINTMENT_EXPANSIONS, AppointmentRoutingResolveService } from './appointment-routing-resolve.service';
 
 describe('Service Tests', () => {
   describe('Appointment routing resolve service', () => {
@@ -43,7 +43,7 @@ describe('Service Tests', () => {
         });
 
         // THEN
-        expect(service.find).toBeCalledWith(123);
+        expect(service.find).toBeCalledWith(123, APPOINTMENT_EXPANSIONS);
         expect(resultAppointment).toEqual({ id: 123 });
       });
 
@@ -73,7 +73,7 @@ describe('Service Tests', () => {
         });
 
         // THEN
-        expect(service.find).toBeCalledWith(123);
+        expect(service.find).toBeCalledWith(123, APPOINTMENT_EXPANSIONS);
         expect(resultAppointment).toEqual(undefined);
         expect(mockRouter.navigate).toHaveBeenCalledWith(['404']);
       });
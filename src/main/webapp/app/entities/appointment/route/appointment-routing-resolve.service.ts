@@ -7,6 +7,11 @@ import { mergeMap } from 'rxjs/operators';
 import { IAppointment, Appointment } from '../appointment.model';
 import { AppointmentService } from '../service/appointment.service';
 
+/**
+ * The relations of the adviser and the manager read with the appointment, so the screens don't fetch them one by one.
+ */
+export const APPOINTMENT_EXPANSIONS = ['adviser.user', 'adviser.bank', 'manager.user', 'manager.company'];
+
 @Injectable({ providedIn: 'root' })
 export class AppointmentRoutingResolveService implements Resolve<IAppointment> {
   constructor(protected service: AppointmentService, protected router: Router) {}
@@ -14,7 +19,7 @@ export class AppointmentRoutingResolveService implements Resolve<IAppointment> {
   resolve(route: ActivatedRouteSnapshot): Observable<IAppointment> | Observable<never> {
     const id = route.params['id'];
     if (id) {
-      return this.service.find(id).pipe(
+      return this.service.find(id, APPOINTMENT_EXPANSIONS).pipe(
         mergeMap((appointment: HttpResponse<Appointment>) => {
           if (appointment.body) {
             return of(appointment.body);
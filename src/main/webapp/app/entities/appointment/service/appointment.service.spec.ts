@@ -49,6 +49,15 @@ describe('Service Tests', () => {
         expect(expectedResult).toMatchObject(elemDefault);
       });
 
+      it('should find an element with the expanded relations', () => {
+        service.find(123, ['adviser.user', 'manager.company']).subscribe(resp => (expectedResult = resp.body));
+
+        const req = httpMock.expectOne({ method: 'GET' });
+        expect(req.request.params.get('expand')).toEqual('adviser.user,manager.company');
+        req.flush(elemDefault);
+        expect(expectedResult).toMatchObject(elemDefault);
+      });
+
       it('should create a Appointment', () => {
         const returnedFromService = Object.assign(
           {
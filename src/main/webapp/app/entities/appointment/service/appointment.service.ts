@@ -39,9 +39,10 @@ export class AppointmentService {
       .pipe(map((res: EntityResponseType) => this.convertDateFromServer(res)));
   }
 
-  find(id: number): Observable<EntityResponseType> {
+  find(id: number, expand?: string[]): Observable<EntityResponseType> {
+    const options = createRequestOption(expand ? { expand: expand.join(',') } : undefined);
     return this.http
-      .get<IAppointment>(`${this.resourceUrl}/${id}`, { observe: 'response' })
+      .get<IAppointment>(`${this.resourceUrl}/${id}`, { params: options, observe: 'response' })
       .pipe(map((res: EntityResponseType) => this.convertDateFromServer(res)));
   }
 
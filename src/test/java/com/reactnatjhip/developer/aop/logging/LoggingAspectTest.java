@@ -0,0 +1,111 @@
+package com.reactnatjhip.developer.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for the timing of the {@link LoggingAspect}.
+ */
+class LoggingAspectTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties.MethodLogging properties;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ApplicationProperties.MethodLogging();
+        properties.setTiming(true);
+    }
+
+    @Test
+    void testTimesTheSynchronousMethods() throws Throwable {
+        LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), meterRegistry, properties);
+
+        Object result = aspect.logAround(joinPoint("findOne", "value"));
+
+        assertThat(result).isEqualTo("value");
+        assertThat(timer("findOne").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testTimesTheMonoFromSubscriptionToTermination() throws Throwable {
+        LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), meterRegistry, properties);
+
+        @SuppressWarnings("unchecked")
+        Mono<Long> result = (Mono<Long>) aspect.logAround(joinPoint("findOne", Mono.delay(Duration.ofMillis(50))));
+
+        assertThat(timer("findOne").count()).isZero();
+        Thread.sleep(50);
+        result.block();
+        Timer timer = timer("findOne");
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isBetween(50.0, 1000.0);
+    }
+
+    @Test
+    void testTimesEachSubscriptionToTheFlux() throws Throwable {
+        LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), meterRegistry, properties);
+
+        @SuppressWarnings("unchecked")
+        Flux<Integer> result = (Flux<Integer>) aspect.logAround(joinPoint("findAll", Flux.just(1, 2, 3)));
+
+        assertThat(result.collectList().block()).containsExactly(1, 2, 3);
+        assertThat(result.count().block()).isEqualTo(3);
+        assertThat(timer("findAll").count()).isEqualTo(2);
+    }
+
+    @Test
+    void testLeavesTheResultsAloneWhenNotTiming() throws Throwable {
+        properties.setTiming(false);
+        LoggingAspect aspect = new LoggingAspect(new MockEnvironment(), meterRegistry, properties);
+        Mono<String> mono = Mono.just("value");
+
+        assertThat(aspect.logAround(joinPoint("findOne", mono))).isSameAs(mono);
+        assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+
+    private Timer timer(String method) {
+        return meterRegistry.get("method.timed").tag("class", "Target").tag("method", method).timer();
+    }
+
+    private static ProceedingJoinPoint joinPoint(String method, Object result) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(Target.class.getMethod(method));
+        when(signature.getName()).thenReturn(method);
+        when(signature.getDeclaringTypeName()).thenReturn(Target.class.getName());
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getTarget()).thenReturn(new Target());
+        when(joinPoint.getArgs()).thenReturn(new Object[0]);
+        when(joinPoint.proceed()).thenReturn(result);
+        return joinPoint;
+    }
+
+    static class Target {
+
+        public Object findOne() {
+            return null;
+        }
+
+        public Object findAll() {
+            return null;
+        }
+    }
+}
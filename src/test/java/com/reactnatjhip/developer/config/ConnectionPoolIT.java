@@ -0,0 +1,63 @@
+package com.reactnatjhip.developer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.reactnatjhip.developer.IntegrationTest;
+import com.reactnatjhip.developer.repository.AuthorityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+
+/**
+ * Integration tests for the connection pool configured by the {@link DatabaseConfiguration}.
+ */
+@IntegrationTest
+class ConnectionPoolIT {
+
+    @Autowired
+    private ConnectionPool connectionPool;
+
+    @Autowired
+    private R2dbcProperties r2dbcProperties;
+
+    @Autowired
+    private ConnectionPoolHealthIndicator connectionPoolHealthIndicator;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testPoolIsWarmedUpOnStartup() {
+        assertThat(connectionPool.getMetrics()).hasValueSatisfying(
+            metrics -> {
+                assertThat(metrics.allocatedSize()).isGreaterThanOrEqualTo(r2dbcProperties.getPool().getInitialSize());
+                assertThat(metrics.getMaxAllocatedSize()).isEqualTo(r2dbcProperties.getPool().getMaxSize());
+            }
+        );
+    }
+
+    @Test
+    void testHealthReportsThePoolUsage() {
+        Health health = connectionPoolHealthIndicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsKeys("acquired", "allocated", "idle", "pending", "acquireTimeMaxMs");
+    }
+
+    @Test
+    void testPoolMetricsArePublished() {
+        long acquired = meterRegistry.get("db.connection.acquire").timer().count();
+
+        authorityRepository.findAll().collectList().block();
+
+        assertThat(meterRegistry.get("db.connection.acquire").timer().count()).isGreaterThan(acquired);
+        assertThat(meterRegistry.get("r2dbc.pool.acquired").tag("name", "connectionFactory").gauge()).isNotNull();
+    }
+}
@@ -1,9 +1,13 @@
 package com.reactnatjhip.developer.config;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import com.reactnatjhip.developer.domain.MailOutbox;
+import com.reactnatjhip.developer.domain.User;
 import com.reactnatjhip.developer.service.MailService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,6 +20,21 @@ public class NoOpMailConfiguration {
     public NoOpMailConfiguration() {
         mockMailService = mock(MailService.class);
         doNothing().when(mockMailService).sendActivationEmail(any());
+        // the emails are still written to the outbox, with the name of their template as content
+        when(mockMailService.createEmailFromTemplate(any(), anyString(), anyString()))
+            .thenAnswer(
+                invocation -> {
+                    User user = invocation.getArgument(0);
+                    if (user.getEmail() == null) {
+                        return null;
+                    }
+                    return new MailOutbox()
+                        .recipient(user.getEmail())
+                        .subject(invocation.getArgument(2))
+                        .content(invocation.getArgument(1))
+                        .html(true);
+                }
+            );
     }
 
     @Bean
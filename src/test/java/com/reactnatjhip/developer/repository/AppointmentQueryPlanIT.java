@@ -0,0 +1,87 @@
+package com.reactnatjhip.developer.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.reactnatjhip.developer.IntegrationTest;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Query plan regression tests for the hot queries of the appointments, which must be served by an index rather than by
+ * a scan of the whole table.
+ * <p>
+ * On PostgreSQL, with the {@code testcontainers} profile, the sequential scans are disabled while explaining the
+ * queries, so the planner only falls back to one when no index applies, whatever the size of the test tables.
+ */
+@IntegrationTest
+class AppointmentQueryPlanIT {
+
+    private static final String IN_JANUARY = "e.date >= TIMESTAMP '2026-01-01 00:00:00' AND e.date < TIMESTAMP '2026-02-01 00:00:00'";
+
+    @Autowired
+    private DatabaseClient db;
+
+    @Test
+    void testAppointmentsByAdviserUseAnIndex() {
+        assertUsesAnIndex("SELECT * FROM appointment entity WHERE entity.adviser_id = 1");
+        assertUsesAnIndex("SELECT * FROM appointment e WHERE e.adviser_id = 1 AND " + IN_JANUARY + " ORDER BY e.date");
+    }
+
+    @Test
+    void testAppointmentsByManagerUseAnIndex() {
+        assertUsesAnIndex("SELECT * FROM appointment entity WHERE entity.manager_id = 1");
+        assertUsesAnIndex("SELECT * FROM appointment e WHERE e.manager_id = 1 AND " + IN_JANUARY + " ORDER BY e.date");
+    }
+
+    @Test
+    void testAppointmentsByStateUseAnIndex() {
+        assertUsesAnIndex("SELECT * FROM appointment e WHERE e.state = TRUE ORDER BY e.date");
+    }
+
+    @Test
+    void testAppointmentsByDateUseAnIndex() {
+        assertUsesAnIndex("SELECT * FROM appointment e WHERE " + IN_JANUARY + " ORDER BY e.date, e.id");
+    }
+
+    @Test
+    void testAdvisersByBankUseAnIndex() {
+        assertUsesAnIndex("SELECT * FROM adviser e WHERE e.bank_id = 1");
+    }
+
+    @Test
+    void testManagersByCompanyUseAnIndex() {
+        assertUsesAnIndex("SELECT * FROM manager e WHERE e.company_id = 1");
+    }
+
+    private void assertUsesAnIndex(String sql) {
+        String plan = db.inConnection(connection -> explain(connection, sql)).block();
+
+        assertThat(plan).as(sql).doesNotContain("Seq Scan").doesNotContainIgnoringCase("tableScan");
+    }
+
+    private static Mono<String> explain(Connection connection, String sql) {
+        if (!connection.getMetadata().getDatabaseProductName().contains("PostgreSQL")) {
+            return query(connection, "EXPLAIN " + sql);
+        }
+        return execute(connection, "SET enable_seqscan = off")
+            .then(query(connection, "EXPLAIN " + sql))
+            .flatMap(plan -> execute(connection, "RESET enable_seqscan").thenReturn(plan));
+    }
+
+    private static Mono<String> query(Connection connection, String sql) {
+        return Flux
+            .from(connection.createStatement(sql).execute())
+            .flatMap(result -> result.map((row, metadata) -> row.get(0, String.class)))
+            .collect(Collectors.joining("\n"));
+    }
+
+    private static Mono<Void> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute()).flatMap(Result::getRowsUpdated).then();
+    }
+}
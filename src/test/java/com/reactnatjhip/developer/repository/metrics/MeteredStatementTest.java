@@ -0,0 +1,42 @@
+package com.reactnatjhip.developer.repository.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for the {@link MeteredStatement}.
+ */
+class MeteredStatementTest {
+
+    @Test
+    void testRecordsTheResultsOfAllTheBindingsAsOneExecution() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Statement delegate = mock(Statement.class);
+        Result first = mock(Result.class);
+        Result second = mock(Result.class);
+        when(first.getRowsUpdated()).thenReturn(Mono.just(2));
+        when(second.getRowsUpdated()).thenReturn(Mono.just(3));
+        Mockito.<Flux<Result>>when((Flux<Result>) delegate.execute()).thenReturn(Flux.just(first, second));
+        Statement statement = new MeteredStatement(
+            delegate,
+            new QueryMetrics(meterRegistry, Duration.ofSeconds(1), false),
+            "UPDATE appointment SET state = $1 WHERE id = $2"
+        );
+
+        Flux.from(statement.add().execute()).concatMap(Result::getRowsUpdated).blockLast();
+
+        assertThat(meterRegistry.get("db.query").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("db.query.rows").summary().totalAmount()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,66 @@
+package com.reactnatjhip.developer.repository.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.reactnatjhip.developer.IntegrationTest;
+import com.reactnatjhip.developer.domain.Authority;
+import com.reactnatjhip.developer.repository.AuthorityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Integration tests for the {@link QueryMetrics} of the repositories.
+ */
+@IntegrationTest
+class QueryMetricsIT {
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testRecordsTheStatementsOfTheRepositoryMethods() {
+        long count = count("findAll");
+
+        int authorities = authorityRepository.findAll().collectList().block().size();
+
+        assertThat(count("findAll")).isEqualTo(count + 1);
+        assertThat(meterRegistry.get("db.query.rows").tag("repository", "AuthorityRepository").tag("method", "findAll").summary().max())
+            .isEqualTo(authorities);
+    }
+
+    @Test
+    void testRecordsTheStatementsOfTheTransactions() {
+        long count = count("save");
+        Authority authority = new Authority();
+        authority.setName("ROLE_QUERY_METRICS");
+
+        TransactionalOperator
+            .create(transactionManager)
+            .execute(
+                status -> {
+                    status.setRollbackOnly();
+                    return authorityRepository.save(authority);
+                }
+            )
+            .blockLast();
+
+        assertThat(count("save")).isEqualTo(count + 1);
+        // the statement ran on the connection of the transaction, which was rolled back
+        assertThat(authorityRepository.findById("ROLE_QUERY_METRICS").block()).isNull();
+    }
+
+    private long count(String method) {
+        Timer timer = meterRegistry.find("db.query").tag("repository", "AuthorityRepository").tag("method", method).timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
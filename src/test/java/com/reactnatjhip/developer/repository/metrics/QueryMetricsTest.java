@@ -0,0 +1,38 @@
+package com.reactnatjhip.developer.repository.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link QueryMetrics}.
+ */
+class QueryMetricsTest {
+
+    @Test
+    void testRecordsTheDurationAndTheRowsPerOrigin() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QueryMetrics queryMetrics = new QueryMetrics(meterRegistry, Duration.ofSeconds(1), false);
+        QueryOrigin origin = new QueryOrigin("AppointmentRepository", "findAllBy");
+
+        queryMetrics.record(origin, "SELECT * FROM appointment", 0, TimeUnit.MILLISECONDS.toNanos(20), 10, null);
+        queryMetrics.record(origin, "SELECT * FROM appointment", 0, TimeUnit.MILLISECONDS.toNanos(40), 0, null);
+
+        assertThat(meterRegistry.get("db.query").tag("repository", "AppointmentRepository").tag("method", "findAllBy").timer().count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get("db.query.rows").summary().totalAmount()).isEqualTo(10);
+        // the statements without rows don't count in the rate
+        assertThat(meterRegistry.get("db.query.rows.rate").summary().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("db.query.rows.rate").summary().max()).isEqualTo(500);
+    }
+
+    @Test
+    void testRedactsTheLiterals() {
+        assertThat(QueryMetrics.redact("SELECT * FROM jhi_user WHERE login = 'o''brien' AND activated = $1 AND email = 'a@b.c'"))
+            .isEqualTo("SELECT * FROM jhi_user WHERE login = '?' AND activated = $1 AND email = '?'");
+    }
+}
@@ -0,0 +1,167 @@
+package com.reactnatjhip.developer.repository.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+/**
+ * Integration tests for the {@link ReadReplicaRoutingConnectionFactory}, against a primary and two replicas which are
+ * distinct H2 databases.
+ */
+class ReadReplicaRoutingConnectionFactoryIT {
+
+    private static final String PRIMARY = "primary";
+
+    private Map<String, DatabaseClient> replicaClients;
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties.ReadReplicas properties;
+
+    private Map<String, ConnectionFactory> replicas;
+
+    private ConnectionFactory primary;
+
+    @BeforeEach
+    public void setup() {
+        String database = UUID.randomUUID().toString();
+        primary = createDatabase(database, PRIMARY);
+        replicas = new LinkedHashMap<>();
+        replicaClients = new LinkedHashMap<>();
+        for (String name : List.of("replica-0", "replica-1")) {
+            ConnectionFactory replica = createDatabase(database, name);
+            DatabaseClient client = DatabaseClient.create(replica);
+            client.sql("CREATE TABLE replica_lag (seconds INT)").then().block();
+            client.sql("INSERT INTO replica_lag VALUES (0)").then().block();
+            replicas.put(name, replica);
+            replicaClients.put(name, client);
+        }
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ApplicationProperties.ReadReplicas();
+        properties.setLagQuery("SELECT seconds FROM replica_lag");
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseThePrimaryBeforeTheFirstCheck() {
+        ReadReplicaRoutingConnectionFactory routing = createRouting();
+
+        assertThat(readDatabase(routing, true)).isEqualTo(PRIMARY);
+    }
+
+    @Test
+    void testReadOnlyTransactionsAreSpreadOverTheReplicas() {
+        ReadReplicaRoutingConnectionFactory routing = createRouting();
+        routing.checkReplicas().block();
+
+        List<String> databases = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            databases.add(readDatabase(routing, true));
+        }
+
+        assertThat(databases).containsExactlyInAnyOrder("replica-0", "replica-0", "replica-1", "replica-1");
+        assertThat(meterRegistry.get("db.replica.available").tag("replica", "replica-0").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testReadWriteTransactionsAndPlainStatementsUseThePrimary() {
+        ReadReplicaRoutingConnectionFactory routing = createRouting();
+        routing.checkReplicas().block();
+
+        assertThat(readDatabase(routing, false)).isEqualTo(PRIMARY);
+        assertThat(DatabaseClient.create(routing).sql("SELECT name FROM marker").map(row -> row.get(0, String.class)).one().block())
+            .isEqualTo(PRIMARY);
+    }
+
+    @Test
+    void testLaggingReplicasAreLeftOut() {
+        ReadReplicaRoutingConnectionFactory routing = createRouting();
+        replicaClients.get("replica-0").sql("UPDATE replica_lag SET seconds = 60").then().block();
+        routing.checkReplicas().block();
+
+        assertThat(readDatabase(routing, true)).isEqualTo("replica-1");
+        assertThat(readDatabase(routing, true)).isEqualTo("replica-1");
+        assertThat(meterRegistry.get("db.replica.lag").tag("replica", "replica-0").gauge().value()).isEqualTo(60);
+        assertThat(meterRegistry.get("db.replica.available").tag("replica", "replica-0").gauge().value()).isZero();
+
+        replicaClients.get("replica-1").sql("UPDATE replica_lag SET seconds = 60").then().block();
+        routing.checkReplicas().block();
+
+        assertThat(readDatabase(routing, true)).isEqualTo(PRIMARY);
+
+        replicaClients.get("replica-0").sql("UPDATE replica_lag SET seconds = 0").then().block();
+        routing.checkReplicas().block();
+
+        assertThat(readDatabase(routing, true)).isEqualTo("replica-0");
+    }
+
+    @Test
+    void testUnreachableReplicasAreLeftOut() {
+        replicas.put("replica-1", new UnreachableConnectionFactory(primary.getMetadata()));
+        ReadReplicaRoutingConnectionFactory routing = createRouting();
+        routing.checkReplicas().block();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(readDatabase(routing, true)).isEqualTo("replica-0");
+        }
+        assertThat(meterRegistry.get("db.replica.lag").tag("replica", "replica-1").gauge().value()).isNaN();
+    }
+
+    private ReadReplicaRoutingConnectionFactory createRouting() {
+        return new ReadReplicaRoutingConnectionFactory(primary, replicas, properties, meterRegistry);
+    }
+
+    private static String readDatabase(ReadReplicaRoutingConnectionFactory routing, boolean readOnly) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(readOnly);
+        return TransactionalOperator
+            .create(new ReadReplicaTransactionManager(routing), definition)
+            .transactional(DatabaseClient.create(routing).sql("SELECT name FROM marker").map(row -> row.get(0, String.class)).one())
+            .block();
+    }
+
+    private static ConnectionFactory createDatabase(String database, String name) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///" + name + "-" + database + ";DB_CLOSE_DELAY=-1");
+        DatabaseClient client = DatabaseClient.create(connectionFactory);
+        client.sql("CREATE TABLE marker (name VARCHAR(20))").then().block();
+        client.sql("INSERT INTO marker VALUES ('" + name + "')").then().block();
+        return connectionFactory;
+    }
+
+    private static class UnreachableConnectionFactory implements ConnectionFactory {
+
+        private final ConnectionFactoryMetadata metadata;
+
+        UnreachableConnectionFactory(ConnectionFactoryMetadata metadata) {
+            this.metadata = metadata;
+        }
+
+        @Override
+        public Publisher<Connection> create() {
+            return Mono.error(new R2dbcNonTransientResourceException("Connection refused"));
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return metadata;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.reactnatjhip.developer.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link LoginRateLimiter}.
+ */
+class LoginRateLimiterTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getLoginThrottling().getPerLogin().setCapacity(3);
+        applicationProperties.getLoginThrottling().getPerLogin().setPeriod(Duration.ofSeconds(30));
+        applicationProperties.getLoginThrottling().getPerClient().setCapacity(5);
+        applicationProperties.getLoginThrottling().getPerClient().setPeriod(Duration.ofSeconds(30));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private LoginRateLimiter createLimiter() {
+        return new LoginRateLimiter(applicationProperties, meterRegistry, nanoTime::get);
+    }
+
+    @Test
+    void testAcquireAllowsABurstThenThrottlesTheLogin() {
+        LoginRateLimiter limiter = createLimiter();
+        for (int i = 0; i < 3; i++) {
+            assertThatCode(() -> limiter.acquire("user", null)).doesNotThrowAnyException();
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("USER", null))
+            .isInstanceOf(LoginThrottledException.class)
+            .extracting("retryAfter")
+            .isEqualTo(Duration.ofSeconds(10));
+        assertThat(meterRegistry.get("login.throttled").tag("key", "login").counter().count()).isEqualTo(1);
+        // the other logins have their own bucket
+        assertThatCode(() -> limiter.acquire("admin", null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testAcquireGivesBackTheAttemptsOverThePeriod() {
+        LoginRateLimiter limiter = createLimiter();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("user", null);
+        }
+
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThatCode(() -> limiter.acquire("user", null)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> limiter.acquire("user", null)).isInstanceOf(LoginThrottledException.class);
+
+        nanoTime.addAndGet(Duration.ofSeconds(30).toNanos());
+        for (int i = 0; i < 3; i++) {
+            assertThatCode(() -> limiter.acquire("user", null)).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void testAcquireThrottlesTheClientAcrossLogins() {
+        LoginRateLimiter limiter = createLimiter();
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("user" + i, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("other", "10.0.0.1")).isInstanceOf(LoginThrottledException.class);
+        assertThat(meterRegistry.get("login.throttled").tag("key", "client").counter().count()).isEqualTo(1);
+        assertThatCode(() -> limiter.acquire("other", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testAcquireDoesNothingWhenDisabled() {
+        applicationProperties.getLoginThrottling().setEnabled(false);
+        LoginRateLimiter limiter = createLimiter();
+        for (int i = 0; i < 10; i++) {
+            assertThatCode(() -> limiter.acquire("user", "10.0.0.1")).doesNotThrowAnyException();
+        }
+    }
+}
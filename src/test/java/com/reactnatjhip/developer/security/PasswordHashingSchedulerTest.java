@@ -0,0 +1,73 @@
+package com.reactnatjhip.developer.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link PasswordHashingScheduler}.
+ */
+class PasswordHashingSchedulerTest {
+
+    private MeterRegistry meterRegistry;
+
+    private PasswordHashingScheduler passwordHashingScheduler;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getPasswordHashing().setThreads(1);
+        applicationProperties.getPasswordHashing().setQueueCapacity(1);
+        applicationProperties.getPasswordHashing().setRetryAfter(Duration.ofSeconds(2));
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashingScheduler = new PasswordHashingScheduler(applicationProperties, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingScheduler.destroy();
+    }
+
+    @Test
+    void testScheduleRunsOnTheHashingPool() {
+        String threadName = passwordHashingScheduler.schedule(() -> Thread.currentThread().getName()).block();
+        assertThat(threadName).startsWith("password-hashing-");
+    }
+
+    @Test
+    void testScheduleFailsFastWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            passwordHashingScheduler
+                .schedule(
+                    () -> {
+                        started.countDown();
+                        return release.await(10, TimeUnit.SECONDS);
+                    }
+                )
+                .subscribe();
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            // the only thread is busy, this one waits in the queue
+            passwordHashingScheduler.schedule(() -> true).subscribe();
+            assertThat(meterRegistry.get("password.hashing.queue").gauge().value()).isEqualTo(1);
+
+            assertThatThrownBy(() -> passwordHashingScheduler.schedule(() -> true).block())
+                .isInstanceOf(PasswordHashingUnavailableException.class)
+                .extracting("retryAfter")
+                .isEqualTo(Duration.ofSeconds(2));
+            assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+}
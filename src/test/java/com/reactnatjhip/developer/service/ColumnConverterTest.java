@@ -0,0 +1,75 @@
+package com.reactnatjhip.developer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.reactnatjhip.developer.config.DatabaseConfiguration;
+import io.r2dbc.spi.Row;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Test class for the {@link ColumnConverter} service.
+ */
+class ColumnConverterTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2021, 9, 2, 13, 41, 44);
+
+    private ColumnConverter columnConverter;
+
+    @BeforeEach
+    public void setup() {
+        R2dbcCustomConversions conversions = new R2dbcCustomConversions(List.of(DatabaseConfiguration.InstantReadConverter.INSTANCE));
+        columnConverter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+    }
+
+    @Test
+    void testFromRowReadsSupportedTypesDirectly() {
+        Row row = mock(Row.class);
+        when(row.get("e_id", Long.class)).thenReturn(42L);
+
+        assertThat(columnConverter.fromRow(row, "e_id", Long.class)).isEqualTo(42L);
+        assertThat(columnConverter.fromRow(row, "e_id", Long.class)).isEqualTo(42L);
+
+        verify(row, times(2)).get("e_id", Long.class);
+        verify(row, never()).get(anyString());
+    }
+
+    @Test
+    void testFromRowRemembersTheConvertedColumns() {
+        Row row = mock(Row.class);
+        when(row.get("e_date", Instant.class)).thenThrow(new IllegalArgumentException("Cannot decode value of type Instant"));
+        when(row.get("e_date")).thenReturn(DATE);
+
+        assertThat(columnConverter.fromRow(row, "e_date", Instant.class)).isEqualTo(DATE.toInstant(ZoneOffset.UTC));
+        assertThat(columnConverter.fromRow(row, "e_date", Instant.class)).isEqualTo(DATE.toInstant(ZoneOffset.UTC));
+
+        // the driver is only asked once for a type it can't read
+        verify(row, times(1)).get("e_date", Instant.class);
+        verify(row, times(2)).get("e_date");
+    }
+
+    @Test
+    void testFromRowDoesNotDecideOnNullValues() {
+        Row row = mock(Row.class);
+        when(row.get(anyString(), any(Class.class))).thenReturn(null);
+        assertThat(columnConverter.fromRow(row, "e_date", Instant.class)).isNull();
+
+        when(row.get("e_date", Instant.class)).thenThrow(new IllegalArgumentException("Cannot decode value of type Instant"));
+        when(row.get("e_date")).thenReturn(DATE);
+        assertThat(columnConverter.fromRow(row, "e_date", Instant.class)).isEqualTo(DATE.toInstant(ZoneOffset.UTC));
+    }
+}
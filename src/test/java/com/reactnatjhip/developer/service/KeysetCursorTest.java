@@ -0,0 +1,67 @@
+package com.reactnatjhip.developer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.reactnatjhip.developer.domain.Appointment;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Test class for the {@link KeysetCursor} value class.
+ */
+class KeysetCursorTest {
+
+    @Test
+    void testFirstCursorUsesTheRequestedOrder() {
+        KeysetCursor cursor = KeysetCursor.first(Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id")));
+
+        assertThat(cursor.isFirst()).isTrue();
+        assertThat(cursor.getProperty()).isEqualTo("date");
+        assertThat(cursor.getDirection()).isEqualTo(Sort.Direction.DESC);
+    }
+
+    @Test
+    void testFirstCursorDefaultsToTheId() {
+        KeysetCursor cursor = KeysetCursor.first(Sort.unsorted());
+
+        assertThat(cursor.getProperty()).isNull();
+        assertThat(cursor.getDirection()).isEqualTo(Sort.Direction.ASC);
+    }
+
+    @Test
+    void testFirstCursorRejectsSeveralSortProperties() {
+        assertThatThrownBy(() -> KeysetCursor.first(Sort.by("date", "reason"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testNextCursorSurvivesEncoding() {
+        Instant date = Instant.parse("2021-09-02T13:41:44Z");
+        KeysetCursor next = KeysetCursor.first(Sort.by(Sort.Order.desc("date"))).next(new Appointment().id(42L).date(date));
+
+        KeysetCursor decoded = KeysetCursor.decode(next.encode());
+
+        assertThat(decoded.isFirst()).isFalse();
+        assertThat(decoded.getProperty()).isEqualTo("date");
+        assertThat(decoded.getDirection()).isEqualTo(Sort.Direction.DESC);
+        assertThat(decoded.getId()).isEqualTo(42L);
+        assertThat(decoded.getValue()).isEqualTo(date.toString());
+    }
+
+    @Test
+    void testNextCursorKeepsNullValues() {
+        KeysetCursor next = KeysetCursor.first(Sort.by("reason")).next(new Appointment().id(7L));
+
+        KeysetCursor decoded = KeysetCursor.decode(next.encode());
+
+        assertThat(decoded.getId()).isEqualTo(7L);
+        assertThat(decoded.getValue()).isNull();
+    }
+
+    @Test
+    void testDecodeRejectsMalformedTokens() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("invalid")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
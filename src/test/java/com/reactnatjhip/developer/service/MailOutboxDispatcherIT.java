@@ -0,0 +1,218 @@
+package com.reactnatjhip.developer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.reactnatjhip.developer.IntegrationTest;
+import com.reactnatjhip.developer.config.ApplicationProperties;
+import com.reactnatjhip.developer.domain.MailOutbox;
+import com.reactnatjhip.developer.domain.User;
+import com.reactnatjhip.developer.domain.enumeration.MailStatus;
+import com.reactnatjhip.developer.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import reactor.core.publisher.Mono;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for the {@link MailOutboxService} and the {@link MailOutboxDispatcher}, against an
+ * {@link InProcessSmtpServer}.
+ */
+@IntegrationTest
+class MailOutboxDispatcherIT {
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private MessageSource messageSource;
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    private InProcessSmtpServer smtpServer;
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
+
+    private MailOutboxService mailOutboxService;
+
+    private MailOutboxDispatcher mailOutboxDispatcher;
+
+    private MailService mailService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        smtpServer = new InProcessSmtpServer();
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(smtpServer.getPort());
+        mailService = new MailService(jHipsterProperties, javaMailSender, messageSource, templateEngine);
+
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getMailOutbox().setBatchSize(2);
+        applicationProperties.getMailOutbox().setMaxAttempts(2);
+        applicationProperties.getMailOutbox().setInitialBackoff(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        mailOutboxService = new MailOutboxService(mailService, mailOutboxRepository);
+        mailOutboxDispatcher =
+            new MailOutboxDispatcher(mailOutboxRepository, mailService, transactionalOperator, applicationProperties, meterRegistry);
+        mailOutboxRepository.deleteAll().block();
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        mailOutboxRepository.deleteAll().block();
+        smtpServer.close();
+    }
+
+    @Test
+    void testDrainSendsTheQueuedEmailsInBatches() {
+        for (int i = 0; i < 3; i++) {
+            mailOutboxService.queueActivationEmail(createUser("outbox-" + i)).block();
+        }
+        assertThat(mailOutboxRepository.countByStatus(MailStatus.PENDING).block()).isEqualTo(3);
+
+        assertThat(mailOutboxDispatcher.drain().block()).isEqualTo(3);
+
+        assertThat(smtpServer.getMessages())
+            .extracting(InProcessSmtpServer.ReceivedMessage::getRecipient)
+            .containsExactlyInAnyOrder("outbox-0@example.com", "outbox-1@example.com", "outbox-2@example.com");
+        // one connection per batch of 2
+        assertThat(smtpServer.getConnectionCount()).isEqualTo(2);
+        assertThat(mailOutboxRepository.findAll().collectList().block())
+            .allSatisfy(
+                mail -> {
+                    assertThat(mail.getStatus()).isEqualTo(MailStatus.SENT);
+                    assertThat(mail.getAttempts()).isEqualTo(1);
+                    assertThat(mail.getSentDate()).isNotNull();
+                }
+            );
+        assertThat(meterRegistry.get("mail.outbox.sent").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("mail.outbox.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void testDrainRetriesThenGivesUpTheFailedEmails() {
+        // a single batch per drain, as the failed email is due again right away
+        applicationProperties.getMailOutbox().setBatchSize(10);
+        smtpServer.rejectRecipient("outbox-rejected@example.com");
+        mailOutboxService.queueActivationEmail(createUser("outbox-rejected")).block();
+        mailOutboxService.queuePasswordResetMail(createUser("outbox-accepted")).block();
+
+        mailOutboxDispatcher.drain().block();
+
+        assertThat(smtpServer.getMessages())
+            .extracting(InProcessSmtpServer.ReceivedMessage::getRecipient)
+            .containsExactly("outbox-accepted@example.com");
+        MailOutbox rejected = mailOutboxRepository.findFirstByStatusOrderByCreatedDateAsc(MailStatus.PENDING).block();
+        assertThat(rejected.getRecipient()).isEqualTo("outbox-rejected@example.com");
+        assertThat(rejected.getAttempts()).isEqualTo(1);
+        assertThat(rejected.getLastError()).isNotBlank();
+        assertThat(meterRegistry.get("mail.outbox.failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("mail.outbox.pending").gauge().value()).isEqualTo(1);
+
+        mailOutboxDispatcher.drain().block();
+
+        assertThat(mailOutboxRepository.countByStatus(MailStatus.PENDING).block()).isZero();
+        assertThat(mailOutboxRepository.countByStatus(MailStatus.DEAD).block()).isEqualTo(1);
+        assertThat(meterRegistry.get("mail.outbox.dead").counter().count()).isEqualTo(1);
+        assertThat(smtpServer.getMessages()).hasSize(1);
+    }
+
+    @Test
+    void testConcurrentDispatchersSendEachEmailOnce() {
+        for (int i = 0; i < 6; i++) {
+            mailOutboxService.queueActivationEmail(createUser("outbox-" + i)).block();
+        }
+        MailOutboxDispatcher otherDispatcher = new MailOutboxDispatcher(
+            mailOutboxRepository,
+            mailService,
+            transactionalOperator,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+
+        Mono.zip(mailOutboxDispatcher.drain(), otherDispatcher.drain()).block();
+
+        assertThat(smtpServer.getMessages())
+            .extracting(InProcessSmtpServer.ReceivedMessage::getRecipient)
+            .containsExactlyInAnyOrder(
+                "outbox-0@example.com",
+                "outbox-1@example.com",
+                "outbox-2@example.com",
+                "outbox-3@example.com",
+                "outbox-4@example.com",
+                "outbox-5@example.com"
+            );
+        assertThat(mailOutboxRepository.countByStatus(MailStatus.SENT).block()).isEqualTo(6);
+    }
+
+    @Test
+    void testDrainSkipsTheClaimedEmailsUntilTheirLeaseExpires() {
+        mailOutboxService.queueActivationEmail(createUser("outbox-claimed")).block();
+        Instant now = Instant.now();
+        // claimed by an instance which stopped before sending it
+        mailOutboxRepository.claimDue("stopped-instance", now, now.plusSeconds(3600), 10).block();
+
+        assertThat(mailOutboxDispatcher.drain().block()).isZero();
+
+        MailOutbox claimed = mailOutboxRepository.findAllByClaimToken("stopped-instance").blockFirst();
+        mailOutboxRepository.save(claimed.nextAttemptAt(now.minusSeconds(1))).block();
+
+        assertThat(mailOutboxDispatcher.drain().block()).isEqualTo(1);
+        assertThat(smtpServer.getMessages())
+            .extracting(InProcessSmtpServer.ReceivedMessage::getRecipient)
+            .containsExactly("outbox-claimed@example.com");
+    }
+
+    @Test
+    void testPurgeDeletesTheFinishedEmailsOnly() {
+        applicationProperties.getMailOutbox().setRetention(Duration.ZERO);
+        mailOutboxService.queueActivationEmail(createUser("outbox-sent")).block();
+        mailOutboxDispatcher.drain().block();
+        mailOutboxService.queueActivationEmail(createUser("outbox-pending")).block();
+
+        assertThat(mailOutboxDispatcher.purge().block()).isEqualTo(1);
+
+        assertThat(mailOutboxRepository.findAll().collectList().block())
+            .extracting(MailOutbox::getRecipient)
+            .containsExactly("outbox-pending@example.com");
+    }
+
+    @Test
+    void testQueueIgnoresTheUsersWithoutEmail() {
+        User user = createUser("outbox-no-email");
+        user.setEmail(null);
+
+        mailOutboxService.queueCreationEmail(user).block();
+
+        assertThat(mailOutboxRepository.count().block()).isZero();
+    }
+
+    private static User createUser(String login) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setLangKey("en");
+        user.setActivationKey("activation-key");
+        user.setResetKey("reset-key");
+        return user;
+    }
+}
@@ -6,6 +6,7 @@ import static org.mockito.Mockito.*;
 
 import com.reactnatjhip.developer.IntegrationTest;
 import com.reactnatjhip.developer.config.Constants;
+import com.reactnatjhip.developer.domain.MailOutbox;
 import com.reactnatjhip.developer.domain.User;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -14,6 +15,8 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -31,6 +34,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.context.Context;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -227,6 +231,35 @@ class MailServiceIT {
         }
     }
 
+    @Test
+    void testPrecompiledTemplatesRenderLikeTheTemplateEngine() {
+        User user = new User();
+        user.setLogin("john&o'brien");
+        user.setEmail("john.doe@example.com");
+        user.setActivationKey("activation<key>");
+        user.setResetKey("reset\"key\"");
+        List<String> templateNames = List.of(
+            MailService.ACTIVATION_TEMPLATE,
+            MailService.CREATION_TEMPLATE,
+            MailService.PASSWORD_RESET_TEMPLATE
+        );
+        mailService.precompileTemplates();
+        for (String langKey : languages) {
+            user.setLangKey(langKey);
+            Locale locale = Locale.forLanguageTag(langKey);
+            for (String templateName : templateNames) {
+                Context context = new Context(locale);
+                context.setVariable("user", user);
+                context.setVariable("baseUrl", jHipsterProperties.getMail().getBaseUrl());
+
+                MailOutbox mail = mailService.createEmailFromTemplate(user, templateName, "email.activation.title");
+
+                assertThat(mail.getContent()).isEqualTo(templateEngine.process(templateName, context));
+                assertThat(mail.getSubject()).isEqualTo(messageSource.getMessage("email.activation.title", null, locale));
+            }
+        }
+    }
+
     /**
      * Convert a lang key to the Java locale.
      */
@@ -4,20 +4,28 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.reactnatjhip.developer.IntegrationTest;
 import com.reactnatjhip.developer.config.Constants;
+import com.reactnatjhip.developer.domain.MailOutbox;
 import com.reactnatjhip.developer.domain.User;
+import com.reactnatjhip.developer.domain.enumeration.MailStatus;
+import com.reactnatjhip.developer.repository.MailOutboxRepository;
 import com.reactnatjhip.developer.repository.UserRepository;
+import com.reactnatjhip.developer.security.AuthoritiesConstants;
 import com.reactnatjhip.developer.service.dto.AdminUserDTO;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -44,12 +52,23 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserCacheService userCacheService;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
     private User user;
 
     @BeforeEach
     public void init() {
         userRepository.deleteAllUserAuthorities().block();
         userRepository.deleteAll().block();
+        userCacheService.evictAll();
+        mailOutboxRepository.deleteAll().block();
         user = new User();
         user.setLogin(DEFAULT_LOGIN);
         user.setPassword(RandomStringUtils.random(60));
@@ -75,6 +94,20 @@ class UserServiceIT {
         assertThat(maybeUser.orElse(null).getResetKey()).isNotNull();
     }
 
+    @Test
+    void assertThatUpdatedUserIsEvictedFromTheCache() {
+        userRepository.save(user).block();
+        assertThat(userService.getUserWithAuthoritiesByLogin(DEFAULT_LOGIN).block().getFirstName()).isEqualTo(DEFAULT_FIRSTNAME);
+
+        AdminUserDTO userDTO = new AdminUserDTO(userService.getUserWithAuthoritiesByLogin(DEFAULT_LOGIN).block());
+        userDTO.setLogin("janedoe");
+        userDTO.setFirstName("jane");
+        userService.updateUser(userDTO).block();
+
+        assertThat(userService.getUserWithAuthoritiesByLogin(DEFAULT_LOGIN).blockOptional()).isNotPresent();
+        assertThat(userService.getUserWithAuthoritiesByLogin("janedoe").block().getFirstName()).isEqualTo("jane");
+    }
+
     @Test
     void assertThatOnlyActivatedUserCanRequestPasswordReset() {
         user.setActivated(false);
@@ -145,7 +178,7 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isNotEmpty();
-        userService.removeNotActivatedUsers();
+        assertThat(userService.removeNotActivatedUsersReactively().block()).isEqualTo(users.size());
         users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo).collectList().block();
         assertThat(users).isEmpty();
     }
@@ -163,8 +196,98 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isEmpty();
-        userService.removeNotActivatedUsers();
+        userService.removeNotActivatedUsersReactively().block();
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId()).blockOptional();
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    void assertThatUpdatingTheAuthoritiesOnlyWritesTheDifference() {
+        userRepository.save(user).block();
+        userRepository.saveUserAuthorities(Map.of(user.getId(), Set.of(AuthoritiesConstants.USER))).block();
+        AdminUserDTO userDTO = new AdminUserDTO(userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block());
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.ADMIN));
+
+        userService.updateUser(userDTO).block();
+
+        assertThat(userRepository.findAuthorityNamesByUserId(user.getId()).collectList().block())
+            .containsExactly(AuthoritiesConstants.ADMIN);
+
+        // saving the user without its authorities keeps the stored ones
+        userService.saveUser(userRepository.findOneByLogin(DEFAULT_LOGIN).block()).block();
+
+        assertThat(userRepository.findAuthorityNamesByUserId(user.getId()).collectList().block())
+            .containsExactly(AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void assertThatManagedUsersArePagedAndSortedInTheDatabase() {
+        for (int i = 0; i < 5; i++) {
+            User other = new User();
+            other.setLogin(DEFAULT_LOGIN + i);
+            other.setPassword(RandomStringUtils.random(60));
+            other.setActivated(true);
+            other.setEmail(i + DEFAULT_EMAIL);
+            other.setLastName(i % 2 == 0 ? "even" : "odd");
+            other.setCreatedBy(Constants.SYSTEM);
+            userRepository.save(other).block();
+            userRepository.saveUserAuthority(other.getId(), AuthoritiesConstants.USER).block();
+        }
+
+        Sort sort = Sort.by(Sort.Order.desc("lastName"), Sort.Order.asc("login"));
+        List<AdminUserDTO> firstPage = userService.getAllManagedUsers(PageRequest.of(0, 3, sort)).collectList().block();
+        List<AdminUserDTO> secondPage = userService.getAllManagedUsers(PageRequest.of(1, 3, sort)).collectList().block();
+
+        assertThat(firstPage).extracting(AdminUserDTO::getLogin).containsExactly("johndoe1", "johndoe3", "johndoe0");
+        assertThat(secondPage).extracting(AdminUserDTO::getLogin).containsExactly("johndoe2", "johndoe4");
+        assertThat(firstPage).allSatisfy(dto -> assertThat(dto.getAuthorities()).containsExactly(AuthoritiesConstants.USER));
+    }
+
+    @Test
+    void assertThatRegisteredUserGetsAnActivationEmailInTheOutbox() {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail(DEFAULT_EMAIL);
+        userDTO.setLangKey(DEFAULT_LANGKEY);
+
+        userService.registerUser(userDTO, "password").block();
+
+        List<MailOutbox> mails = mailOutboxRepository.findAll().collectList().block();
+        assertThat(mails).hasSize(1);
+        assertThat(mails.get(0).getRecipient()).isEqualTo(DEFAULT_EMAIL);
+        assertThat(mails.get(0).getSubject()).isEqualTo("email.activation.title");
+        assertThat(mails.get(0).getStatus()).isEqualTo(MailStatus.PENDING);
+    }
+
+    @Test
+    void assertThatRegistrationAndPasswordResetEmailsAreQueuedInTheOutbox() {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail(DEFAULT_EMAIL);
+        userDTO.setLangKey(DEFAULT_LANGKEY);
+
+        User registered = userService.registerUser(userDTO, "password").block();
+        userService.activateRegistration(registered.getActivationKey()).block();
+        userService.requestPasswordReset(DEFAULT_EMAIL).block();
+
+        List<MailOutbox> mails = mailOutboxRepository.findAll().collectList().block();
+        assertThat(mails).extracting(MailOutbox::getRecipient).containsOnly(DEFAULT_EMAIL);
+        assertThat(mails).extracting(MailOutbox::getSubject).containsExactlyInAnyOrder("email.activation.title", "email.reset.title");
+        assertThat(mails).extracting(MailOutbox::getStatus).containsOnly(MailStatus.PENDING);
+    }
+
+    @Test
+    void assertThatUserCachedBeforeTheCommitIsEvictedAfterIt() {
+        userRepository.save(user).block();
+
+        // an authentication running concurrently with the change caches the user before it is committed
+        transactionalOperator
+            .transactional(userCacheService.evictUser(user).then(userCacheService.getUserWithAuthoritiesByLogin(DEFAULT_LOGIN)))
+            .block();
+        User changed = userRepository.findOneByLogin(DEFAULT_LOGIN).block();
+        changed.setFirstName("jane");
+        userRepository.save(changed).block();
+
+        assertThat(userCacheService.getUserWithAuthoritiesByLogin(DEFAULT_LOGIN).block().getFirstName()).isEqualTo("jane");
+    }
 }
@@ -5,8 +5,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.reactnatjhip.developer.IntegrationTest;
 import com.reactnatjhip.developer.config.Constants;
+import com.reactnatjhip.developer.domain.MailOutbox;
 import com.reactnatjhip.developer.domain.User;
 import com.reactnatjhip.developer.repository.AuthorityRepository;
+import com.reactnatjhip.developer.repository.MailOutboxRepository;
 import com.reactnatjhip.developer.repository.UserRepository;
 import com.reactnatjhip.developer.security.AuthoritiesConstants;
 import com.reactnatjhip.developer.service.UserService;
@@ -43,6 +45,9 @@ class AccountResourceIT {
     @Autowired
     private AuthorityRepository authorityRepository;
 
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
     @Autowired
     private UserService userService;
 
@@ -769,6 +774,10 @@ class AccountResourceIT {
             .exchange()
             .expectStatus()
             .isOk();
+
+        assertThat(mailOutboxRepository.findAll().collectList().block())
+            .extracting(MailOutbox::getRecipient)
+            .contains("password-reset@example.com");
     }
 
     @Test
@@ -0,0 +1,293 @@
+package com.reactnatjhip.developer.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import com.reactnatjhip.developer.IntegrationTest;
+import com.reactnatjhip.developer.domain.Adviser;
+import com.reactnatjhip.developer.domain.Appointment;
+import com.reactnatjhip.developer.domain.Manager;
+import com.reactnatjhip.developer.domain.User;
+import com.reactnatjhip.developer.repository.AppointmentRepository;
+import com.reactnatjhip.developer.repository.UserRepository;
+import com.reactnatjhip.developer.service.AdviserAgendaService;
+import com.reactnatjhip.developer.service.EntityManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Integration tests for the {@link AdviserAgendaResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+class AdviserAgendaResourceIT {
+
+    private static final String DAY = "2026-03-10";
+    private static final String NEXT_DAY = "2026-03-11";
+
+    private static final String ENTITY_API_URL = "/api/advisers/{id}/agenda?from=" + DAY + "&days=2";
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AdviserAgendaService adviserAgendaService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    private User user;
+
+    private Adviser adviser;
+
+    private Manager manager;
+
+    @BeforeEach
+    public void initTest() {
+        adviserAgendaService.evictAll();
+        user = userRepository.save(UserResourceIT.createEntity(em)).block();
+        adviser = em.insert(AdviserResourceIT.createEntity(em)).block();
+        manager = em.insert(ManagerResourceIT.createEntity(em).user(user)).block();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        AppointmentResourceIT.deleteEntities(em);
+        AdviserResourceIT.deleteEntities(em);
+        ManagerResourceIT.deleteEntities(em);
+        userRepository.delete(user).block();
+        adviserAgendaService.evictAll();
+    }
+
+    @Test
+    void getAdviserAgenda() {
+        Appointment appointment = appointmentRepository
+            .save(AppointmentResourceIT.createEntity(em).date(Instant.parse(DAY + "T10:00:00Z")).adviser(adviser).manager(manager))
+            .block();
+
+        String eTag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL, adviser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$.[0].date")
+            .value(is(DAY))
+            .jsonPath("$.[0].appointments.[*].id")
+            .value(contains(appointment.getId().intValue()))
+            .jsonPath("$.[0].appointments.[0].managerName")
+            .value(is(user.getFirstName() + " " + user.getLastName()))
+            .jsonPath("$.[1].date")
+            .value(is(NEXT_DAY))
+            .jsonPath("$.[1].appointments")
+            .value(hasSize(0))
+            .returnResult()
+            .getResponseHeaders()
+            .getETag();
+        assertThat(eTag).isNotNull();
+
+        // The unchanged agenda isn't sent again
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, adviser.getId())
+            .ifNoneMatch(eTag)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isNotModified();
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "adviserAgenda").tag("result", "hit").functionCounter().count())
+            .isPositive();
+        assertThat(meterRegistry.get("adviser.agenda.appointments").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("adviser.agenda.size").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("adviser.agenda.hit.ratio").gauge().value()).isPositive();
+    }
+
+    @Test
+    void getAdviserAgendaUpdatedByTheAppointments() throws Exception {
+        Appointment appointment = appointmentRepository
+            .save(AppointmentResourceIT.createEntity(em).date(Instant.parse(DAY + "T10:00:00Z")).adviser(adviser))
+            .block();
+        double misses = getMisses();
+        String eTag = getETag();
+
+        // A new appointment is added to its day
+        Appointment created = webTestClient
+            .post()
+            .uri("/api/appointments")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(
+                TestUtil.convertObjectToJsonBytes(
+                    AppointmentResourceIT.createEntity(em).date(Instant.parse(DAY + "T09:00:00Z")).adviser(adviser).manager(manager)
+                )
+            )
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Appointment.class)
+            .returnResult()
+            .getResponseBody();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, adviser.getId())
+            .ifNoneMatch(eTag)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].appointments.[*].id")
+            .value(contains(created.getId().intValue(), appointment.getId().intValue()))
+            .jsonPath("$.[0].appointments.[0].managerName")
+            .value(is(user.getFirstName() + " " + user.getLastName()));
+
+        // An updated appointment moves to its new day
+        webTestClient
+            .put()
+            .uri("/api/appointments/{id}", appointment.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(appointment.date(Instant.parse(NEXT_DAY + "T10:00:00Z"))))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, adviser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].appointments.[*].id")
+            .value(contains(created.getId().intValue()))
+            .jsonPath("$.[1].appointments.[*].id")
+            .value(contains(appointment.getId().intValue()));
+
+        // A patched appointment is changed in its day
+        Appointment patch = new Appointment().state(true);
+        patch.setId(appointment.getId());
+        webTestClient
+            .patch()
+            .uri("/api/appointments/{id}", appointment.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(patch))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, adviser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[1].appointments.[0].state")
+            .value(is(true));
+
+        // A deleted appointment is removed from its day
+        webTestClient.delete().uri("/api/appointments/{id}", created.getId()).exchange().expectStatus().isNoContent();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, adviser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].appointments")
+            .value(hasSize(0));
+
+        // Only the first read of the days loaded them from the database
+        assertThat(getMisses() - misses).isEqualTo(2);
+    }
+
+    @Test
+    void getAdviserAgendaIgnoresTheRolledBackChanges() {
+        Appointment appointment = appointmentRepository
+            .save(AppointmentResourceIT.createEntity(em).date(Instant.parse(DAY + "T10:00:00Z")).adviser(adviser))
+            .block();
+        String eTag = getETag();
+
+        transactionalOperator
+            .execute(
+                status -> {
+                    status.setRollbackOnly();
+                    return adviserAgendaService
+                        .onSaved(appointment.date(Instant.parse(NEXT_DAY + "T10:00:00Z")))
+                        .then(adviserAgendaService.onDeleted(appointment.getId()));
+                }
+            )
+            .blockLast();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, adviser.getId())
+            .ifNoneMatch(eTag)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isNotModified();
+    }
+
+    @Test
+    void getAdviserAgendaWithInvalidDays() {
+        webTestClient
+            .get()
+            .uri("/api/advisers/{id}/agenda?days=0", adviser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    private double getMisses() {
+        return meterRegistry.get("cache.gets").tag("cache", "adviserAgenda").tag("result", "miss").functionCounter().count();
+    }
+
+    private String getETag() {
+        return webTestClient
+            .get()
+            .uri(ENTITY_API_URL, adviser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .returnResult()
+            .getResponseHeaders()
+            .getETag();
+    }
+}
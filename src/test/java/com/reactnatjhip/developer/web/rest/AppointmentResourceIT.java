@@ -1,16 +1,24 @@
 package com.reactnatjhip.developer.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
 import com.reactnatjhip.developer.IntegrationTest;
+import com.reactnatjhip.developer.domain.Adviser;
 import com.reactnatjhip.developer.domain.Appointment;
+import com.reactnatjhip.developer.domain.Bank;
+import com.reactnatjhip.developer.domain.Company;
+import com.reactnatjhip.developer.domain.Manager;
+import com.reactnatjhip.developer.domain.User;
 import com.reactnatjhip.developer.repository.AppointmentRepository;
+import com.reactnatjhip.developer.repository.UserRepository;
 import com.reactnatjhip.developer.service.EntityManager;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -22,9 +30,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
 /**
  * Integration tests for the {@link AppointmentResource} REST controller.
@@ -55,14 +67,27 @@ class AppointmentResourceIT {
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private EntityManager em;
 
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
     private Appointment appointment;
 
+    // the related rows created by a test, deleted after it whatever its outcome, with its advisers and managers
+    private User user;
+
+    private Bank bank;
+
+    private Company company;
+
     /**
      * Create an entity for this test.
      *
@@ -104,6 +129,17 @@ class AppointmentResourceIT {
     @AfterEach
     public void cleanup() {
         deleteEntities(em);
+        AdviserResourceIT.deleteEntities(em);
+        ManagerResourceIT.deleteEntities(em);
+        if (bank != null) {
+            em.deleteById(Bank.class, bank.getId()).block();
+        }
+        if (company != null) {
+            em.deleteById(Company.class, company.getId()).block();
+        }
+        if (user != null) {
+            userRepository.delete(user).block();
+        }
     }
 
     @BeforeEach
@@ -135,6 +171,144 @@ class AppointmentResourceIT {
         assertThat(testAppointment.getReportreason()).isEqualTo(DEFAULT_REPORTREASON);
     }
 
+    @Test
+    void createAppointmentInBookedSlot() throws Exception {
+        Adviser adviser = em.insert(AdviserResourceIT.createEntity(em)).block();
+        appointmentRepository.save(createEntity(em).date(UPDATED_DATE).adviser(adviser)).block();
+        int databaseSizeBeforeCreate = appointmentRepository.findAll().collectList().block().size();
+
+        // The adviser already has an appointment overlapping that time
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(createEntity(em).date(UPDATED_DATE.plusSeconds(600)).adviser(adviser)))
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectHeader()
+            .valueEquals("X-appointementsystemApp-error", "error.slotbooked");
+
+        // The following slot is free
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(createEntity(em).date(UPDATED_DATE.plusSeconds(1800)).adviser(adviser)))
+            .exchange()
+            .expectStatus()
+            .isCreated();
+
+        List<Appointment> appointmentList = appointmentRepository.findAll().collectList().block();
+        assertThat(appointmentList).hasSize(databaseSizeBeforeCreate + 1);
+    }
+
+    @Test
+    void createAppointmentInBookedPastSlot() throws Exception {
+        Adviser adviser = em.insert(AdviserResourceIT.createEntity(em)).block();
+        Instant past = UPDATED_DATE.minus(30, ChronoUnit.DAYS);
+        appointmentRepository.save(createEntity(em).date(past).adviser(adviser)).block();
+
+        // The slots which are over aren't kept in memory, they are checked against the database
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(createEntity(em).date(past.plusSeconds(600)).adviser(adviser)))
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectHeader()
+            .valueEquals("X-appointementsystemApp-error", "error.slotbooked");
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(createEntity(em).date(past.plusSeconds(1800)).adviser(adviser)))
+            .exchange()
+            .expectStatus()
+            .isCreated();
+    }
+
+    @Test
+    void getNextFreeSlot() {
+        Adviser adviser = em.insert(AdviserResourceIT.createEntity(em)).block();
+        appointmentRepository.save(createEntity(em).date(UPDATED_DATE).adviser(adviser)).block();
+        appointmentRepository.save(createEntity(em).date(UPDATED_DATE.plusSeconds(1800)).adviser(adviser)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/next-free-slot?adviserId=" + adviser.getId() + "&fromDate=" + UPDATED_DATE.plusSeconds(60))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(Instant.class)
+            .isEqualTo(UPDATED_DATE.plusSeconds(3600));
+    }
+
+    @Test
+    void createAppointmentsInBatch() throws Exception {
+        Adviser adviser = em.insert(AdviserResourceIT.createEntity(em)).block();
+        int databaseSizeBeforeCreate = appointmentRepository.findAll().collectList().block().size();
+
+        List<Appointment> appointments = List.of(
+            createEntity(em).date(UPDATED_DATE).adviser(adviser),
+            createEntity(em).id(Long.MAX_VALUE),
+            createEntity(em).date(UPDATED_DATE.plusSeconds(600)).adviser(adviser),
+            createEntity(em).date(UPDATED_DATE.plusSeconds(1800)).adviser(adviser)
+        );
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(appointments))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(4)
+            .jsonPath("$.[*].index")
+            .value(contains(0, 1, 2, 3))
+            .jsonPath("$.[*].status")
+            .value(contains("CREATED", "FAILED", "FAILED", "CREATED"))
+            .jsonPath("$.[1].errorKey")
+            .isEqualTo("idexists")
+            .jsonPath("$.[2].errorKey")
+            .isEqualTo("slotbooked");
+
+        List<Appointment> appointmentList = appointmentRepository.findAll().collectList().block();
+        assertThat(appointmentList).hasSize(databaseSizeBeforeCreate + 2);
+        Appointment testAppointment = appointmentList.get(appointmentList.size() - 1);
+        assertThat(testAppointment.getReason()).isEqualTo(DEFAULT_REASON);
+        assertThat(testAppointment.getDate()).isEqualTo(UPDATED_DATE.plusSeconds(1800));
+        assertThat(testAppointment.getAdviserId()).isEqualTo(adviser.getId());
+    }
+
+    @Test
+    void createAppointmentsInBatchFromStream() {
+        int databaseSizeBeforeCreate = appointmentRepository.findAll().collectList().block().size();
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/batch")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue("{\"reason\":\"" + DEFAULT_REASON + "\"}\n{\"reason\":\"" + UPDATED_REASON + "\"}\n")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].status")
+            .value(contains("CREATED", "CREATED"));
+
+        List<Appointment> appointmentList = appointmentRepository.findAll().collectList().block();
+        assertThat(appointmentList).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(appointmentList.get(appointmentList.size() - 1).getReason()).isEqualTo(UPDATED_REASON);
+    }
+
     @Test
     void createAppointmentWithExistingId() throws Exception {
         // Create the Appointment with an existing ID
@@ -185,6 +359,189 @@ class AppointmentResourceIT {
             .value(hasItem(DEFAULT_REPORTREASON));
     }
 
+    @Test
+    void getAllAppointmentsAfterCursor() {
+        // Initialize the database
+        Appointment first = appointmentRepository.save(createEntity(em).date(DEFAULT_DATE)).block();
+        Appointment second = appointmentRepository.save(createEntity(em).date(UPDATED_DATE)).block();
+        Appointment third = appointmentRepository.save(createEntity(em).date(null)).block();
+
+        // Get the first page, ordered by date
+        EntityExchangeResult<List<Appointment>> firstPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=date,desc&size=2&after=")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Appointment.class)
+            .returnResult();
+        assertThat(firstPage.getResponseBody()).extracting(Appointment::getId).containsExactly(second.getId(), first.getId());
+        String link = firstPage.getResponseHeaders().getFirst(HttpHeaders.LINK);
+        assertThat(link).endsWith("rel=\"next\"");
+
+        // Follow the cursor to the next page
+        String next = link.substring(link.indexOf('?'), link.indexOf('>'));
+        EntityExchangeResult<List<Appointment>> secondPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + next)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Appointment.class)
+            .returnResult();
+        assertThat(secondPage.getResponseBody()).extracting(Appointment::getId).containsExactly(third.getId());
+        assertThat(secondPage.getResponseHeaders().getFirst(HttpHeaders.LINK)).isNull();
+    }
+
+    @Test
+    void getAllAppointmentsAfterCursorAmongNullValues() {
+        // Initialize the database
+        Appointment first = appointmentRepository.save(createEntity(em).date(DEFAULT_DATE)).block();
+        Appointment second = appointmentRepository.save(createEntity(em).date(null)).block();
+        Appointment third = appointmentRepository.save(createEntity(em).date(null)).block();
+        Appointment fourth = appointmentRepository.save(createEntity(em).date(null)).block();
+
+        // Follow the cursors one row at a time, through the rows without a date
+        List<Long> ids = new ArrayList<>();
+        String next = "?sort=date,asc&size=1&after=";
+        while (next != null) {
+            EntityExchangeResult<List<Appointment>> page = webTestClient
+                .get()
+                .uri(ENTITY_API_URL + next)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Appointment.class)
+                .returnResult();
+            page.getResponseBody().forEach(appointment -> ids.add(appointment.getId()));
+            String link = page.getResponseHeaders().getFirst(HttpHeaders.LINK);
+            next = link != null ? link.substring(link.indexOf('?'), link.indexOf('>')) : null;
+        }
+        assertThat(ids).containsExactly(first.getId(), second.getId(), third.getId(), fourth.getId());
+    }
+
+    @Test
+    void getAllAppointmentsWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?after=invalid")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        // Only the columns of the appointments can be sorted on
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=unknown,asc&after=")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectHeader()
+            .valueEquals("X-appointementsystemApp-error", "error.invalidsort");
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=adviser,asc&after=")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllAppointmentsAsStream() {
+        // Initialize the database
+        appointmentRepository.save(appointment).block();
+
+        List<Appointment> appointmentList = streamAppointments("");
+
+        assertThat(appointmentList).hasSize(1);
+        Appointment testAppointment = appointmentList.get(0);
+        assertThat(testAppointment.getId()).isEqualTo(appointment.getId());
+        assertThat(testAppointment.getReason()).isEqualTo(DEFAULT_REASON);
+        assertThat(testAppointment.getDate()).isEqualTo(DEFAULT_DATE);
+        assertThat(testAppointment.getState()).isEqualTo(DEFAULT_STATE);
+        assertThat(testAppointment.getReportreason()).isEqualTo(DEFAULT_REPORTREASON);
+    }
+
+    @Test
+    void getAllAppointmentsAsStreamFilteredByDateAndAdviser() {
+        // Initialize the database
+        Adviser adviser = em.insert(AdviserResourceIT.createEntity(em)).block();
+        Appointment early = appointmentRepository.save(createEntity(em).date(DEFAULT_DATE)).block();
+        Appointment late = appointmentRepository.save(createEntity(em).date(UPDATED_DATE)).block();
+        Appointment advised = appointmentRepository.save(createEntity(em).date(UPDATED_DATE).adviser(adviser)).block();
+        String middle = DEFAULT_DATE.plusSeconds(1).toString();
+
+        assertThat(streamAppointments("?toDate=" + middle)).extracting(Appointment::getId).containsExactly(early.getId());
+        assertThat(streamAppointments("?fromDate=" + middle))
+            .extracting(Appointment::getId)
+            .containsExactlyInAnyOrder(late.getId(), advised.getId());
+        assertThat(streamAppointments("?fromDate=" + DEFAULT_DATE + "&toDate=" + middle))
+            .extracting(Appointment::getId)
+            .containsExactly(early.getId());
+        assertThat(streamAppointments("?adviserId=" + adviser.getId())).extracting(Appointment::getId).containsExactly(advised.getId());
+    }
+
+    private List<Appointment> streamAppointments(String query) {
+        return webTestClient
+            .get()
+            .uri(ENTITY_API_URL + query)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Appointment.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void getAllAppointmentsKeepsTheTotalCountUpToDate() {
+        // Initialize the database
+        appointmentRepository.save(appointment).block();
+        assertThatTotalCountIs("", "1");
+
+        // Inserts and deletes update the cached count
+        Appointment other = appointmentRepository.save(createUpdatedEntity(em)).block();
+        assertThatTotalCountIs("", "2");
+        webTestClient.delete().uri(ENTITY_API_URL_ID, other.getId()).exchange().expectStatus().isNoContent();
+        assertThatTotalCountIs("", "1");
+
+        // The inserts rolled back don't
+        transactionalOperator
+            .execute(
+                status -> {
+                    status.setRollbackOnly();
+                    return em.insertAll(List.of(createUpdatedEntity(em), createUpdatedEntity(em)));
+                }
+            )
+            .blockLast();
+        assertThatTotalCountIs("", "1");
+
+        assertThatTotalCountIs("?exactCount=true", "1");
+    }
+
+    private void assertThatTotalCountIs(String query, String totalCount) {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + query)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", totalCount);
+    }
+
     @Test
     void getAppointment() {
         // Initialize the database
@@ -213,6 +570,129 @@ class AppointmentResourceIT {
             .value(is(DEFAULT_REPORTREASON));
     }
 
+    @Test
+    void getAllAppointmentsByCriteria() {
+        // Initialize the database
+        bank = em.insert(BankResourceIT.createEntity(em)).block();
+        Adviser adviser = em.insert(AdviserResourceIT.createEntity(em).bank(bank)).block();
+        Adviser otherAdviser = em.insert(AdviserResourceIT.createEntity(em)).block();
+        Manager manager = em.insert(ManagerResourceIT.createEntity(em)).block();
+        Appointment early = appointmentRepository.save(createEntity(em).date(DEFAULT_DATE).state(true).adviser(adviser)).block();
+        Appointment late = appointmentRepository.save(createEntity(em).date(UPDATED_DATE).state(true).adviser(adviser)).block();
+        Appointment declined = appointmentRepository.save(createEntity(em).date(UPDATED_DATE).state(false).adviser(adviser)).block();
+        Appointment other = appointmentRepository.save(createEntity(em).date(UPDATED_DATE).adviser(otherAdviser).manager(manager)).block();
+        String middle = DEFAULT_DATE.plusSeconds(1).toString();
+
+        assertThat(getAppointments("?sort=date,asc&sort=id&adviserId=" + adviser.getId() + "&state=true"))
+            .extracting(Appointment::getId)
+            .containsExactly(early.getId(), late.getId());
+        assertThat(getAppointments("?sort=id&fromDate=" + middle + "&bankId=" + bank.getId()))
+            .extracting(Appointment::getId)
+            .containsExactly(late.getId(), declined.getId());
+        assertThat(getAppointments("?sort=id&fromDate=" + DEFAULT_DATE + "&toDate=" + middle))
+            .extracting(Appointment::getId)
+            .containsExactly(early.getId());
+        assertThat(getAppointments("?managerId=" + manager.getId())).extracting(Appointment::getId).containsExactly(other.getId());
+        assertThatTotalCountIs("?bankId=" + bank.getId() + "&state=true", "2");
+        assertThatTotalCountIs("?bankId=" + bank.getId() + "&managerId=" + manager.getId(), "0");
+
+        // Keyset pages are filtered too
+        assertThat(getAppointments("?sort=date,desc&size=10&after=&bankId=" + bank.getId() + "&state=true"))
+            .extracting(Appointment::getId)
+            .containsExactly(late.getId(), early.getId());
+    }
+
+    private List<Appointment> getAppointments(String query) {
+        return webTestClient
+            .get()
+            .uri(ENTITY_API_URL + query)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Appointment.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    @Test
+    void getAppointmentWithExpandedRelations() {
+        // Initialize the database
+        user = userRepository.save(UserResourceIT.createEntity(em)).block();
+        bank = em.insert(BankResourceIT.createEntity(em)).block();
+        company = em.insert(CompanyResourceIT.createEntity(em)).block();
+        Adviser adviser = em.insert(AdviserResourceIT.createEntity(em).user(user).bank(bank)).block();
+        Manager manager = em.insert(ManagerResourceIT.createEntity(em).company(company)).block();
+        appointmentRepository.save(appointment.adviser(adviser).manager(manager)).block();
+
+        // Get the appointment with the relations of its adviser and of its manager
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "?expand=adviser.user,adviser.bank,manager.user,manager.company", appointment.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.adviser.id")
+            .value(is(adviser.getId().intValue()))
+            .jsonPath("$.adviser.user.login")
+            .value(is(user.getLogin()))
+            .jsonPath("$.adviser.user.password")
+            .doesNotExist()
+            .jsonPath("$.adviser.bank.name")
+            .value(is(bank.getName()))
+            .jsonPath("$.manager.id")
+            .value(is(manager.getId().intValue()))
+            .jsonPath("$.manager.user")
+            .doesNotExist()
+            .jsonPath("$.manager.company.name")
+            .value(is(company.getName()));
+
+        // Get the list of appointments with the bank of their adviser only
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc&expand=adviser.bank")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[0].adviser.bank.name")
+            .value(is(bank.getName()))
+            .jsonPath("$.[0].adviser.user")
+            .doesNotExist()
+            .jsonPath("$.[0].manager.company")
+            .doesNotExist();
+
+        // Get the appointment without expanding its relations
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, appointment.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.adviser.bankId")
+            .value(is(bank.getId().intValue()))
+            .jsonPath("$.adviser.bank")
+            .doesNotExist();
+    }
+
+    @Test
+    void getAppointmentWithInvalidExpansion() {
+        appointmentRepository.save(appointment).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "?expand=adviser.appointments", appointment.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getNonExistingAppointment() {
         // Get the appointment
@@ -347,6 +827,40 @@ class AppointmentResourceIT {
         assertThat(testAppointment.getReportreason()).isEqualTo(DEFAULT_REPORTREASON);
     }
 
+    @Test
+    void partialUpdateAppointmentsInBatch() throws Exception {
+        // Initialize the database
+        appointmentRepository.save(appointment).block();
+        Appointment other = appointmentRepository.save(createEntity(em)).block();
+
+        Appointment partialUpdatedAppointment = new Appointment().reason(UPDATED_REASON);
+        partialUpdatedAppointment.setId(appointment.getId());
+        Appointment missingAppointment = new Appointment().reason(UPDATED_REASON);
+        missingAppointment.setId(Long.MAX_VALUE);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL + "/batch")
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(List.of(partialUpdatedAppointment, missingAppointment)))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].status")
+            .value(contains("UPDATED", "FAILED"))
+            .jsonPath("$.[0].id")
+            .isEqualTo(appointment.getId().intValue())
+            .jsonPath("$.[1].errorKey")
+            .isEqualTo("idnotfound");
+
+        Appointment testAppointment = appointmentRepository.findById(appointment.getId()).block();
+        assertThat(testAppointment.getReason()).isEqualTo(UPDATED_REASON);
+        assertThat(testAppointment.getDate()).isEqualTo(DEFAULT_DATE);
+        assertThat(testAppointment.getReportreason()).isEqualTo(DEFAULT_REPORTREASON);
+        assertThat(appointmentRepository.findById(other.getId()).block().getReason()).isEqualTo(DEFAULT_REASON);
+    }
+
     @Test
     void fullUpdateAppointmentWithPatch() throws Exception {
         // Initialize the database
@@ -459,4 +973,29 @@ class AppointmentResourceIT {
         List<Appointment> appointmentList = appointmentRepository.findAll().collectList().block();
         assertThat(appointmentList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    void deleteAppointmentsInBatch() throws Exception {
+        // Initialize the database
+        appointmentRepository.save(appointment).block();
+        Appointment other = appointmentRepository.save(createEntity(em)).block();
+
+        int databaseSizeBeforeDelete = appointmentRepository.findAll().collectList().block().size();
+
+        webTestClient
+            .method(HttpMethod.DELETE)
+            .uri(ENTITY_API_URL + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(List.of(appointment.getId(), Long.MAX_VALUE, other.getId())))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].status")
+            .value(contains("DELETED", "FAILED", "DELETED"));
+
+        // Validate the database contains two less items
+        List<Appointment> appointmentList = appointmentRepository.findAll().collectList().block();
+        assertThat(appointmentList).hasSize(databaseSizeBeforeDelete - 2);
+    }
 }
@@ -1,6 +1,7 @@
 package com.reactnatjhip.developer.web.rest;
 
 import com.reactnatjhip.developer.IntegrationTest;
+import com.reactnatjhip.developer.config.ApplicationProperties;
 import com.reactnatjhip.developer.config.Constants;
 import com.reactnatjhip.developer.domain.User;
 import com.reactnatjhip.developer.repository.UserRepository;
@@ -8,6 +9,8 @@ import com.reactnatjhip.developer.web.rest.vm.LoginVM;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -28,6 +31,9 @@ class UserJWTControllerIT {
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Test
     void testAuthorize() throws Exception {
         User user = new User();
@@ -106,4 +112,38 @@ class UserJWTControllerIT {
             .jsonPath("$.id_token")
             .doesNotExist();
     }
+
+    @Test
+    void testAuthorizeIsThrottled() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-throttled");
+        login.setPassword("wrong password");
+        int capacity = applicationProperties.getLoginThrottling().getPerLogin().getCapacity();
+        for (int i = 0; i < capacity; i++) {
+            webTestClient
+                .post()
+                .uri("/api/authenticate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+                .exchange()
+                .expectStatus()
+                .isUnauthorized();
+        }
+
+        webTestClient
+            .post()
+            .uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+            .expectHeader()
+            .exists(HttpHeaders.RETRY_AFTER)
+            .expectHeader()
+            .doesNotExist("Authorization")
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.loginthrottled");
+    }
 }
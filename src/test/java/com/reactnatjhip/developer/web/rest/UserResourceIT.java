@@ -1,6 +1,7 @@
 package com.reactnatjhip.developer.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 
 import com.reactnatjhip.developer.IntegrationTest;
 import com.reactnatjhip.developer.config.Constants;
@@ -163,6 +164,71 @@ class UserResourceIT {
         );
     }
 
+    @Test
+    void importUsers() throws Exception {
+        // Initialize the database
+        userRepository.save(user).block();
+
+        List<AdminUserDTO> users = List.of(
+            importedUser("imported", "imported@localhost", Set.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN, "ROLE_UNKNOWN")),
+            importedUser(DEFAULT_LOGIN.toUpperCase(), "other@localhost", Set.of(AuthoritiesConstants.USER)),
+            importedUser("other", "IMPORTED@localhost", Set.of(AuthoritiesConstants.USER)),
+            importedUser("another", "another@localhost", Set.of()),
+            importedUser("invalid", "not-an-email", Set.of()),
+            importedUser("funky-log(n", "funky@localhost", Set.of()),
+            importedUser("toolong", "toolong@localhost", Set.of())
+        );
+        users.get(3).setId(DEFAULT_ID);
+        users.get(6).setFirstName(RandomStringUtils.randomAlphabetic(51));
+
+        webTestClient
+            .post()
+            .uri("/api/admin/users/import")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(users))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].index")
+            .value(contains(0, 1, 2, 3, 4, 5, 6))
+            .jsonPath("$.[*].status")
+            .value(contains("CREATED", "FAILED", "FAILED", "FAILED", "FAILED", "FAILED", "FAILED"))
+            .jsonPath("$.[1].errorKey")
+            .isEqualTo("userexists")
+            .jsonPath("$.[2].errorKey")
+            .isEqualTo("emailexists")
+            .jsonPath("$.[3].errorKey")
+            .isEqualTo("idexists")
+            .jsonPath("$.[4].errorKey")
+            .isEqualTo("invalidemail")
+            .jsonPath("$.[5].errorKey")
+            .isEqualTo("invalidlogin")
+            .jsonPath("$.[6].errorKey")
+            .isEqualTo("invalidfirstname");
+
+        User imported = userRepository.findOneWithAuthoritiesByLogin("imported").block();
+        assertThat(imported.isActivated()).isTrue();
+        assertThat(imported.getResetKey()).isNotNull();
+        assertThat(imported.getCreatedBy()).isEqualTo("user");
+        assertThat(imported.getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        assertThat(userRepository.findOneByLogin("other").blockOptional()).isEmpty();
+        assertThat(userRepository.findOneByLogin("invalid").blockOptional()).isEmpty();
+    }
+
+    private static AdminUserDTO importedUser(String login, String email, Set<String> authorities) {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(login);
+        userDTO.setEmail(email);
+        userDTO.setFirstName(DEFAULT_FIRSTNAME);
+        userDTO.setLastName(DEFAULT_LASTNAME);
+        userDTO.setLangKey(DEFAULT_LANGKEY);
+        userDTO.setAuthorities(authorities);
+        return userDTO;
+    }
+
     @Test
     void createUserWithExistingId() throws Exception {
         int databaseSizeBeforeCreate = userRepository.findAll().collectList().block().size();